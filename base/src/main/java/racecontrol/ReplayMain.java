@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.AccBroadcastingClient;
+import racecontrol.client.AccBroadcastingClient.ExitState;
+import racecontrol.persistance.PersistantConfig;
+import racecontrol.utility.Version;
+
+/**
+ * Headless entry point that replays a packet recording through the client
+ * and all its extensions without opening a window.
+ *
+ * Usage: ReplayMain &lt;recording&gt; [speed|max]
+ *
+ * @author Leonard
+ */
+public class ReplayMain {
+
+    /**
+     * This classes logger.
+     */
+    private static final Logger LOG = Logger.getLogger(ReplayMain.class.getName());
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: ReplayMain <recording> [speed|max]");
+            System.exit(1);
+        }
+        File recording = new File(args[0]);
+        float speed = 0;
+        if (args.length == 2 && !args[1].equalsIgnoreCase("max")) {
+            try {
+                speed = Float.parseFloat(args[1]);
+            } catch (NumberFormatException e) {
+                System.out.println(args[1] + " is not a valid speed.");
+                System.exit(1);
+            }
+        }
+
+        Thread.setDefaultUncaughtExceptionHandler(new Main.UncoughtExceptionHandler());
+        LOG.info("Version: " + Version.VERSION);
+        PersistantConfig.init();
+
+        AccBroadcastingClient client = AccBroadcastingClient.getClient();
+        client.initialise(true);
+
+        long start = System.nanoTime();
+        try {
+            client.replay(recording, speed);
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Error opening the recording.", e);
+            System.exit(1);
+        }
+        ExitState exitState = client.waitForFinish();
+        long elapsed = System.nanoTime() - start;
+
+        int packets = client.getPacketCount();
+        double seconds = elapsed / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.println(String.format("Replayed %d packets in %.3f s (%.0f packets/s)",
+                packets, seconds, packets / seconds));
+        System.out.println("Highest queue depth: " + client.getPacketQueueHighWaterMark());
+        System.out.println("Exit state: " + exitState.name());
+        System.exit(exitState == ExitState.NORMAL ? 0 : 1);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.AccBroadcastingClient;
+import racecontrol.client.AccBroadcastingClient.ExitState;
+import racecontrol.client.data.SessionInfo;
+import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.eventbus.EventBus;
+import racecontrol.persistance.PersistantConfig;
+import racecontrol.simulator.BroadcastingServerSimulator;
+import racecontrol.utility.Version;
+
+/**
+ * Runs a simulated ACC broadcasting server on a local port. By default a
+ * headless client is connected to it in the same process and the packet
+ * loss and latency of the client are reported at the end.
+ *
+ * Usage: SimulatorMain [--port n] [--cars n] [--interval ms] [--track name]
+ * [--duration s] [--standalone]
+ *
+ * While running the commands "accident &lt;carId&gt;", "pit &lt;carId&gt;",
+ * "disconnect &lt;carId&gt;", "reconnect &lt;carId&gt;", "session" and
+ * "quit" are read from the standard input.
+ *
+ * @author Leonard
+ */
+public class SimulatorMain {
+
+    /**
+     * This classes logger.
+     */
+    private static final Logger LOG = Logger.getLogger(SimulatorMain.class.getName());
+
+    public static void main(String[] args) {
+        int port = 9000;
+        int cars = 30;
+        int interval = 0;
+        String track = "Circuit Zandvoort";
+        int duration = 60;
+        boolean standalone = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cars":
+                        cars = Integer.parseInt(args[++i]);
+                        break;
+                    case "--interval":
+                        interval = Integer.parseInt(args[++i]);
+                        break;
+                    case "--track":
+                        track = args[++i];
+                        break;
+                    case "--duration":
+                        duration = Integer.parseInt(args[++i]);
+                        break;
+                    case "--standalone":
+                        standalone = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Usage: SimulatorMain [--port n] [--cars n] [--interval ms]"
+                    + " [--track name] [--duration s] [--standalone]");
+            System.exit(1);
+        }
+
+        Thread.setDefaultUncaughtExceptionHandler(new Main.UncoughtExceptionHandler());
+        LOG.info("Version: " + Version.VERSION);
+
+        BroadcastingServerSimulator simulator
+                = new BroadcastingServerSimulator(port, cars, interval, track);
+        try {
+            simulator.start();
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Error starting the simulator.", e);
+            System.exit(1);
+        }
+        startCommandReader(simulator);
+
+        if (standalone) {
+            return;
+        }
+
+        PersistantConfig.init();
+        AccBroadcastingClient client = AccBroadcastingClient.getClient();
+        client.initialise(true);
+        EventBus.register(event -> {
+            if (event instanceof RealtimeUpdateEvent) {
+                SessionInfo info = ((RealtimeUpdateEvent) event).getSessionInfo();
+                simulator.onTickReceived(info.getSessionIndex(), info.getSessionTime(), System.nanoTime());
+            }
+        });
+        try {
+            client.connect("Simulator client", "", "",
+                    interval > 0 ? interval : 250,
+                    InetAddress.getLoopbackAddress(), port);
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Error connecting to the simulator.", e);
+            simulator.stop();
+            System.exit(1);
+        }
+        client.sendRegisterRequest();
+
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(duration));
+        } catch (InterruptedException e) {
+            LOG.log(Level.WARNING, "Interrupted while simulating.", e);
+        }
+        client.sendUnregisterRequest();
+        try {
+            //let the client process the remaining packets.
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            LOG.log(Level.WARNING, "Interrupted while simulating.", e);
+        }
+        client.stopAndKill();
+        ExitState exitState = client.waitForFinish();
+        simulator.stop();
+
+        long sent = simulator.getPacketsSent();
+        long received = client.getPacketCount();
+        long dropped = client.getDroppedPacketCount();
+        System.out.println("Packets sent: " + sent
+                + " (" + simulator.getSendFailures() + " refused by the OS)");
+        System.out.println("Packets received: " + received);
+        System.out.println("Packets dropped by the client: " + dropped);
+        System.out.println("Packets lost: " + Math.max(0, sent - received - dropped));
+        System.out.println("Highest queue depth: " + client.getPacketQueueHighWaterMark());
+        System.out.println(String.format("Realtime update latency: p50 %.3f ms, p99 %.3f ms, max %.3f ms (%d samples)",
+                simulator.getLatencyPercentile(0.5) / 1e6,
+                simulator.getLatencyPercentile(0.99) / 1e6,
+                simulator.getLatencyPercentile(1) / 1e6,
+                simulator.getLatencySampleCount()));
+        System.out.println("Exit state: " + exitState.name());
+        System.exit(0);
+    }
+
+    private static void startCommandReader(BroadcastingServerSimulator simulator) {
+        Thread reader = new Thread(() -> {
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] parts = line.trim().split("\\s+");
+                    try {
+                        switch (parts[0]) {
+                            case "accident":
+                                simulator.injectAccident(Integer.parseInt(parts[1]));
+                                break;
+                            case "pit":
+                                simulator.injectPitStop(Integer.parseInt(parts[1]));
+                                break;
+                            case "disconnect":
+                                simulator.injectDisconnect(Integer.parseInt(parts[1]));
+                                break;
+                            case "reconnect":
+                                simulator.injectReconnect(Integer.parseInt(parts[1]));
+                                break;
+                            case "session":
+                                simulator.injectSessionChange();
+                                break;
+                            case "quit":
+                                simulator.stop();
+                                System.exit(0);
+                                break;
+                            case "":
+                                break;
+                            default:
+                                System.out.println("Unknown command " + parts[0]);
+                        }
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        System.out.println("Usage: " + parts[0] + " <carId>");
+                    }
+                }
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Error reading commands.", e);
+            }
+        }, "Simulator command thread");
+        reader.setDaemon(true);
+        reader.start();
+    }
+}
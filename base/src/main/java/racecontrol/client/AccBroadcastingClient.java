@@ -12,13 +12,16 @@ import racecontrol.client.events.CarConnectedEvent;
 import racecontrol.client.events.CarDisconnectedEvent;
 import racecontrol.client.events.EntryListCarUpdateEvent;
 import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeTickEvent;
 import racecontrol.client.events.RegistrationResultEvent;
 import racecontrol.client.events.SessionPhaseChangedEvent;
 import racecontrol.client.events.TrackInfoEvent;
 import racecontrol.eventbus.EventBus;
 import racecontrol.client.data.AccBroadcastingData;
 import racecontrol.client.data.BroadcastingEvent;
+import racecontrol.client.data.BroadcastingEventLog;
 import racecontrol.client.data.CarInfo;
+import racecontrol.client.data.LiveCarState;
 import racecontrol.client.data.RealtimeInfo;
 import racecontrol.client.data.SessionInfo;
 import racecontrol.client.data.TrackInfo;
@@ -26,21 +29,27 @@ import racecontrol.client.data.enums.SessionPhase;
 import racecontrol.client.data.enums.SessionType;
 import racecontrol.client.events.ConnectionClosedEvent;
 import racecontrol.client.events.ConnectionOpenedEvent;
-import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.SocketException;
-import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import static java.util.Objects.requireNonNull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import racecontrol.Main;
@@ -49,12 +58,17 @@ import racecontrol.client.events.EntryListUpdateEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.events.ReplayEndedEvent;
 import racecontrol.client.events.ReplayStartedEvent;
+import racecontrol.client.extension.carhistory.CarHistoryExtension;
 import racecontrol.client.extension.contact.ContactExtension;
 import racecontrol.client.extension.dangerdetection.DangerDetectionExtension;
 import racecontrol.client.extension.googlesheetsapi.GoogleSheetsAPIExtension;
 import racecontrol.client.extension.laptimes.LapTimeExtension;
 import racecontrol.client.extension.replayoffset.ReplayOffsetExtension;
 import racecontrol.logging.UILogger;
+import racecontrol.persistance.PersistantConfig;
+import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_RECEIVE_BUFFER_SIZE;
+import static racecontrol.persistance.PersistantConfigKeys.EVENT_LOG_MEMORY_CAP;
+import static racecontrol.persistance.PersistantConfigKeys.RECORD_PACKETS;
 import racecontrol.client.extension.racereport.RaceReportController;
 import racecontrol.client.extension.results.ResultsExtension;
 import racecontrol.client.extension.statistics.StatisticsExtension;
@@ -102,9 +116,38 @@ public class AccBroadcastingClient {
      */
     private int updateInterval;
     /**
-     * Socket used for the connection.
+     * Channel used for the connection.
      */
-    private DatagramSocket socket;
+    private DatagramChannel channel;
+    /**
+     * Time in ms without a packet before the connection times out.
+     */
+    private static final int RECEIVE_TIMEOUT = 10000;
+    /**
+     * Maximum size of a single datagram.
+     */
+    private static final int MAX_PACKET_SIZE = 2048;
+    /**
+     * Amount of datagrams that can be queued before packets are dropped.
+     */
+    private static final int PACKET_BUFFER_CAPACITY = 1024;
+    /**
+     * Queue between the socket reader and the packet processing thread.
+     */
+    private PacketRingBuffer packetBuffer = new PacketRingBuffer(1, MAX_PACKET_SIZE);
+    /**
+     * Records inbound datagrams to disk. Null when recording is disabled.
+     */
+    private PacketRecorder packetRecorder;
+    /**
+     * Recording to replay instead of a live connection. Null when connected
+     * to the game.
+     */
+    private PacketRecordingReader replayReader;
+    /**
+     * Playback speed of the replay. 0 or less for as fast as possible.
+     */
+    private float replaySpeed;
     /**
      * Thread where the connection loop is running.
      */
@@ -133,6 +176,10 @@ public class AccBroadcastingClient {
      * Counts how many packets have been received.
      */
     private static int packetCount = 0;
+    /**
+     * Receive time of the packet that is currently processed.
+     */
+    private volatile long packetTime = 0;
     /**
      * List of broadcast extensions.
      */
@@ -142,11 +189,23 @@ public class AccBroadcastingClient {
     }
 
     public void initialise() {
+        initialise(false);
+    }
+
+    /**
+     * Instanciates the client extensions.
+     *
+     * @param headless If true extensions that depend on the GUI are left out.
+     */
+    public void initialise(boolean headless) {
         //instanciate extensions
+        extensions.add(CarHistoryExtension.getInstance());
         extensions.add(ContactExtension.getInstance());
         extensions.add(GoogleSheetsAPIExtension.getInstance());
         extensions.add(new LapTimeExtension());
-        extensions.add(RaceReportController.getInstance());
+        if (!headless) {
+            extensions.add(RaceReportController.getInstance());
+        }
         extensions.add(ReplayOffsetExtension.getInstance());
         extensions.add(new ResultsExtension());
         extensions.add(TrackDataExtension.getInstance());
@@ -178,14 +237,14 @@ public class AccBroadcastingClient {
      * @param updateInterval The interval in which to receive updates.
      * @param hostAddress Host address of the server.
      * @param hostPort Host port of the server.
-     * @throws java.net.SocketException
+     * @throws java.io.IOException
      */
     public void connect(String displayName,
             String connectionPassword,
             String commandPassword,
             int updateInterval,
             InetAddress hostAddress,
-            int hostPort) throws SocketException {
+            int hostPort) throws IOException {
         this.displayName = requireNonNull(displayName, "displayName");
         this.connectionPassword = requireNonNull(connectionPassword, "connectionPassword");
         this.commandPassword = requireNonNull(commandPassword, "commandPassword");
@@ -196,18 +255,84 @@ public class AccBroadcastingClient {
         this.hostAddress = requireNonNull(hostAddress, "hostAddress");
         this.hostPort = requireNonNull(hostPort, "hostPort");
 
-        //create socket
-        socket = new DatagramSocket();
-        socket.setSoTimeout(10000);
-        socket.connect(this.hostAddress, this.hostPort);
+        //create channel
+        replayReader = null;
+        channel = DatagramChannel.open();
+        int receiveBufferSize = PersistantConfig.get(CONNECTION_RECEIVE_BUFFER_SIZE);
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+        int actualBufferSize = channel.getOption(StandardSocketOptions.SO_RCVBUF);
+        if (actualBufferSize < receiveBufferSize) {
+            LOG.warning("Socket receive buffer limited to " + actualBufferSize
+                    + " bytes by the OS. Requested " + receiveBufferSize + " bytes.");
+        }
+        channel.connect(new InetSocketAddress(this.hostAddress, this.hostPort));
+        channel.configureBlocking(false);
+
+        //create packet recorder
+        packetRecorder = null;
+        if (PersistantConfig.get(RECORD_PACKETS)) {
+            try {
+                packetRecorder = new PacketRecorder(
+                        new File(System.getProperty("user.dir"), "recordings"));
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "Error creating the packet recorder.", e);
+            }
+        }
+
+        //create new data model and sessionId
+        packetBuffer = new PacketRingBuffer(PACKET_BUFFER_CAPACITY, MAX_PACKET_SIZE);
+        model = new AccBroadcastingData(createEventLog());
+        sessionId = new SessionId(SessionType.NONE, -1, 0);
+
+        startListernerThread();
+    }
+
+    /**
+     * Replays a packet recording instead of connecting to the game. The
+     * recorded datagrams are fed through the same processing as a live
+     * connection.
+     *
+     * @param recording The recording file to replay.
+     * @param speed Playback speed relative to the original pacing. A value
+     * of 0 or less replays as fast as possible.
+     * @throws IOException if the recording cannot be opened.
+     */
+    public void replay(File recording, float speed) throws IOException {
+        replayReader = new PacketRecordingReader(requireNonNull(recording, "recording"));
+        replaySpeed = speed;
+        channel = null;
+        packetRecorder = null;
 
         //create new data model and sessionId
-        model = new AccBroadcastingData();
+        packetBuffer = new PacketRingBuffer(PACKET_BUFFER_CAPACITY, MAX_PACKET_SIZE);
+        model = new AccBroadcastingData(createEventLog());
         sessionId = new SessionId(SessionType.NONE, -1, 0);
 
         startListernerThread();
     }
 
+    /**
+     * Creates the log for the broadcasting events of a connection. If a
+     * memory cap is configured, older events are written to a file in the
+     * events directory.
+     *
+     * @return the event log.
+     */
+    private BroadcastingEventLog createEventLog() {
+        int memoryCap = PersistantConfig.get(EVENT_LOG_MEMORY_CAP);
+        if (memoryCap <= 0) {
+            return new BroadcastingEventLog();
+        }
+        File directory = new File(System.getProperty("user.dir"), "events");
+        if (!directory.exists() && !directory.mkdir()) {
+            LOG.warning("Error creating the events directory.");
+            return new BroadcastingEventLog(memoryCap, null);
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        File file = new File(directory, dateFormat.format(new Date()) + "_events.txt");
+        return new BroadcastingEventLog(memoryCap, file);
+    }
+
     private void startListernerThread() {
         accListenerThread = new UdpListener("ACC listener thread");
         accListenerThread.start();
@@ -251,14 +376,14 @@ public class AccBroadcastingClient {
     }
 
     /**
-     * Returns true if the socket is connected and currently listening for a
+     * Returns true if the channel is connected and currently listening for a
      * packet.
      *
      * @return True when connected.
      */
     public boolean isConnected() {
-        if (socket != null
-                && socket.isConnected()
+        if (channel != null
+                && channel.isConnected()
                 && accListenerThread != null
                 && accListenerThread.isAlive()
                 && accListenerThread.getExitState() == ExitState.NONE) {
@@ -276,6 +401,54 @@ public class AccBroadcastingClient {
         return packetCount;
     }
 
+    /**
+     * Returns the time the packet that is currently processed was received.
+     * In a replay this is the time the packet was recorded at, so timers based
+     * on it run the same at every replay speed. Use this instead of the wall
+     * clock for anything that is derived from the received data.
+     *
+     * @return the time in ms since the epoch.
+     */
+    public long getPacketTime() {
+        return packetTime;
+    }
+
+    /**
+     * Returns the amount of packets received but not yet processed.
+     *
+     * @return the current packet queue depth.
+     */
+    public int getPacketQueueSize() {
+        return packetBuffer.size();
+    }
+
+    /**
+     * Returns the highest packet queue depth of the current connection.
+     *
+     * @return the packet queue high water mark.
+     */
+    public int getPacketQueueHighWaterMark() {
+        return packetBuffer.getHighWaterMark();
+    }
+
+    /**
+     * Returns the amount of packets dropped because processing fell behind.
+     *
+     * @return the dropped packet count.
+     */
+    public long getDroppedPacketCount() {
+        return packetBuffer.getDroppedCount();
+    }
+
+    /**
+     * Returns true if the inbound packets of this connection are recorded.
+     *
+     * @return True when recording.
+     */
+    public boolean isRecording() {
+        return packetRecorder != null;
+    }
+
     /**
      * Returns the current SessionId object.
      *
@@ -334,7 +507,7 @@ public class AccBroadcastingClient {
      * @param carIndex the car index of the car to focus on.
      */
     public void sendChangeFocusRequest(int carIndex) {
-        if (!model.getCarsInfo().containsKey(carIndex)) {
+        if (!model.getCarState().contains(carIndex)) {
             return;
         }
         sendRequest(AccBroadcastingProtocol.buildFocusRequest(
@@ -368,7 +541,7 @@ public class AccBroadcastingClient {
      * @param cam The specific camera to change to.
      */
     public void sendSetCameraRequestWithFocus(int carIndex, String camSet, String cam) {
-        if (!model.getCarsInfo().containsKey(carIndex)) {
+        if (!model.getCarState().contains(carIndex)) {
             return;
         }
         sendRequest(AccBroadcastingProtocol.buildFocusRequest(
@@ -439,14 +612,24 @@ public class AccBroadcastingClient {
      * Disconnect from the game.
      */
     public void disconnect() {
-        socket.disconnect();
-        socket.close();
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.disconnect();
+            channel.close();
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Error closing the channel.", e);
+        }
+        if (accListenerThread != null) {
+            accListenerThread.wakeup();
+        }
     }
 
     private void sendRequest(byte[] requestBytes) {
-        if (socket.isConnected()) {
+        if (channel != null && channel.isConnected()) {
             try {
-                socket.send(new DatagramPacket(requestBytes, requestBytes.length));
+                channel.write(ByteBuffer.wrap(requestBytes));
             } catch (IOException e) {
                 LOG.log(Level.SEVERE, "Error sending request.", e);
             }
@@ -476,27 +659,40 @@ public class AccBroadcastingClient {
         /**
          * exit state of this thread.
          */
-        private ExitState exitState = ExitState.NONE;
+        private volatile ExitState exitState = ExitState.NONE;
         /**
          * flag to indicate that the socket was closed by the user.
          */
-        private boolean forceExit = false;
+        private volatile boolean forceExit = false;
+        /**
+         * Selector used to wait for incoming datagrams.
+         */
+        private volatile Selector selector;
         /**
          * Flag to indicate that the connection should be running.
          */
-        private boolean running = true;
+        private volatile boolean running = true;
         /**
-         * Maps a car id to the ammount of missed realtime updates.
+         * Flag to indicate that the socket reader has stopped.
          */
-        private final Map<Integer, Integer> missedRealtimeUpdates = new HashMap<>();
+        private volatile boolean readerDone = false;
         /**
          * Ammount of missed realtime updates before disconnect.
          */
         private final int maximumRealtimeMisses = 5;
         /**
-         * List of cars that have received a realtime update this tick.
+         * Session info of the tick that is being assembled. Null if there is
+         * no open tick.
+         */
+        private SessionInfo tickSessionInfo;
+        /**
+         * Car updates of the tick that is being assembled.
          */
-        private final List<Integer> realtimeUpdatesReceived = new ArrayList<>();
+        private RealtimeInfo[] tickCars = new RealtimeInfo[64];
+        /**
+         * Amount of car updates in the tick that is being assembled.
+         */
+        private int tickCarCount;
         /**
          * List of cars that have recentrly connected.
          */
@@ -533,14 +729,35 @@ public class AccBroadcastingClient {
             EventBus.publish(new ConnectionOpenedEvent());
             UILogger.log("Connection opened");
             LOG.info("Starting Listener thread");
+            Thread processorThread = new Thread(this::packetProcessor, "ACC packet processor thread");
+            processorThread.start();
             try {
-                udpListener();
+                if (replayReader != null) {
+                    replayListener();
+                } else {
+                    udpListener();
+                }
             } catch (Exception e) {
                 LOG.log(Level.SEVERE, "Error in the listener thread", e);
                 exitState = ExitState.EXCEPTION;
-            } catch (StackOverflowError e) {
-                LOG.log(Level.SEVERE, "Overflow in listener thread", e);
-                exitState = ExitState.EXCEPTION;
+            }
+            if (packetRecorder != null) {
+                packetRecorder.close();
+            }
+            //let the processor finish the packets that are still queued.
+            readerDone = true;
+            packetBuffer.wakeup();
+            //interrupt() is used to stop the listener, keep waiting for the processor.
+            while (processorThread.isAlive()) {
+                try {
+                    processorThread.join();
+                } catch (InterruptedException e) {
+                    LOG.fine("Interrupted while waiting for the packet processor");
+                }
+            }
+            if (packetBuffer.getDroppedCount() > 0) {
+                LOG.warning("Dropped " + packetBuffer.getDroppedCount()
+                        + " packets. Highest queue depth: " + packetBuffer.getHighWaterMark());
             }
             EventBus.publish(new ConnectionClosedEvent(exitState));
             UILogger.log("Connection closed");
@@ -549,9 +766,25 @@ public class AccBroadcastingClient {
 
         @Override
         public void interrupt() {
-            super.interrupt();
             forceExit = true;
-            socket.close();
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOG.log(Level.SEVERE, "Error closing the channel.", e);
+                }
+            }
+            super.interrupt();
+        }
+
+        /**
+         * Wakes up the listener so that it notices a closed channel.
+         */
+        public void wakeup() {
+            Selector s = selector;
+            if (s != null) {
+                s.wakeup();
+            }
         }
 
         public ExitState getExitState() {
@@ -559,30 +792,114 @@ public class AccBroadcastingClient {
         }
 
         private void udpListener() {
-            while (running) {
-                try {
-                    DatagramPacket response = new DatagramPacket(new byte[2048], 2048);
-                    socket.receive(response);
-                    protocol.processMessage(new ByteArrayInputStream(response.getData()));
-                    afterPacketReceived(response.getData()[0]);
-                } catch (SocketTimeoutException e) {
-                    LOG.log(Level.WARNING, "Socket timed out.", e);
-                    exitState = ExitState.TIMEOUT;
-                    return;
-                } catch (SocketException e) {
-                    if (forceExit) {
-                        LOG.info("Socket was closed by user.");
-                        exitState = ExitState.NORMAL;
-                    } else {
-                        LOG.log(Level.SEVERE, "Socket closed unexpected.", e);
-                        exitState = ExitState.PORT_UNREACHABLE;
+            ByteBuffer message = ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+            try (Selector selector = Selector.open()) {
+                this.selector = selector;
+                channel.register(selector, SelectionKey.OP_READ);
+                while (running) {
+                    int readyCount = selector.select(RECEIVE_TIMEOUT);
+                    if (!channel.isOpen()) {
+                        throw new ClosedChannelException();
                     }
-                    return;
-                } catch (IOException e) {
-                    LOG.log(Level.SEVERE, "Error while receiving a response", e);
-                    exitState = ExitState.EXCEPTION;
-                    return;
+                    if (readyCount == 0) {
+                        if (forceExit) {
+                            LOG.info("Channel was closed by user.");
+                            exitState = ExitState.NORMAL;
+                        } else {
+                            LOG.warning("Channel timed out.");
+                            exitState = ExitState.TIMEOUT;
+                        }
+                        return;
+                    }
+                    selector.selectedKeys().clear();
+
+                    //drain all datagrams that are queued in the socket buffer.
+                    while (running) {
+                        message.clear();
+                        if (channel.read(message) <= 0) {
+                            break;
+                        }
+                        message.flip();
+                        if (packetRecorder != null) {
+                            packetRecorder.record(message);
+                        }
+                        packetBuffer.offer(message, System.currentTimeMillis());
+                    }
+                }
+            } catch (ClosedChannelException | SocketException e) {
+                if (forceExit) {
+                    LOG.info("Channel was closed by user.");
+                    exitState = ExitState.NORMAL;
+                } else {
+                    LOG.log(Level.SEVERE, "Socket closed unexpected.", e);
+                    exitState = ExitState.PORT_UNREACHABLE;
                 }
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "Error while receiving a response", e);
+                exitState = ExitState.EXCEPTION;
+            }
+        }
+
+        private void replayListener() {
+            long startNanos = System.nanoTime();
+            long firstTimestamp = -1;
+            try (PacketRecordingReader reader = replayReader) {
+                while (running && !forceExit && reader.next()) {
+                    if (firstTimestamp < 0) {
+                        firstTimestamp = reader.getTimestamp();
+                    }
+                    if (replaySpeed > 0) {
+                        long due = startNanos
+                                + (long) ((reader.getTimestamp() - firstTimestamp) / replaySpeed);
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    }
+                    //a replay never drops packets, wait for the processor instead.
+                    while (packetBuffer.isFull() && running && !forceExit) {
+                        Thread.yield();
+                    }
+                    packetBuffer.offer(reader.getPacket(), reader.getStartTime()
+                            + TimeUnit.NANOSECONDS.toMillis(reader.getTimestamp()));
+                }
+                if (exitState == ExitState.NONE) {
+                    exitState = ExitState.NORMAL;
+                }
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "Error while reading the recording", e);
+                exitState = ExitState.EXCEPTION;
+            }
+        }
+
+        private void packetProcessor() {
+            try {
+                while (running) {
+                    ByteBuffer message = packetBuffer.peek();
+                    if (message == null) {
+                        if (readerDone) {
+                            return;
+                        }
+                        packetBuffer.await();
+                        continue;
+                    }
+                    if (message.hasRemaining()) {
+                        packetTime = packetBuffer.peekTime();
+                        protocol.processMessage(message);
+                        afterPacketReceived(message.get(0));
+                    }
+                    packetBuffer.release();
+                }
+            } catch (Exception e) {
+                LOG.log(Level.SEVERE, "Error in the packet processor thread", e);
+                exitState = ExitState.EXCEPTION;
+                running = false;
+                wakeup();
+            } catch (StackOverflowError e) {
+                LOG.log(Level.SEVERE, "Overflow in packet processor thread", e);
+                exitState = ExitState.EXCEPTION;
+                running = false;
+                wakeup();
             }
         }
 
@@ -592,6 +909,7 @@ public class AccBroadcastingClient {
                 LOG.info("Connection refused\n" + message);
                 exitState = ExitState.REFUSED;
                 running = false;
+                wakeup();
                 return;
             }
             model = model.withConnectionId(connectionID);
@@ -608,6 +926,11 @@ public class AccBroadcastingClient {
 
         @Override
         public void onRealtimeUpdate(SessionInfo sessionInfo) {
+            //the previous tick is over even if not all cars have reported.
+            //count the misses first, so the tick carries the current age.
+            model.getCarState().countMissedUpdates();
+            publishTick(false);
+
             SessionInfo oldInfo = model.getSessionInfo();
             model = model.withSessionInfo(sessionInfo);
 
@@ -680,30 +1003,35 @@ public class AccBroadcastingClient {
                 }
             }
             EventBus.publish(new RealtimeUpdateEvent(sessionInfo));
-        }
 
-        private void checkForMissedRealtimeCarUpdates() {
-            //reset missed updates to 0 for cars that have received on.
-            realtimeUpdatesReceived.forEach(carId -> missedRealtimeUpdates.put(carId, 0));
+            //start the next tick.
+            tickSessionInfo = sessionInfo;
+            tickCarCount = 0;
+        }
 
-            //increase misses for cars that did not update
-            model.getCarsInfo().values().stream()
-                    .map(carInfo -> carInfo.getCarId())
-                    .filter(carId -> !realtimeUpdatesReceived.contains(carId))
-                    .forEach(carId -> {
-                        missedRealtimeUpdates.put(carId, missedRealtimeUpdates.getOrDefault(carId, 0) + 1);
-                    });
+        /**
+         * Publishes the tick that is being assembled.
+         *
+         * @param complete true if all connected cars have reported.
+         */
+        private void publishTick(boolean complete) {
+            if (tickSessionInfo == null) {
+                return;
+            }
+            EventBus.publish(new RealtimeTickEvent(tickSessionInfo,
+                    Arrays.copyOf(tickCars, tickCarCount), complete));
+            tickSessionInfo = null;
+            tickCarCount = 0;
+        }
 
-            realtimeUpdatesReceived.clear();
+        private void checkForMissedRealtimeCarUpdates() {
+            LiveCarState cars = model.getCarState();
 
             //disconnect cars with excess of misses
-            Iterator<Entry<Integer, Integer>> iter = missedRealtimeUpdates.entrySet().iterator();
-            while (iter.hasNext()) {
-                Entry<Integer, Integer> entry = iter.next();
-                if (entry.getValue() >= maximumRealtimeMisses) {
-                    onCarDisconnect(model.getCar(entry.getKey()));
-                    iter.remove();
-                }
+            int carId = cars.findCarWithMissedUpdates(maximumRealtimeMisses);
+            while (carId != -1) {
+                onCarDisconnect(model.getCar(carId));
+                carId = cars.findCarWithMissedUpdates(maximumRealtimeMisses);
             }
         }
 
@@ -722,19 +1050,19 @@ public class AccBroadcastingClient {
 
         @Override
         public void onRealtimeCarUpdate(RealtimeInfo info) {
-            //Update realtime misses to avoid disconnect.
-            realtimeUpdatesReceived.add(info.getCarId());
-
-            //update model
-            if (model.getCarsInfo().containsKey(info.getCarId())) {
-                CarInfo car = model.getCarsInfo().get(info.getCarId());
-                car = car.withRealtime(info);
-
-                Map<Integer, CarInfo> cars = new HashMap<>();
-                cars.putAll(model.getCarsInfo());
-                cars.put(car.getCarId(), car);
-                model = model.withCars(cars);
+            //update model, this also marks the car as updated for this tick.
+            if (model.getCarState().update(info)) {
                 EventBus.publish(new RealtimeCarUpdateEvent(info));
+
+                if (tickSessionInfo != null) {
+                    if (tickCarCount == tickCars.length) {
+                        tickCars = Arrays.copyOf(tickCars, tickCars.length * 2);
+                    }
+                    tickCars[tickCarCount++] = info;
+                    if (tickCarCount >= model.getCarState().getCarCount()) {
+                        publishTick(true);
+                    }
+                }
             } else {
                 //if the car doesnt exist in the model ask for a new entry list.
                 long now = System.currentTimeMillis();
@@ -750,17 +1078,15 @@ public class AccBroadcastingClient {
 
         @Override
         public void onEntryListUpdate(List<Integer> carIds) {
-            Map<Integer, CarInfo> cars = new HashMap<>();
-            cars.putAll(model.getCarsInfo());
+            LiveCarState cars = model.getCarState();
 
             //add any new carIds.
             carIds.forEach(carId -> {
-                if (!cars.containsKey(carId)) {
+                if (!cars.contains(carId)) {
                     cars.put(carId, new CarInfo());
                     newConnectedCars.add(carId);
                 }
             });
-            model = model.withCars(cars);
             EventBus.publish(new EntryListUpdateEvent(carIds));
         }
 
@@ -782,11 +1108,7 @@ public class AccBroadcastingClient {
 
         @Override
         public void onBroadcastingEvent(BroadcastingEvent event) {
-            List<BroadcastingEvent> events = new LinkedList<>();
-            events.addAll(model.getEvents());
-            events.add(event);
-
-            model = model.withEvents(events);
+            model.getEventLog().add(event);
             EventBus.publish(new BroadcastingEventEvent(event));
         }
 
@@ -817,9 +1139,7 @@ public class AccBroadcastingClient {
 
         private void onCarDisconnect(CarInfo car) {
             //remove car from the model.
-            Map<Integer, CarInfo> cars = new HashMap<>(model.getCarsInfo());
-            cars.remove(car.getCarId());
-            model = model.withCars(cars);
+            model.getCarState().remove(car.getCarId());
 
             String name = car.getDriver().getFirstName() + " " + car.getDriver().getLastName();
             LOG.info("Car disconnected: " + car.getCarNumberString() + "\t" + name);
@@ -829,9 +1149,7 @@ public class AccBroadcastingClient {
 
         private void onCarConnect(CarInfo car) {
             //add car to the model.
-            Map<Integer, CarInfo> cars = new HashMap<>(model.getCarsInfo());
-            cars.put(car.getCarId(), car);
-            model = model.withCars(cars);
+            model.getCarState().put(car.getCarId(), car);
 
             String name = car.getDriver().getFirstName() + " " + car.getDriver().getLastName();
             LOG.info("Car connected: " + car.getCarNumberString() + "\t" + name);
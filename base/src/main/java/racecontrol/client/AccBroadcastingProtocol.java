@@ -21,9 +21,10 @@ import racecontrol.client.data.enums.SessionPhase;
 import racecontrol.client.data.enums.SessionType;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -70,12 +71,66 @@ public class AccBroadcastingProtocol {
      * Callback to trigger the events.
      */
     private final AccBroadcastingProtocolCallback callback;
+    /**
+     * Offset of the next byte to read from the current message.
+     */
+    private int readOffset;
+    /**
+     * Strings that were decoded recently. Most strings are repeated in every
+     * packet, like the active camera or the driver names.
+     */
+    private final StringCache strings = new StringCache(512, 128);
+    /**
+     * Best session lap of each car from its previous update, indexed by car
+     * id. Reused while the lap does not change.
+     */
+    private LapInfo[] previousBestLaps = new LapInfo[0];
+    /**
+     * Last lap of each car from its previous update, indexed by car id.
+     * Reused while the lap does not change.
+     */
+    private LapInfo[] previousLastLaps = new LapInfo[0];
+    /**
+     * Best session lap from the previous realtime update.
+     */
+    private LapInfo previousSessionBestLap;
 
     public AccBroadcastingProtocol(AccBroadcastingProtocolCallback callback) {
         this.callback = callback;
     }
 
+    /**
+     * Decodes a single message from a stream.
+     *
+     * @param in the stream containing the message.
+     */
     public void processMessage(ByteArrayInputStream in) {
+        byte[] message = new byte[in.available()];
+        in.read(message, 0, message.length);
+        processMessage(ByteBuffer.wrap(message));
+    }
+
+    /**
+     * Decodes a single message directly from a buffer. The message is read
+     * from the buffers position up to its limit using absolute reads, the
+     * position of the buffer is left untouched. This allows the caller to
+     * reuse the same buffer for every message without any per field
+     * allocation. A message that ends before all of its fields are read is
+     * logged and skipped.
+     *
+     * @param in the buffer containing the message.
+     */
+    public void processMessage(ByteBuffer in) {
+        in.order(ByteOrder.LITTLE_ENDIAN);
+        readOffset = in.position();
+        try {
+            processMessageBody(in);
+        } catch (BufferUnderflowException e) {
+            LOG.warning("Skipping truncated message of " + (in.limit() - in.position()) + " bytes");
+        }
+    }
+
+    private void processMessageBody(ByteBuffer in) {
         byte messageType = readByte(in);
         switch (messageType) {
             case InboundMessageTypes.REGISTRATION_RESULT:
@@ -105,7 +160,7 @@ public class AccBroadcastingProtocol {
         }
     }
 
-    private void readRegistrationResult(ByteArrayInputStream in) {
+    private void readRegistrationResult(ByteBuffer in) {
         int connectionID = readInt32(in);
         boolean connectionSuccess = readByte(in) > 0;
         boolean isReadonly = readByte(in) == 0;
@@ -113,7 +168,7 @@ public class AccBroadcastingProtocol {
         callback.onRegistrationResult(connectionID, connectionSuccess, isReadonly, errorMessage);
     }
 
-    private void readRealtimeUpdate(ByteArrayInputStream in) {
+    private void readRealtimeUpdate(ByteBuffer in) {
         int eventIndex = readUInt16(in);
         int sessionIndex = readUInt16(in);
         SessionType sessionType = SessionType.fromId(readByte(in));
@@ -141,7 +196,8 @@ public class AccBroadcastingProtocol {
         byte rainLevel = readByte(in);
         byte wetness = readByte(in);
 
-        LapInfo bestSessionLap = readLap(in);
+        LapInfo bestSessionLap = readLap(in, previousSessionBestLap);
+        previousSessionBestLap = bestSessionLap;
 
         SessionInfo sessionInfo = new SessionInfo(eventIndex, sessionIndex, sessionType, phase, (int) sessionTime,
                 (int) sessionEndTime, focusedCarIndex, activeCameraSet, activeCamera, currentHudPage, isReplayPlaying,
@@ -151,7 +207,7 @@ public class AccBroadcastingProtocol {
         callback.onRealtimeUpdate(sessionInfo);
     }
 
-    private void readRealtimeCarUpdate(ByteArrayInputStream in) {
+    private void readRealtimeCarUpdate(ByteBuffer in) {
         int carId = readUInt16(in);
         int driverIndex = readUInt16(in);
         byte driverCount = readByte(in);
@@ -167,9 +223,11 @@ public class AccBroadcastingProtocol {
         float splinePosition = readFloat(in);
         int laps = readUInt16(in);
         int delta = readInt32(in);
-        LapInfo bestSessionLap = readLap(in);
-        LapInfo lasLap = readLap(in);
-        LapInfo currentLap = readLap(in);
+        LapInfo bestSessionLap = readLap(in, getPreviousLap(previousBestLaps, carId));
+        LapInfo lasLap = readLap(in, getPreviousLap(previousLastLaps, carId));
+        LapInfo currentLap = readLap(in, null);
+        previousBestLaps = putPreviousLap(previousBestLaps, carId, bestSessionLap);
+        previousLastLaps = putPreviousLap(previousLastLaps, carId, lasLap);
 
         RealtimeInfo info = new RealtimeInfo(carId, driverIndex, driverCount, gear, yaw, pitch, roll,
                 location, kmh, position, cupPosition, trackPosition, splinePosition, laps, delta,
@@ -177,7 +235,7 @@ public class AccBroadcastingProtocol {
         callback.onRealtimeCarUpdate(info);
     }
 
-    private void readEntryList(ByteArrayInputStream in) {
+    private void readEntryList(ByteBuffer in) {
         List<Integer> cars = new LinkedList<>();
 
         int connectionId = readInt32(in);
@@ -188,7 +246,7 @@ public class AccBroadcastingProtocol {
         callback.onEntryListUpdate(cars);
     }
 
-    private void readEntryListCar(ByteArrayInputStream in) {
+    private void readEntryListCar(ByteBuffer in) {
         int carId = readUInt16(in);
         byte carModelType = readByte(in);
         String teamName = readString(in);
@@ -213,7 +271,7 @@ public class AccBroadcastingProtocol {
         callback.onEntryListCarUpdate(carInfo);
     }
 
-    private void readBroadcastingEvent(ByteArrayInputStream in) {
+    private void readBroadcastingEvent(ByteBuffer in) {
         BroadcastingEventType type = BroadcastingEventType.fromId(readByte(in));
         String msg = readString(in);
         int timeMs = readInt32(in);
@@ -223,7 +281,7 @@ public class AccBroadcastingProtocol {
         callback.onBroadcastingEvent(event);
     }
 
-    private void readTrackData(ByteArrayInputStream in) {
+    private void readTrackData(ByteBuffer in) {
         int connectionID = readInt32(in);
         String trackName = readString(in);
         int trackId = readInt32(in);
@@ -355,54 +413,76 @@ public class AccBroadcastingProtocol {
         };
     }
 
-    private byte readByte(ByteArrayInputStream in) {
-        return (byte) in.read();
+    /**
+     * Makes sure the message contains the next bytes to read.
+     *
+     * @param in the buffer containing the message.
+     * @param length the amount of bytes to read.
+     * @throws BufferUnderflowException if the message ends before.
+     */
+    private void require(ByteBuffer in, int length) {
+        if (length < 0 || readOffset + length > in.limit()) {
+            throw new BufferUnderflowException();
+        }
     }
 
-    private int readUInt16(ByteArrayInputStream in) {
-        byte[] int32 = new byte[2];
-        in.read(int32, 0, 2);
-        return ByteBuffer.wrap(int32).order(ByteOrder.LITTLE_ENDIAN).getShort();
+    private byte readByte(ByteBuffer in) {
+        require(in, 1);
+        byte value = in.get(readOffset);
+        readOffset += 1;
+        return value;
     }
 
-    private int readInt32(ByteArrayInputStream in) {
-        byte[] int32 = new byte[4];
-        in.read(int32, 0, 4);
-        return ByteBuffer.wrap(int32).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    private int readUInt16(ByteBuffer in) {
+        require(in, 2);
+        int value = in.getShort(readOffset);
+        readOffset += 2;
+        return value;
     }
 
-    private String readString(ByteArrayInputStream in) {
-        int length = readUInt16(in);
-        byte[] message = new byte[length];
-        in.read(message, 0, length);
-        return new String(message, StandardCharsets.UTF_8);
+    private int readInt32(ByteBuffer in) {
+        require(in, 4);
+        int value = in.getInt(readOffset);
+        readOffset += 4;
+        return value;
     }
 
-    private float readFloat(ByteArrayInputStream in) {
-        byte[] int32 = new byte[4];
-        in.read(int32, 0, 4);
-        return ByteBuffer.wrap(int32).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+    private String readString(ByteBuffer in) {
+        int length = readUInt16(in);
+        require(in, length);
+        String value = strings.get(in, readOffset, length);
+        readOffset += length;
+        return value;
     }
 
-    private float readFloat_BIG(ByteArrayInputStream in) {
-        byte[] int32 = new byte[4];
-        in.read(int32, 0, 4);
-        return ByteBuffer.wrap(int32).order(ByteOrder.BIG_ENDIAN).getFloat();
+    private float readFloat(ByteBuffer in) {
+        require(in, 4);
+        float value = in.getFloat(readOffset);
+        readOffset += 4;
+        return value;
     }
 
-    private LapInfo readLap(ByteArrayInputStream in) {
+    /**
+     * Reads a lap.
+     *
+     * @param in the buffer containing the message.
+     * @param previous the same lap from the previous update or null. It is
+     * returned instead of a new lap if nothing has changed.
+     * @return the lap.
+     */
+    private LapInfo readLap(ByteBuffer in, LapInfo previous) {
 
         int lapTimeMS = readInt32(in);
         int carIndex = readUInt16(in);
         int driverIndex = readUInt16(in);
 
         int splitCount = readByte(in);
-        List<Integer> splits = new LinkedList<>();
-        for (int i = 0; i < splitCount; i++) {
-            splits.add(readInt32(in));
-        }
-        for (int i = splitCount; i < 3; i++) {
-            splits.add(0);
+        int splitOne = splitCount > 0 ? readInt32(in) : 0;
+        int splitTwo = splitCount > 1 ? readInt32(in) : 0;
+        int splitThree = splitCount > 2 ? readInt32(in) : 0;
+        //skip any further splits.
+        for (int i = 3; i < splitCount; i++) {
+            readInt32(in);
         }
 
         boolean isInvalid = readByte(in) > 0;
@@ -417,7 +497,35 @@ public class AccBroadcastingProtocol {
             type = LapType.INLAP;
         }
 
-        return new LapInfo(lapTimeMS, carIndex, driverIndex, splits, isInvalid, isValidForBest, type);
+        if (previous != null
+                && previous.getLapTimeMS() == lapTimeMS
+                && previous.getCarId() == carIndex
+                && previous.getDriverIndex() == driverIndex
+                && previous.getSplit(0) == splitOne
+                && previous.getSplit(1) == splitTwo
+                && previous.getSplit(2) == splitThree
+                && previous.isInvalid() == isInvalid
+                && previous.getIsValidForBest() == isValidForBest
+                && previous.getType() == type) {
+            return previous;
+        }
+        return new LapInfo(lapTimeMS, carIndex, driverIndex, splitOne, splitTwo, splitThree,
+                isInvalid, isValidForBest, type);
+    }
+
+    private static LapInfo getPreviousLap(LapInfo[] laps, int carId) {
+        return carId >= 0 && carId < laps.length ? laps[carId] : null;
+    }
+
+    private static LapInfo[] putPreviousLap(LapInfo[] laps, int carId, LapInfo lap) {
+        if (carId < 0) {
+            return laps;
+        }
+        if (carId >= laps.length) {
+            laps = Arrays.copyOf(laps, Math.max(carId + 1, laps.length * 2));
+        }
+        laps[carId] = lap;
+        return laps;
     }
 
 }
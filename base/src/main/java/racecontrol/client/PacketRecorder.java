@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.AccBroadcastingProtocol.InboundMessageTypes;
+import racecontrol.client.data.SessionId;
+import racecontrol.client.events.SessionChangedEvent;
+import racecontrol.eventbus.Event;
+import racecontrol.eventbus.EventBus;
+import racecontrol.eventbus.EventListener;
+
+/**
+ * Records every inbound datagram to a memory mapped append only file. A new
+ * file is started for every session. Records are written on the receiving
+ * thread into the mapped memory. Mapping the next region of the file and
+ * flushing to disk happen on a background thread.
+ *
+ * The file starts with a header of {@link #HEADER_SIZE} bytes containing the
+ * magic number, the format version and the wall clock time of the start of
+ * the recording. Each record consists of the receive time in nanoseconds
+ * since the start of the recording, the message type, the length of the
+ * datagram and the raw bytes. A message type of 0 marks the end of the file.
+ * Records never cross a multiple of {@link #CHUNK_SIZE}. A record with the
+ * message type {@link #CHUNK_END} and no data marks that the next record
+ * starts at the next multiple. All values are little endian.
+ *
+ * @author Leonard
+ */
+public class PacketRecorder
+        implements EventListener {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(PacketRecorder.class.getName());
+    /**
+     * Magic number at the start of each recording.
+     */
+    public static final int FILE_MAGIC = 0x52434341;
+    /**
+     * Version of the recording format.
+     */
+    public static final int FILE_VERSION = 2;
+    /**
+     * Size of the file header in bytes.
+     */
+    public static final int HEADER_SIZE = 16;
+    /**
+     * Size of the header of each record in bytes.
+     */
+    public static final int RECORD_HEADER_SIZE = 11;
+    /**
+     * File extension of recordings.
+     */
+    public static final String FILE_EXTENSION = ".accrec";
+    /**
+     * Message type of the record that marks the end of a chunk.
+     */
+    public static final byte CHUNK_END = (byte) 0xFF;
+    /**
+     * Size of the regions that are mapped at once.
+     */
+    public static final int CHUNK_SIZE = 8 * 1024 * 1024;
+    /**
+     * Assumed size of a memory page in bytes.
+     */
+    private static final int PAGE_SIZE = 4096;
+    /**
+     * Interval in which the mapped memory is forced to disk in ms.
+     */
+    private static final int FORCE_INTERVAL = 1000;
+    /**
+     * Directory to write the recordings to.
+     */
+    private final File directory;
+    /**
+     * Background thread to map, flush and close recordings.
+     */
+    private final ScheduledExecutorService executor;
+    /**
+     * Time the recording was started in nanoseconds.
+     */
+    private final long startNanos = System.nanoTime();
+    /**
+     * Recording that is currently written to. Only replaced by the writer.
+     */
+    private volatile Recording current;
+    /**
+     * Recording for a new session that the writer should switch to.
+     */
+    private final AtomicReference<Recording> pending = new AtomicReference<>();
+    /**
+     * Last registration result. Written to the start of each new recording.
+     */
+    private byte[] registrationResult;
+    /**
+     * Last track data. Written to the start of each new recording.
+     */
+    private byte[] trackData;
+    /**
+     * Last entry list. Written to the start of each new recording.
+     */
+    private byte[] entryList;
+    /**
+     * Last entry list car update for each car id. Written to the start of
+     * each new recording.
+     */
+    private final Map<Integer, byte[]> entryListCars = new HashMap<>();
+    /**
+     * Indicates that this recorder has been closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new recorder and starts the first recording.
+     *
+     * @param directory The directory to write the recordings to.
+     * @throws IOException if the first recording could not be created.
+     */
+    public PacketRecorder(File directory) throws IOException {
+        this.directory = directory;
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Packet recorder flush thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        current = openRecording("connection");
+        executor.scheduleWithFixedDelay(this::forceCurrent,
+                FORCE_INTERVAL, FORCE_INTERVAL, TimeUnit.MILLISECONDS);
+        EventBus.register(this, SessionChangedEvent.class);
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        if (e instanceof SessionChangedEvent) {
+            if (closed) {
+                return;
+            }
+            SessionId sessionId = ((SessionChangedEvent) e).getSessionId();
+            try {
+                Recording next = openRecording(sessionId.getType().name()
+                        + "_" + sessionId.getNumber());
+                Recording previous = pending.getAndSet(next);
+                if (previous != null) {
+                    executor.execute(() -> closeRecording(previous));
+                }
+            } catch (IOException ex) {
+                LOG.log(Level.SEVERE, "Cannot start a new recording.", ex);
+            }
+        }
+    }
+
+    /**
+     * Records a datagram. Only to be called by the receiving thread. The
+     * position and limit of the packet are left untouched.
+     *
+     * @param packet The datagram from its position to its limit.
+     */
+    public void record(ByteBuffer packet) {
+        if (closed || !packet.hasRemaining()) {
+            return;
+        }
+        long time = System.nanoTime() - startNanos;
+        if (pending.get() != null) {
+            Recording next = pending.getAndSet(null);
+            Recording previous = current;
+            current = next;
+            writeSetupPackets(time);
+            executor.execute(() -> closeRecording(previous));
+        }
+        write(time, packet);
+        rememberSetupPacket(packet);
+    }
+
+    /**
+     * Stops recording and closes all files.
+     */
+    public void close() {
+        closed = true;
+        EventBus.unregister(this);
+        Recording last = current;
+        Recording unused = pending.getAndSet(null);
+        executor.execute(() -> {
+            closeRecording(last);
+            if (unused != null) {
+                closeRecording(unused);
+            }
+        });
+        executor.shutdown();
+    }
+
+    private void write(long time, ByteBuffer packet) {
+        Recording recording = current;
+        int length = packet.remaining();
+        //always leave room for the chunk end record.
+        if (recording.chunk.remaining() < RECORD_HEADER_SIZE + length + RECORD_HEADER_SIZE) {
+            MappedByteBuffer next = recording.nextChunk.getAndSet(null);
+            if (next == null) {
+                LOG.warning("Next region of the recording is not mapped yet, packet is not recorded.");
+                return;
+            }
+            MappedByteBuffer previous = recording.chunk;
+            previous.putLong(time);
+            previous.put(CHUNK_END);
+            previous.putShort((short) 0);
+            recording.chunkOffset += CHUNK_SIZE;
+            recording.chunk = next;
+            executor.execute(() -> {
+                forceChunk(previous);
+                mapNextChunk(recording);
+            });
+        }
+        MappedByteBuffer chunk = recording.chunk;
+        chunk.putLong(time);
+        chunk.put(packet.get(packet.position()));
+        chunk.putShort((short) length);
+        int position = packet.position();
+        chunk.put(packet);
+        packet.position(position);
+    }
+
+    private void rememberSetupPacket(ByteBuffer packet) {
+        int position = packet.position();
+        byte type = packet.get(position);
+        if (type == InboundMessageTypes.REGISTRATION_RESULT) {
+            registrationResult = copy(packet);
+        } else if (type == InboundMessageTypes.TRACK_DATA) {
+            trackData = copy(packet);
+        } else if (type == InboundMessageTypes.ENTRY_LIST) {
+            entryList = copy(packet);
+        } else if (type == InboundMessageTypes.ENTRY_LIST_CAR
+                && packet.remaining() >= 3) {
+            int carId = (packet.get(position + 1) & 0xFF)
+                    | ((packet.get(position + 2) & 0xFF) << 8);
+            entryListCars.put(carId, copy(packet));
+        }
+    }
+
+    private void writeSetupPackets(long time) {
+        if (registrationResult != null) {
+            write(time, ByteBuffer.wrap(registrationResult));
+        }
+        if (trackData != null) {
+            write(time, ByteBuffer.wrap(trackData));
+        }
+        if (entryList != null) {
+            write(time, ByteBuffer.wrap(entryList));
+        }
+        for (byte[] car : entryListCars.values()) {
+            write(time, ByteBuffer.wrap(car));
+        }
+    }
+
+    private byte[] copy(ByteBuffer packet) {
+        byte[] data = new byte[packet.remaining()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = packet.get(packet.position() + i);
+        }
+        return data;
+    }
+
+    private void forceCurrent() {
+        forceChunk(current.chunk);
+    }
+
+    private void forceChunk(MappedByteBuffer chunk) {
+        try {
+            chunk.force();
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Error while flushing recording.", e);
+        }
+    }
+
+    /**
+     * Maps the region after the current chunk of a recording, so that the
+     * writer can switch to it without waiting for the file to grow.
+     */
+    private void mapNextChunk(Recording recording) {
+        if (!recording.channel.isOpen()) {
+            return;
+        }
+        try {
+            MappedByteBuffer chunk = recording.map(recording.chunkOffset + CHUNK_SIZE);
+            //touch every page, so that the writer does not fault them in.
+            for (int i = 0; i < CHUNK_SIZE; i += PAGE_SIZE) {
+                chunk.put(i, (byte) 0);
+            }
+            recording.nextChunk.set(chunk);
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Cannot extend recording.", e);
+        }
+    }
+
+    private Recording openRecording(String name) throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        File file = new File(directory,
+                dateFormat.format(new Date()) + "_" + name + FILE_EXTENSION);
+        Recording recording = new Recording(file);
+        recording.chunk.putInt(FILE_MAGIC);
+        recording.chunk.putInt(FILE_VERSION);
+        recording.chunk.putLong(System.currentTimeMillis()
+                - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        executor.execute(() -> mapNextChunk(recording));
+        LOG.info("Recording packets to " + file.getPath());
+        return recording;
+    }
+
+    private void closeRecording(Recording recording) {
+        try {
+            recording.chunk.force();
+            recording.channel.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error while closing recording.", e);
+        }
+    }
+
+    /**
+     * A single recording file.
+     */
+    private static class Recording {
+
+        /**
+         * Channel of the recording file.
+         */
+        private final FileChannel channel;
+        /**
+         * Region of the file currently written to.
+         */
+        private volatile MappedByteBuffer chunk;
+        /**
+         * File offset of the current chunk.
+         */
+        private volatile long chunkOffset = 0;
+        /**
+         * Region after the current chunk. Mapped ahead of time by the
+         * background thread and taken by the writer once the current chunk
+         * is full.
+         */
+        private final AtomicReference<MappedByteBuffer> nextChunk = new AtomicReference<>();
+
+        Recording(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            chunk = map(0);
+        }
+
+        MappedByteBuffer map(long offset) throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, CHUNK_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+}
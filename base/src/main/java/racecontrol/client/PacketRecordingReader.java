@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the datagrams of a recording written by {@link PacketRecorder}. The
+ * file is memory mapped and the packets are returned as views into the
+ * mapping, so reading does not allocate per packet.
+ *
+ * @author Leonard
+ */
+public class PacketRecordingReader
+        implements Closeable {
+
+    /**
+     * Channel of the recording file.
+     */
+    private final FileChannel channel;
+    /**
+     * The mapped recording.
+     */
+    private final MappedByteBuffer data;
+    /**
+     * View of the current packet.
+     */
+    private final ByteBuffer packet;
+    /**
+     * Wall clock time of the start of the recording in ms.
+     */
+    private final long startTime;
+    /**
+     * Receive time of the current packet in ns since the start.
+     */
+    private long timestamp;
+    /**
+     * Offset of the next record.
+     */
+    private int offset = PacketRecorder.HEADER_SIZE;
+
+    /**
+     * Opens a recording.
+     *
+     * @param file The recording file.
+     * @throws IOException if the file cannot be read or is not a recording.
+     */
+    public PacketRecordingReader(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Recording is too large: " + file);
+            }
+            if (size < PacketRecorder.HEADER_SIZE) {
+                throw new IOException("Not a recording: " + file);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            if (data.getInt(0) != PacketRecorder.FILE_MAGIC) {
+                throw new IOException("Not a recording: " + file);
+            }
+            //version 1 has no chunk end records and is read the same way.
+            int version = data.getInt(4);
+            if (version < 1 || version > PacketRecorder.FILE_VERSION) {
+                throw new IOException("Unsupported recording version " + data.getInt(4));
+            }
+            startTime = data.getLong(8);
+            packet = data.duplicate();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves to the next packet.
+     *
+     * @return false if the end of the recording has been reached.
+     */
+    public boolean next() {
+        if (offset + PacketRecorder.RECORD_HEADER_SIZE > data.limit()) {
+            return false;
+        }
+        byte type = data.get(offset + 8);
+        if (type == PacketRecorder.CHUNK_END) {
+            offset = (offset / PacketRecorder.CHUNK_SIZE + 1) * PacketRecorder.CHUNK_SIZE;
+            return next();
+        }
+        int length = data.getShort(offset + 9) & 0xFFFF;
+        int start = offset + PacketRecorder.RECORD_HEADER_SIZE;
+        if (type == 0 || length == 0 || start + length > data.limit()) {
+            return false;
+        }
+        timestamp = data.getLong(offset);
+        packet.limit(start + length);
+        packet.position(start);
+        offset = start + length;
+        return true;
+    }
+
+    /**
+     * Returns the current packet. The returned buffer is reused and only
+     * valid until the next call to {@link #next()}.
+     *
+     * @return the packet from its position to its limit.
+     */
+    public ByteBuffer getPacket() {
+        return packet;
+    }
+
+    /**
+     * Returns the receive time of the current packet.
+     *
+     * @return the time in ns since the start of the recording.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the wall clock time of the start of the recording.
+     *
+     * @return the start time in ms since the epoch.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
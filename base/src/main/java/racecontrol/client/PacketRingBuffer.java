@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single producer single consumer queue for raw datagrams. All slots
+ * are allocated up front so that neither side allocates in the steady state.
+ * Packets that arrive while the buffer is full are dropped and counted.
+ *
+ * @author Leonard
+ */
+public class PacketRingBuffer {
+
+    /**
+     * Maximum time the consumer parks before checking the buffer again.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    /**
+     * Packet data for each slot.
+     */
+    private final byte[][] slots;
+    /**
+     * Buffers that wrap the packet data of each slot.
+     */
+    private final ByteBuffer[] slotBuffers;
+    /**
+     * Amount of valid bytes in each slot.
+     */
+    private final int[] slotLengths;
+    /**
+     * Receive time of the packet in each slot in ms.
+     */
+    private final long[] slotTimes;
+    /**
+     * Mask to map a sequence to a slot index.
+     */
+    private final int mask;
+    /**
+     * Sequence of the next slot to write to. Only written by the producer.
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * Sequence of the next slot to read from. Only written by the consumer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * Amount of packets that were dropped because the buffer was full.
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+    /**
+     * Highest amount of queued packets seen so far.
+     */
+    private volatile int highWaterMark = 0;
+    /**
+     * Thread that is waiting for packets.
+     */
+    private volatile Thread waitingConsumer;
+
+    /**
+     * Creates a new ring buffer.
+     *
+     * @param capacity Amount of packets the buffer can hold. Rounded up to the
+     * next power of two.
+     * @param maxPacketSize Maximum size of a single packet.
+     */
+    public PacketRingBuffer(int capacity, int maxPacketSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity has to be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size = size << 1;
+        }
+        mask = size - 1;
+        slots = new byte[size][maxPacketSize];
+        slotBuffers = new ByteBuffer[size];
+        slotLengths = new int[size];
+        slotTimes = new long[size];
+        for (int i = 0; i < size; i++) {
+            slotBuffers[i] = ByteBuffer.wrap(slots[i]);
+        }
+    }
+
+    /**
+     * Copies a packet into the buffer. Only to be called by the producer.
+     *
+     * @param packet The packet from its position to its limit.
+     * @param time The time the packet was received in ms since the epoch.
+     * @return false if the buffer was full and the packet was dropped.
+     */
+    public boolean offer(ByteBuffer packet, long time) {
+        long currentHead = head.get();
+        int queued = (int) (currentHead - tail.get());
+        if (queued > mask) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        int index = (int) (currentHead & mask);
+        int length = Math.min(packet.remaining(), slots[index].length);
+        packet.get(slots[index], 0, length);
+        slotLengths[index] = length;
+        slotTimes[index] = time;
+        head.set(currentHead + 1);
+
+        if (queued + 1 > highWaterMark) {
+            highWaterMark = queued + 1;
+        }
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Gives the oldest packet in the buffer without removing it. Only to be
+     * called by the consumer. The returned buffer stays valid until
+     * {@link #release()} is called.
+     *
+     * @return The packet or null if the buffer is empty.
+     */
+    public ByteBuffer peek() {
+        long currentTail = tail.get();
+        if (currentTail == head.get()) {
+            return null;
+        }
+        int index = (int) (currentTail & mask);
+        ByteBuffer buffer = slotBuffers[index];
+        buffer.clear();
+        buffer.limit(slotLengths[index]);
+        return buffer;
+    }
+
+    /**
+     * Gives the receive time of the packet returned by {@link #peek()}. Only
+     * to be called by the consumer.
+     *
+     * @return The time in ms since the epoch.
+     */
+    public long peekTime() {
+        return slotTimes[(int) (tail.get() & mask)];
+    }
+
+    /**
+     * Removes the oldest packet from the buffer. Only to be called by the
+     * consumer after it is done with the packet returned by {@link #peek()}.
+     */
+    public void release() {
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /**
+     * Blocks the calling consumer until a packet is available or a short
+     * timeout has passed.
+     */
+    public void await() {
+        waitingConsumer = Thread.currentThread();
+        if (isEmpty()) {
+            LockSupport.parkNanos(this, MAX_PARK_NANOS);
+        }
+        waitingConsumer = null;
+    }
+
+    /**
+     * Wakes up a waiting consumer.
+     */
+    public void wakeup() {
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Returns true if there are no queued packets.
+     *
+     * @return True if empty.
+     */
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    /**
+     * Returns true if no more packets can be queued.
+     *
+     * @return True if full.
+     */
+    public boolean isFull() {
+        return head.get() - tail.get() > mask;
+    }
+
+    /**
+     * Returns the amount of packets currently queued.
+     *
+     * @return queue depth.
+     */
+    public int size() {
+        return (int) (head.get() - tail.get());
+    }
+
+    /**
+     * Returns the amount of packets this buffer can hold.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the highest queue depth seen so far.
+     *
+     * @return the high water mark.
+     */
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Returns the amount of packets dropped because the buffer was full.
+     *
+     * @return the drop count.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
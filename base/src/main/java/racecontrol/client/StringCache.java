@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cache for the strings of the broadcasting protocol, keyed by their encoded
+ * bytes. Most strings, like camera names, hud pages and driver names, are
+ * sent over and over again. A string that is in the cache is returned as the
+ * same instance without decoding it again. The cache holds a bounded amount
+ * of strings and evicts the least recently used one when it is full. Not
+ * thread safe.
+ *
+ * @author Leonard
+ */
+public class StringCache {
+
+    /**
+     * Marks the end of a chain.
+     */
+    private static final int NONE = -1;
+    /**
+     * Strings with more bytes than this are decoded without being cached.
+     */
+    private final int maxLength;
+    /**
+     * Encoded bytes of each entry.
+     */
+    private final byte[][] keys;
+    /**
+     * Decoded string of each entry.
+     */
+    private final String[] values;
+    /**
+     * Hash of the bytes of each entry.
+     */
+    private final int[] hashes;
+    /**
+     * First entry of each hash bucket.
+     */
+    private final int[] buckets;
+    /**
+     * Next entry in the same hash bucket.
+     */
+    private final int[] bucketNext;
+    /**
+     * Value of the use counter when each entry was last used.
+     */
+    private final long[] lastUsed;
+    /**
+     * Counts the lookups. Used to find the least recently used entry.
+     */
+    private long useCounter = 0;
+    /**
+     * Amount of entries.
+     */
+    private int size = 0;
+    /**
+     * Scratch buffer to read strings from buffers without a backing array.
+     */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity the maximum amount of strings.
+     * @param maxLength strings with more bytes than this are not cached.
+     */
+    public StringCache(int capacity, int maxLength) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.maxLength = maxLength;
+        keys = new byte[capacity][];
+        values = new String[capacity];
+        hashes = new int[capacity];
+        bucketNext = new int[capacity];
+        lastUsed = new long[capacity];
+        buckets = new int[Integer.highestOneBit(capacity) * 4];
+        Arrays.fill(buckets, NONE);
+    }
+
+    /**
+     * Returns the string encoded in a buffer. Reads with absolute positions
+     * and leaves the position of the buffer untouched.
+     *
+     * @param in the buffer.
+     * @param offset the index of the first byte.
+     * @param length the amount of bytes.
+     * @return the decoded string.
+     */
+    public String get(ByteBuffer in, int offset, int length) {
+        if (in.hasArray()) {
+            return get(in.array(), in.arrayOffset() + offset, length);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = in.get(offset + i);
+        }
+        return get(scratch, 0, length);
+    }
+
+    /**
+     * Returns the string encoded in an array.
+     *
+     * @param bytes the array.
+     * @param offset the index of the first byte.
+     * @param length the amount of bytes.
+     * @return the decoded string.
+     */
+    public String get(byte[] bytes, int offset, int length) {
+        if (length > maxLength) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        int hash = hash(bytes, offset, length);
+        int bucket = hash & (buckets.length - 1);
+        for (int entry = buckets[bucket]; entry != NONE; entry = bucketNext[entry]) {
+            if (hashes[entry] == hash
+                    && Arrays.equals(keys[entry], 0, keys[entry].length,
+                            bytes, offset, offset + length)) {
+                lastUsed[entry] = ++useCounter;
+                return values[entry];
+            }
+        }
+
+        byte[] key = Arrays.copyOfRange(bytes, offset, offset + length);
+        int entry;
+        if (size < keys.length) {
+            entry = size++;
+        } else {
+            entry = findLeastRecentlyUsed();
+            unlinkBucket(entry);
+        }
+        keys[entry] = key;
+        values[entry] = new String(key, StandardCharsets.UTF_8);
+        hashes[entry] = hash;
+        bucketNext[entry] = buckets[bucket];
+        buckets[bucket] = entry;
+        lastUsed[entry] = ++useCounter;
+        return values[entry];
+    }
+
+    /**
+     * Hashes the length and a few of the bytes. Cheaper than hashing all
+     * bytes, collisions are resolved by comparing the bytes.
+     */
+    private static int hash(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int hash = length;
+        hash = 31 * hash + bytes[offset];
+        hash = 31 * hash + bytes[offset + length / 2];
+        hash = 31 * hash + bytes[offset + length - 1];
+        hash = 31 * hash + bytes[offset + length / 4];
+        hash = 31 * hash + bytes[offset + length * 3 / 4];
+        return hash ^ (hash >>> 16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the entry to evict. Only needed when a new string is added to a
+     * full cache, so a linear search keeps the lookups cheap.
+     */
+    private int findLeastRecentlyUsed() {
+        int oldest = 0;
+        for (int entry = 1; entry < size; entry++) {
+            if (lastUsed[entry] < lastUsed[oldest]) {
+                oldest = entry;
+            }
+        }
+        return oldest;
+    }
+
+    private void unlinkBucket(int entry) {
+        int bucket = hashes[entry] & (buckets.length - 1);
+        if (buckets[bucket] == entry) {
+            buckets[bucket] = bucketNext[entry];
+            return;
+        }
+        int previous = buckets[bucket];
+        while (bucketNext[previous] != entry) {
+            previous = bucketNext[previous];
+        }
+        bucketNext[previous] = bucketNext[entry];
+    }
+}
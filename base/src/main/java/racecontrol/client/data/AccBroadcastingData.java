@@ -5,9 +5,6 @@
  */
 package racecontrol.client.data;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import static java.util.Objects.requireNonNull;
@@ -23,16 +20,34 @@ public class AccBroadcastingData {
 
     private int connectionID = -1;
     private boolean readOnly;
-    private Map<Integer, CarInfo> cars = new HashMap<>();
+    /**
+     * Live state of the cars. Shared between all copies of the model since
+     * the realtime updates change it in place.
+     */
+    private LiveCarState cars = new LiveCarState();
     private SessionInfo session = new SessionInfo();
     private TrackInfo trackInfo = new TrackInfo();
-    private List<BroadcastingEvent> events = new LinkedList<>();
+    /**
+     * Broadcasting events. Shared between all copies of the model since new
+     * events are appended in place.
+     */
+    private BroadcastingEventLog events = new BroadcastingEventLog();
 
     public AccBroadcastingData() {
     }
 
+    public AccBroadcastingData(BroadcastingEventLog events) {
+        this.events = requireNonNull(events, "events");
+    }
+
     public AccBroadcastingData(int connectionID, boolean readOnly, Map<Integer, CarInfo> cars, SessionInfo session,
             TrackInfo trackInfo, List<BroadcastingEvent> events) {
+        this(connectionID, readOnly, new LiveCarState(requireNonNull(cars, "cars")),
+                session, trackInfo, BroadcastingEventLog.of(requireNonNull(events, "events")));
+    }
+
+    public AccBroadcastingData(int connectionID, boolean readOnly, LiveCarState cars, SessionInfo session,
+            TrackInfo trackInfo, BroadcastingEventLog events) {
         this.connectionID = requireNonNull(connectionID, "connectionID");
         this.readOnly = requireNonNull(readOnly, "readOnly");
         this.session = requireNonNull(session, "session");
@@ -50,15 +65,21 @@ public class AccBroadcastingData {
     }
 
     public Map<Integer, CarInfo> getCarsInfo() {
-        return Collections.unmodifiableMap(cars);
+        return cars.getCarsInfo();
     }
 
     public CarInfo getCar(int carId) {
-        return cars.getOrDefault(carId, new CarInfo());
+        CarInfo car = cars.getCar(carId);
+        return car != null ? car : new CarInfo();
+    }
+
+    public LiveCarState getCarState() {
+        return cars;
     }
 
     public AccBroadcastingData withCars(Map<Integer, CarInfo> cars) {
-        return new AccBroadcastingData(connectionID, readOnly, cars, session, trackInfo, events);
+        return new AccBroadcastingData(connectionID, readOnly,
+                new LiveCarState(requireNonNull(cars, "cars")), session, trackInfo, events);
     }
 
     public SessionInfo getSessionInfo() {
@@ -78,11 +99,11 @@ public class AccBroadcastingData {
     }
 
     public List<BroadcastingEvent> getEvents() {
-        return Collections.unmodifiableList(events);
+        return events.getEvents();
     }
 
-    public AccBroadcastingData withEvents(List<BroadcastingEvent> events) {
-        return new AccBroadcastingData(connectionID, readOnly, cars, session, trackInfo, events);
+    public BroadcastingEventLog getEventLog() {
+        return events;
     }
 
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.data;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of the broadcasting events. Events are stored in fixed size
+ * chunks, so adding an event never copies the events that came before it.
+ * Every event keeps its index for the lifetime of the log, which lets readers
+ * ask for the events since the last index they have seen.
+ *
+ * Events are only added by a single thread. Any thread may read: the views
+ * returned are immutable and only contain events that were fully added when
+ * the view was created.
+ *
+ * The log can be given a memory cap. Once more events than the cap are kept
+ * in memory, the oldest full chunk is written to a spill file and dropped
+ * from memory. Those events are no longer part of new views.
+ *
+ * @author Leonard
+ */
+public class BroadcastingEventLog {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(BroadcastingEventLog.class.getName());
+    /**
+     * Amount of events per chunk.
+     */
+    private static final int CHUNK_SIZE = 256;
+    /**
+     * Maximum amount of events kept in memory. 0 for no limit.
+     */
+    private final int memoryCap;
+    /**
+     * File the events are written to when they are dropped from memory.
+     */
+    private final File spillFile;
+    /**
+     * The chunks. Chunks that have been spilled are null. Replaced with a copy
+     * when a chunk is spilled, so that views keep the chunks they were created
+     * with.
+     */
+    private volatile BroadcastingEvent[][] chunks = new BroadcastingEvent[8][];
+    /**
+     * Amount of events that have been added. Written after the event is in
+     * place, which makes the event visible to readers.
+     */
+    private volatile int size = 0;
+    /**
+     * Index of the first event that is still in memory.
+     */
+    private volatile int firstIndex = 0;
+
+    /**
+     * Creates a log that keeps all events in memory.
+     */
+    public BroadcastingEventLog() {
+        this(0, null);
+    }
+
+    /**
+     * Creates a log with a memory cap.
+     *
+     * @param memoryCap maximum amount of events kept in memory. 0 for no
+     * limit.
+     * @param spillFile file the events are written to when they are dropped
+     * from memory. If null they are dropped without being written.
+     */
+    public BroadcastingEventLog(int memoryCap, File spillFile) {
+        if (memoryCap < 0) {
+            throw new IllegalArgumentException("The memory cap cannot be negative");
+        }
+        this.memoryCap = memoryCap == 0 ? 0 : Math.max(memoryCap, CHUNK_SIZE);
+        this.spillFile = spillFile;
+    }
+
+    /**
+     * Creates a log that contains the given events.
+     *
+     * @param events the events.
+     * @return the log.
+     */
+    public static BroadcastingEventLog of(List<BroadcastingEvent> events) {
+        BroadcastingEventLog log = new BroadcastingEventLog();
+        events.forEach(log::add);
+        return log;
+    }
+
+    /**
+     * Adds an event to the end of the log. Must only be called from a single
+     * thread.
+     *
+     * @param event the event.
+     */
+    public void add(BroadcastingEvent event) {
+        int index = size;
+        int chunk = index / CHUNK_SIZE;
+        BroadcastingEvent[][] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new BroadcastingEvent[CHUNK_SIZE];
+            chunks = current;
+        }
+        current[chunk][index % CHUNK_SIZE] = event;
+        size = index + 1;
+
+        if (memoryCap > 0 && size - firstIndex > memoryCap) {
+            spillOldestChunk();
+        }
+    }
+
+    /**
+     * Returns the amount of events that have been added, including the ones
+     * that were spilled.
+     *
+     * @return the amount of events.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the oldest event that is still in memory.
+     *
+     * @return the index.
+     */
+    public int getFirstIndex() {
+        return firstIndex;
+    }
+
+    /**
+     * Returns all events that are in memory.
+     *
+     * @return immutable view of the events.
+     */
+    public List<BroadcastingEvent> getEvents() {
+        return getEventsSince(0);
+    }
+
+    /**
+     * Returns the events from an index up to the latest event. Events before
+     * the index are skipped, as are events that have been spilled.
+     *
+     * @param index the index of the first event.
+     * @return immutable view of the events.
+     */
+    public List<BroadcastingEvent> getEventsSince(int index) {
+        //read size first, every event before it is visible.
+        int end = size;
+        BroadcastingEvent[][] view = chunks;
+        int start = Math.max(Math.min(index, end), firstIndex);
+        return new View(view, start, Math.max(start, end));
+    }
+
+    private void spillOldestChunk() {
+        int chunk = firstIndex / CHUNK_SIZE;
+        BroadcastingEvent[][] next = chunks.clone();
+        if (spillFile != null) {
+            spill(next[chunk]);
+        }
+        next[chunk] = null;
+        firstIndex = (chunk + 1) * CHUNK_SIZE;
+        chunks = next;
+    }
+
+    private void spill(BroadcastingEvent[] events) {
+        try (BufferedWriter writer = Files.newBufferedWriter(spillFile.toPath(),
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            for (BroadcastingEvent event : events) {
+                writer.write(event.getTimeMs() + "\t"
+                        + event.getCarId() + "\t"
+                        + event.getType() + "\t"
+                        + event.getMessage().replace('\n', ' ').replace('\t', ' '));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error while writing events to " + spillFile.getPath(), e);
+        }
+    }
+
+    /**
+     * Immutable view of a range of the log.
+     */
+    private static class View
+            extends AbstractList<BroadcastingEvent>
+            implements RandomAccess {
+
+        private final BroadcastingEvent[][] chunks;
+        private final int start;
+        private final int end;
+
+        View(BroadcastingEvent[][] chunks, int start, int end) {
+            this.chunks = chunks;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public BroadcastingEvent get(int i) {
+            if (i < 0 || i >= end - start) {
+                throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size());
+            }
+            int index = start + i;
+            return chunks[index / CHUNK_SIZE][index % CHUNK_SIZE];
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
@@ -6,7 +6,6 @@
 package racecontrol.client.data;
 
 import racecontrol.client.data.enums.LapType;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -18,7 +17,10 @@ public class LapInfo {
     int lapTimeMS;
     int carId;
     int driverIndex;
-    List<Integer> splits = new LinkedList<>();
+    /**
+     * Sector times in ms. Sectors that have not been driven yet are 0.
+     */
+    int[] splits = new int[3];
     boolean isInvalid;
     boolean isValidForBest;
     LapType type = LapType.ERROR;
@@ -26,12 +28,12 @@ public class LapInfo {
     public LapInfo() {
     }
 
-    public LapInfo(int lapTimeMS, int carIndex, int driverIndex, List<Integer> splits, boolean isInvalid,
-            boolean isValidForBest, LapType type) {
+    public LapInfo(int lapTimeMS, int carIndex, int driverIndex, int splitOne, int splitTwo,
+            int splitThree, boolean isInvalid, boolean isValidForBest, LapType type) {
         this.lapTimeMS = lapTimeMS;
         this.carId = carIndex;
         this.driverIndex = driverIndex;
-        this.splits = splits;
+        this.splits = new int[]{splitOne, splitTwo, splitThree};
         this.isInvalid = isInvalid;
         this.isValidForBest = isValidForBest;
         this.type = type;
@@ -49,8 +51,24 @@ public class LapInfo {
         return driverIndex;
     }
 
+    /**
+     * Returns the time of a sector.
+     *
+     * @param index the sector starting at 0.
+     * @return the sector time in ms or 0 if the sector has not been driven.
+     */
+    public int getSplit(int index) {
+        return splits[index];
+    }
+
+    /**
+     * Returns the sector times as a list. Prefer {@link #getSplit(int)} which
+     * does not allocate.
+     *
+     * @return the sector times in ms.
+     */
     public List<Integer> getSplits() {
-        return splits;
+        return List.of(splits[0], splits[1], splits[2]);
     }
 
     public boolean isInvalid() {
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mutable store for the state of all connected cars, indexed by the car id,
+ * so that a realtime car update only writes a few values instead of copying
+ * the whole model. The realtime fields that are read for every car on every
+ * tick are also kept in primitive arrays.
+ * {@link CarInfo} objects and the car map are created lazily when a consumer
+ * asks for them and are reused until the car changes.
+ *
+ * @author Leonard
+ */
+public class LiveCarState {
+
+    /**
+     * Initial amount of car ids the store can hold.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Entry list information for each car.
+     */
+    private CarInfo[] entries = new CarInfo[INITIAL_CAPACITY];
+    /**
+     * Latest realtime info for each car.
+     */
+    private RealtimeInfo[] realtime = new RealtimeInfo[INITIAL_CAPACITY];
+    /**
+     * Cached car info views. Null if the car has changed since the view was
+     * created.
+     */
+    private CarInfo[] views = new CarInfo[INITIAL_CAPACITY];
+    private boolean[] present = new boolean[INITIAL_CAPACITY];
+    /**
+     * Realtime fields that are read for every car on every tick.
+     */
+    private float[] splinePosition = new float[INITIAL_CAPACITY];
+    private int[] laps = new int[INITIAL_CAPACITY];
+    private int[] position = new int[INITIAL_CAPACITY];
+    /**
+     * Cars that have received a realtime update since the last call to
+     * {@link #countMissedUpdates()}.
+     */
+    private final BitSet updatedThisTick = new BitSet(INITIAL_CAPACITY);
+    /**
+     * Amount of realtime updates in a row each car has missed. Stops
+     * counting at {@link Byte#MAX_VALUE}.
+     */
+    private byte[] missedUpdates = new byte[INITIAL_CAPACITY];
+    /**
+     * Amount of connected cars.
+     */
+    private int carCount = 0;
+    /**
+     * Increased with every change to the store.
+     */
+    private long version = 0;
+    /**
+     * Cached car map.
+     */
+    private Map<Integer, CarInfo> snapshot = Collections.emptyMap();
+    /**
+     * Version the cached car map was created for.
+     */
+    private long snapshotVersion = 0;
+
+    public LiveCarState() {
+    }
+
+    /**
+     * Creates a store that holds the given cars.
+     *
+     * @param cars the cars.
+     */
+    public LiveCarState(Map<Integer, CarInfo> cars) {
+        cars.forEach((carId, car) -> put(carId, car));
+    }
+
+    /**
+     * Adds a car or replaces its entry list information. The realtime state
+     * is reset to the realtime info of the given car.
+     *
+     * @param carId the car id.
+     * @param car the car.
+     */
+    public synchronized void put(int carId, CarInfo car) {
+        ensureCapacity(carId);
+        if (!present[carId]) {
+            present[carId] = true;
+            carCount++;
+        }
+        entries[carId] = car;
+        writeRealtime(carId, car.getRealtime());
+        views[carId] = car;
+        missedUpdates[carId] = 0;
+        version++;
+    }
+
+    /**
+     * Updates the realtime state of a car.
+     *
+     * @param info the realtime info.
+     * @return false if the car is not in the store.
+     */
+    public synchronized boolean update(RealtimeInfo info) {
+        int carId = info.getCarId();
+        if (!isPresent(carId)) {
+            return false;
+        }
+        writeRealtime(carId, info);
+        views[carId] = null;
+        updatedThisTick.set(carId);
+        version++;
+        return true;
+    }
+
+    /**
+     * Removes a car.
+     *
+     * @param carId the car id.
+     */
+    public synchronized void remove(int carId) {
+        if (!isPresent(carId)) {
+            return;
+        }
+        present[carId] = false;
+        entries[carId] = null;
+        realtime[carId] = null;
+        views[carId] = null;
+        updatedThisTick.clear(carId);
+        missedUpdates[carId] = 0;
+        carCount--;
+        version++;
+    }
+
+    /**
+     * Returns the car with the given id with its latest realtime info.
+     *
+     * @param carId the car id.
+     * @return the car or null if the car is not in the store.
+     */
+    public synchronized CarInfo getCar(int carId) {
+        if (!isPresent(carId)) {
+            return null;
+        }
+        if (views[carId] == null) {
+            views[carId] = entries[carId].withRealtime(realtime[carId]);
+        }
+        return views[carId];
+    }
+
+    /**
+     * Returns an immutable snapshot of all cars. The snapshot is only
+     * recreated when the store has changed since the last call.
+     *
+     * @return map from car id to car.
+     */
+    public synchronized Map<Integer, CarInfo> getCarsInfo() {
+        if (snapshotVersion != version) {
+            Map<Integer, CarInfo> cars = new HashMap<>(carCount * 2);
+            for (int carId = 0; carId < present.length; carId++) {
+                if (present[carId]) {
+                    cars.put(carId, getCar(carId));
+                }
+            }
+            snapshot = Collections.unmodifiableMap(cars);
+            snapshotVersion = version;
+        }
+        return snapshot;
+    }
+
+    public synchronized boolean contains(int carId) {
+        return isPresent(carId);
+    }
+
+    public synchronized int getCarCount() {
+        return carCount;
+    }
+
+    /**
+     * Returns the ids of all cars in the store.
+     *
+     * @return the car ids.
+     */
+    public synchronized int[] getCarIds() {
+        int[] carIds = new int[carCount];
+        int i = 0;
+        for (int carId = 0; carId < present.length; carId++) {
+            if (present[carId]) {
+                carIds[i++] = carId;
+            }
+        }
+        return carIds;
+    }
+
+    public synchronized float getSplinePosition(int carId) {
+        return isPresent(carId) ? splinePosition[carId] : 0;
+    }
+
+    public synchronized int getLaps(int carId) {
+        return isPresent(carId) ? laps[carId] : 0;
+    }
+
+    public synchronized int getPosition(int carId) {
+        return isPresent(carId) ? position[carId] : 0;
+    }
+
+    /**
+     * Ends a tick of realtime updates. Cars that have not been updated since
+     * the last call have missed one more update, the others have missed none.
+     */
+    public synchronized void countMissedUpdates() {
+        for (int carId = 0; carId < present.length; carId++) {
+            if (!present[carId]) {
+                continue;
+            }
+            if (updatedThisTick.get(carId)) {
+                missedUpdates[carId] = 0;
+            } else if (missedUpdates[carId] < Byte.MAX_VALUE) {
+                missedUpdates[carId]++;
+            }
+        }
+        updatedThisTick.clear();
+    }
+
+    /**
+     * Returns how many realtime updates in a row a car has missed. This is
+     * the age of its realtime state in ticks, 0 if the car has been updated
+     * in the current tick.
+     *
+     * @param carId the car id.
+     * @return the amount of missed updates.
+     */
+    public synchronized int getMissedUpdates(int carId) {
+        if (!isPresent(carId) || updatedThisTick.get(carId)) {
+            return 0;
+        }
+        return missedUpdates[carId];
+    }
+
+    /**
+     * Finds a car that has missed at least the given amount of realtime
+     * updates in a row.
+     *
+     * @param minimum the minimum amount of missed updates.
+     * @return the car id or -1 if there is no such car.
+     */
+    public synchronized int findCarWithMissedUpdates(int minimum) {
+        for (int carId = 0; carId < present.length; carId++) {
+            if (present[carId] && missedUpdates[carId] >= minimum) {
+                return carId;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isPresent(int carId) {
+        return carId >= 0 && carId < present.length && present[carId];
+    }
+
+    private void writeRealtime(int carId, RealtimeInfo info) {
+        realtime[carId] = info;
+        splinePosition[carId] = info.getSplinePosition();
+        laps[carId] = info.getLaps();
+        position[carId] = info.getPosition();
+    }
+
+    private void ensureCapacity(int carId) {
+        if (carId < present.length) {
+            return;
+        }
+        int capacity = present.length;
+        while (capacity <= carId) {
+            capacity *= 2;
+        }
+        entries = Arrays.copyOf(entries, capacity);
+        realtime = Arrays.copyOf(realtime, capacity);
+        views = Arrays.copyOf(views, capacity);
+        present = Arrays.copyOf(present, capacity);
+        splinePosition = Arrays.copyOf(splinePosition, capacity);
+        laps = Arrays.copyOf(laps, capacity);
+        position = Arrays.copyOf(position, capacity);
+        missedUpdates = Arrays.copyOf(missedUpdates, capacity);
+    }
+}
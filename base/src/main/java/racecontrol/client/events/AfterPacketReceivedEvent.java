@@ -6,12 +6,14 @@
 package racecontrol.client.events;
 
 import racecontrol.eventbus.Event;
+import racecontrol.eventbus.HighRateEvent;
 
 /**
  *
  * @author Leonard
  */
-public class AfterPacketReceivedEvent extends Event {
+public class AfterPacketReceivedEvent extends Event
+        implements HighRateEvent {
 
     private byte type;
     private int packageCount;
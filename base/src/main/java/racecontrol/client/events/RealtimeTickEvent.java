@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.events;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import racecontrol.client.data.RealtimeInfo;
+import racecontrol.client.data.SessionInfo;
+import racecontrol.eventbus.Event;
+import racecontrol.eventbus.HighRateEvent;
+
+/**
+ * Event for a complete realtime tick. Holds the session info of a realtime
+ * update together with all car updates that followed it. Published after the
+ * individual {@link RealtimeUpdateEvent} and {@link RealtimeCarUpdateEvent}
+ * so that listeners can process all cars of a tick in a single pass.
+ *
+ * @author Leonard
+ */
+public class RealtimeTickEvent extends Event
+        implements HighRateEvent {
+
+    private final SessionInfo sessionInfo;
+    private final RealtimeInfo[] cars;
+    private final boolean complete;
+
+    public RealtimeTickEvent(SessionInfo sessionInfo, RealtimeInfo[] cars, boolean complete) {
+        this.sessionInfo = sessionInfo;
+        this.cars = cars;
+        this.complete = complete;
+    }
+
+    public SessionInfo getSessionInfo() {
+        return sessionInfo;
+    }
+
+    /**
+     * Returns the amount of car updates in this tick.
+     *
+     * @return the amount of car updates.
+     */
+    public int getCarCount() {
+        return cars.length;
+    }
+
+    /**
+     * Returns a car update of this tick.
+     *
+     * @param index the index of the update in order of arrival.
+     * @return the car update.
+     */
+    public RealtimeInfo getCar(int index) {
+        return cars[index];
+    }
+
+    /**
+     * Returns the car updates of this tick in order of arrival.
+     *
+     * @return a read only list of the car updates.
+     */
+    public List<RealtimeInfo> getCars() {
+        return Collections.unmodifiableList(Arrays.asList(cars));
+    }
+
+    /**
+     * Returns true if every connected car sent an update in this tick. An
+     * incomplete tick is published when the next realtime update arrives
+     * before all cars have reported.
+     *
+     * @return true if the tick is complete.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+}
@@ -6,13 +6,15 @@
 package racecontrol.client.events;
 
 import racecontrol.eventbus.Event;
+import racecontrol.eventbus.HighRateEvent;
 import racecontrol.client.data.SessionInfo;
 
 /**
  *
  * @author Leonard
  */
-public class RealtimeUpdateEvent extends Event {
+public class RealtimeUpdateEvent extends Event
+        implements HighRateEvent {
 
     private SessionInfo sessionInfo;
 
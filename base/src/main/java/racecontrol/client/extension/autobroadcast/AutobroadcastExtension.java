@@ -6,11 +6,13 @@
 package racecontrol.client.extension.autobroadcast;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-import static java.util.stream.Collectors.toList;
 import racecontrol.client.AccBroadcastingClient;
+import racecontrol.client.data.CarInfo;
 import racecontrol.client.data.SessionInfo;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.eventbus.Event;
@@ -54,7 +56,8 @@ public class AutobroadcastExtension
     }
 
     private AutobroadcastExtension() {
-        EventBus.register(this);
+        //the rating processors only react to realtime updates.
+        EventBus.register(this, RealtimeUpdateEvent.class);
         client = AccBroadcastingClient.getClient();
         processors.add(new ProximityProcessor());
         processors.add(new NoQuickChangeProcessor());
@@ -69,10 +72,9 @@ public class AutobroadcastExtension
     }
 
     private void onSessionUpdate(SessionInfo info) {
-        updateRatings();
-        entries = entries.stream()
-                .sorted((c1, c2) -> Float.compare(c2.getRating(), c1.getRating()))
-                .collect(toList());
+        List<Entry> next = updateRatings();
+        next.sort((c1, c2) -> Float.compare(c2.getRating(), c1.getRating()));
+        entries = next;
 
         if (entries.size() > 0) {
             int focus = entries.get(0).getCarInfo().getCarId();
@@ -82,16 +84,38 @@ public class AutobroadcastExtension
         }
     }
 
-    private void updateRatings() {
-        entries = client.getModel().getCarsInfo().values().stream()
-                .map(carInfo -> {
-                    Entry entry = new Entry(carInfo);
-                    for (RatingProcessor p : processors) {
-                        entry = p.calculateRating(entry);
-                    }
-                    return entry;
-                })
-                .collect(Collectors.toList());
+    /**
+     * Calculates the ratings for all cars. The entries are returned in the
+     * order of the previous entries so that sorting them by rating only has
+     * to move the cars whose rating changed enough to change places.
+     *
+     * @return the entries.
+     */
+    private List<Entry> updateRatings() {
+        Map<Integer, CarInfo> cars = client.getModel().getCarsInfo();
+        List<Entry> next = new ArrayList<>(cars.size());
+        Set<Integer> rated = new HashSet<>();
+        for (Entry previous : entries) {
+            CarInfo carInfo = cars.get(previous.getCarInfo().getCarId());
+            if (carInfo != null) {
+                next.add(rate(carInfo));
+                rated.add(carInfo.getCarId());
+            }
+        }
+        for (CarInfo carInfo : cars.values()) {
+            if (!rated.contains(carInfo.getCarId())) {
+                next.add(rate(carInfo));
+            }
+        }
+        return next;
+    }
+
+    private Entry rate(CarInfo carInfo) {
+        Entry entry = new Entry(carInfo);
+        for (RatingProcessor p : processors) {
+            entry = p.calculateRating(entry);
+        }
+        return entry;
     }
 
     public List<Entry> getEntries() {
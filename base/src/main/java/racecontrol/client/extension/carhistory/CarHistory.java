@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.carhistory;
+
+import java.util.Arrays;
+import racecontrol.client.data.RealtimeInfo;
+import racecontrol.client.data.enums.CarLocation;
+import racecontrol.client.events.RealtimeTickEvent;
+
+/**
+ * Ring buffer of the state of all cars for the recent past. Holds one frame
+ * per realtime tick, ordered by session time. Frames that are older than the
+ * history duration are dropped, so the memory used is bounded by the
+ * duration and the update rate.
+ *
+ * Frames are addressed by an index between 0 (the oldest frame) and
+ * {@link #getFrameCount()} - 1 (the newest frame). Indices are only valid
+ * until the next frame is added. Not thread safe.
+ *
+ * @author Leonard
+ */
+public class CarHistory {
+
+    private static final CarLocation[] LOCATIONS = CarLocation.values();
+    /**
+     * Time in ms a frame is kept for.
+     */
+    private final int duration;
+    /**
+     * Maximum amount of frames.
+     */
+    private int capacity = 64;
+    /**
+     * Maximum amount of cars per frame.
+     */
+    private int width = 32;
+    /**
+     * Index of the oldest frame in the buffer.
+     */
+    private int head = 0;
+    /**
+     * Amount of frames.
+     */
+    private int size = 0;
+    /**
+     * Session time of each frame.
+     */
+    private int[] sessionTimes = new int[capacity];
+    /**
+     * Amount of cars in each frame.
+     */
+    private int[] carCounts = new int[capacity];
+    /**
+     * Car columns. The car i of the frame f is at f * width + i.
+     */
+    private int[] carIds = new int[capacity * width];
+    private float[] splinePositions = new float[capacity * width];
+    private int[] kmh = new int[capacity * width];
+    private int[] laps = new int[capacity * width];
+    private byte[] locations = new byte[capacity * width];
+    private RealtimeInfo[] realtimeInfos = new RealtimeInfo[capacity * width];
+
+    /**
+     * Creates a new car history.
+     *
+     * @param duration the time in ms a frame is kept for.
+     */
+    public CarHistory(int duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Adds the cars of a tick as the newest frame. If the session time has
+     * not advanced since the last tick the newest frame is replaced. If it has
+     * gone back the history is cleared.
+     *
+     * @param sessionTime the session time of the tick.
+     * @param tick the tick.
+     */
+    public void add(int sessionTime, RealtimeTickEvent tick) {
+        if (size > 0) {
+            int newest = sessionTimes[slot(size - 1)];
+            if (sessionTime < newest) {
+                clear();
+            } else if (sessionTime == newest) {
+                size--;
+            }
+        }
+        while (size > 0 && sessionTime - sessionTimes[head] > duration) {
+            Arrays.fill(realtimeInfos, head * width, (head + 1) * width, null);
+            head = (head + 1) % capacity;
+            size--;
+        }
+        if (tick.getCarCount() > width) {
+            resize(capacity, Integer.highestOneBit(tick.getCarCount()) * 2);
+        }
+        if (size == capacity) {
+            resize(capacity * 2, width);
+        }
+
+        int frame = slot(size);
+        sessionTimes[frame] = sessionTime;
+        carCounts[frame] = tick.getCarCount();
+        int base = frame * width;
+        for (int i = 0; i < tick.getCarCount(); i++) {
+            RealtimeInfo info = tick.getCar(i);
+            carIds[base + i] = info.getCarId();
+            splinePositions[base + i] = info.getSplinePosition();
+            kmh[base + i] = info.getKMH();
+            laps[base + i] = info.getLaps();
+            locations[base + i] = (byte) info.getLocation().ordinal();
+            realtimeInfos[base + i] = info;
+        }
+        Arrays.fill(realtimeInfos, base + tick.getCarCount(), base + width, null);
+        size++;
+    }
+
+    /**
+     * Removes all frames.
+     */
+    public void clear() {
+        Arrays.fill(realtimeInfos, null);
+        head = 0;
+        size = 0;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getFrameCount() {
+        return size;
+    }
+
+    /**
+     * Finds the frame that is closest to a session time.
+     *
+     * @param sessionTime the session time.
+     * @return the index of the frame or -1 if the history is empty.
+     */
+    public int findFrame(int sessionTime) {
+        if (size == 0) {
+            return -1;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sessionTimes[slot(mid)] < sessionTime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        //low is the first frame at or after the session time.
+        if (low > 0 && sessionTime - sessionTimes[slot(low - 1)]
+                <= sessionTimes[slot(low)] - sessionTime) {
+            return low - 1;
+        }
+        return low;
+    }
+
+    public int getSessionTime(int frame) {
+        return sessionTimes[slot(frame)];
+    }
+
+    public int getCarCount(int frame) {
+        return carCounts[slot(frame)];
+    }
+
+    /**
+     * Finds a car in a frame.
+     *
+     * @param frame the frame index.
+     * @param carId the car id.
+     * @return the index of the car in the frame or -1 if the car is not part
+     * of the frame.
+     */
+    public int indexOf(int frame, int carId) {
+        int slot = slot(frame);
+        int base = slot * width;
+        for (int i = 0; i < carCounts[slot]; i++) {
+            if (carIds[base + i] == carId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getCarId(int frame, int car) {
+        return carIds[slot(frame) * width + car];
+    }
+
+    public float getSplinePosition(int frame, int car) {
+        return splinePositions[slot(frame) * width + car];
+    }
+
+    public int getKMH(int frame, int car) {
+        return kmh[slot(frame) * width + car];
+    }
+
+    public int getLaps(int frame, int car) {
+        return laps[slot(frame) * width + car];
+    }
+
+    public CarLocation getLocation(int frame, int car) {
+        return LOCATIONS[locations[slot(frame) * width + car]];
+    }
+
+    public RealtimeInfo getRealtime(int frame, int car) {
+        return realtimeInfos[slot(frame) * width + car];
+    }
+
+    private int slot(int frame) {
+        return (head + frame) % capacity;
+    }
+
+    /**
+     * Moves the frames into new arrays with the oldest frame first.
+     */
+    private void resize(int newCapacity, int newWidth) {
+        int[] newSessionTimes = new int[newCapacity];
+        int[] newCarCounts = new int[newCapacity];
+        int[] newCarIds = new int[newCapacity * newWidth];
+        float[] newSplinePositions = new float[newCapacity * newWidth];
+        int[] newKmh = new int[newCapacity * newWidth];
+        int[] newLaps = new int[newCapacity * newWidth];
+        byte[] newLocations = new byte[newCapacity * newWidth];
+        RealtimeInfo[] newRealtimeInfos = new RealtimeInfo[newCapacity * newWidth];
+        for (int frame = 0; frame < size; frame++) {
+            int slot = slot(frame);
+            int count = carCounts[slot];
+            newSessionTimes[frame] = sessionTimes[slot];
+            newCarCounts[frame] = count;
+            System.arraycopy(carIds, slot * width, newCarIds, frame * newWidth, count);
+            System.arraycopy(splinePositions, slot * width, newSplinePositions, frame * newWidth, count);
+            System.arraycopy(kmh, slot * width, newKmh, frame * newWidth, count);
+            System.arraycopy(laps, slot * width, newLaps, frame * newWidth, count);
+            System.arraycopy(locations, slot * width, newLocations, frame * newWidth, count);
+            System.arraycopy(realtimeInfos, slot * width, newRealtimeInfos, frame * newWidth, count);
+        }
+        sessionTimes = newSessionTimes;
+        carCounts = newCarCounts;
+        carIds = newCarIds;
+        splinePositions = newSplinePositions;
+        kmh = newKmh;
+        laps = newLaps;
+        locations = newLocations;
+        realtimeInfos = newRealtimeInfos;
+        capacity = newCapacity;
+        width = newWidth;
+        head = 0;
+    }
+}
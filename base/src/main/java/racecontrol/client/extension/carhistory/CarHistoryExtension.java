@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.carhistory;
+
+import racecontrol.client.ClientExtension;
+import racecontrol.client.events.CarDisconnectedEvent;
+import racecontrol.client.events.RealtimeTickEvent;
+import racecontrol.client.events.SessionChangedEvent;
+import racecontrol.client.events.TrackInfoEvent;
+import racecontrol.eventbus.Event;
+import racecontrol.eventbus.EventBus;
+import racecontrol.eventbus.EventListener;
+import racecontrol.persistance.PersistantConfig;
+import static racecontrol.persistance.PersistantConfigKeys.CAR_HISTORY_DURATION;
+
+/**
+ * Records the state of all cars for the recent past so that other extensions
+ * can look up where the cars were at a given session time, and keeps an index
+ * of where the cars are on track right now.
+ *
+ * @author Leonard
+ */
+public class CarHistoryExtension
+        implements EventListener, ClientExtension {
+
+    /**
+     * Singelton instance.
+     */
+    private static CarHistoryExtension instance;
+    /**
+     * The recorded history.
+     */
+    private final CarHistory history;
+    /**
+     * The current spline positions of the cars.
+     */
+    private final SplineIndex splineIndex = new SplineIndex();
+
+    public static CarHistoryExtension getInstance() {
+        if (instance == null) {
+            instance = new CarHistoryExtension();
+        }
+        return instance;
+    }
+
+    private CarHistoryExtension() {
+        history = new CarHistory(PersistantConfig.get(CAR_HISTORY_DURATION));
+        EventBus.register(this, RealtimeTickEvent.class, SessionChangedEvent.class,
+                CarDisconnectedEvent.class, TrackInfoEvent.class);
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        if (e instanceof RealtimeTickEvent) {
+            RealtimeTickEvent tick = (RealtimeTickEvent) e;
+            history.add(tick.getSessionInfo().getSessionTime(), tick);
+            for (int i = 0; i < tick.getCarCount(); i++) {
+                splineIndex.put(tick.getCar(i).getCarId(),
+                        tick.getCar(i).getSplinePosition());
+            }
+            splineIndex.sort();
+        } else if (e instanceof SessionChangedEvent) {
+            history.clear();
+        } else if (e instanceof CarDisconnectedEvent) {
+            splineIndex.remove(((CarDisconnectedEvent) e).getCar().getCarId());
+        } else if (e instanceof TrackInfoEvent) {
+            splineIndex.setTrackMeters(((TrackInfoEvent) e).getInfo().getTrackMeters());
+        }
+    }
+
+    /**
+     * Returns the recorded history. The history is updated on the thread
+     * that publishes the realtime updates and should only be read from
+     * listeners of that thread.
+     *
+     * @return the car history.
+     */
+    public CarHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Returns the index of the spline positions as of the last realtime
+     * tick. Like the history it should only be read from listeners of the
+     * thread that publishes the realtime updates.
+     *
+     * @return the spline index.
+     */
+    public SplineIndex getSplineIndex() {
+        return splineIndex;
+    }
+}
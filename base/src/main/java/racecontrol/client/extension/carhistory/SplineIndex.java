@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.carhistory;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import racecontrol.client.extension.statistics.CarOrder;
+
+/**
+ * Cars ordered by their spline position to find the cars close to a point on
+ * track. The track is treated as a circle, so cars just before and just after
+ * the start line are close to each other. Not thread safe.
+ *
+ * @author Leonard
+ */
+public class SplineIndex {
+
+    /**
+     * Cars ordered by their spline position.
+     */
+    private final CarOrder order = new CarOrder(false);
+    /**
+     * Length of the track in meters.
+     */
+    private int trackMeters = 0;
+
+    /**
+     * Sets the spline position of a car. The car is added if it is not part
+     * of the index yet. The index is not updated until {@link #sort()} is
+     * called.
+     *
+     * @param carId the car id.
+     * @param splinePosition the spline position.
+     */
+    public void put(int carId, float splinePosition) {
+        order.put(carId, wrap(splinePosition));
+    }
+
+    public void remove(int carId) {
+        order.remove(carId);
+    }
+
+    /**
+     * Removes all cars.
+     */
+    public void clear() {
+        order.retain(carId -> false);
+    }
+
+    /**
+     * Updates the index after spline positions have changed.
+     */
+    public void sort() {
+        order.sort();
+    }
+
+    public int size() {
+        return order.size();
+    }
+
+    public int getTrackMeters() {
+        return trackMeters;
+    }
+
+    public void setTrackMeters(int trackMeters) {
+        this.trackMeters = trackMeters;
+    }
+
+    /**
+     * Returns the spline position of a car.
+     *
+     * @param carId the car id.
+     * @return the spline position or NaN if the car is not part of the index.
+     */
+    public float getSplinePosition(int carId) {
+        int index = order.indexOf(carId);
+        return index < 0 ? Float.NaN : order.getKey(index);
+    }
+
+    /**
+     * Finds the car closest to a point on track.
+     *
+     * @param splinePosition the point on track.
+     * @param filter only cars whose id passes the filter are considered.
+     * @return the car id of the closest car or -1 if there is none.
+     */
+    public int findNearest(float splinePosition, IntPredicate filter) {
+        int n = order.size();
+        if (n == 0) {
+            return -1;
+        }
+        float s = wrap(splinePosition);
+        int ahead = lowerBound(s) % n;
+        int behind = (ahead - 1 + n) % n;
+        for (int visited = 0; visited < n; visited++) {
+            int candidate;
+            if (forwardDistance(s, order.getKey(ahead))
+                    <= forwardDistance(order.getKey(behind), s)) {
+                candidate = ahead;
+                ahead = (ahead + 1) % n;
+            } else {
+                candidate = behind;
+                behind = (behind - 1 + n) % n;
+            }
+            if (filter.test(order.getCarId(candidate))) {
+                return order.getCarId(candidate);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the cars that are within some spline distance of a point on
+     * track.
+     *
+     * @param splinePosition the point on track.
+     * @param radius the maximum spline distance.
+     * @return the car ids in the order they are on track.
+     */
+    public int[] findWithin(float splinePosition, float radius) {
+        int n = order.size();
+        if (radius >= 0.5f) {
+            return order.getCarIds();
+        }
+        float s = wrap(splinePosition);
+        float start = s - radius;
+        float end = s + radius;
+        if (start < 0) {
+            return concat(range(lowerBound(start + 1), n), range(0, upperBound(end)));
+        } else if (end >= 1) {
+            return concat(range(lowerBound(start), n), range(0, upperBound(end - 1)));
+        }
+        return range(lowerBound(start), upperBound(end));
+    }
+
+    /**
+     * Finds the cars that are within some distance of a point on track.
+     *
+     * @param splinePosition the point on track.
+     * @param meters the maximum distance in meters.
+     * @return the car ids in the order they are on track. Empty if the track
+     * length is unknown.
+     */
+    public int[] findWithinMeters(float splinePosition, float meters) {
+        if (trackMeters <= 0) {
+            return new int[0];
+        }
+        return findWithin(splinePosition, meters / trackMeters);
+    }
+
+    /**
+     * Returns the shortest spline distance from one point on track to
+     * another. Positive if the second point lies ahead of the first.
+     *
+     * @param from the first point.
+     * @param to the second point.
+     * @return the distance between -0.5 and 0.5.
+     */
+    public static float getDistance(float from, float to) {
+        float distance = forwardDistance(from, to);
+        return distance >= 0.5f ? distance - 1 : distance;
+    }
+
+    /**
+     * Returns the shortest distance in meters from one point on track to
+     * another. Positive if the second point lies ahead of the first.
+     *
+     * @param from the first point.
+     * @param to the second point.
+     * @return the distance or 0 if the track length is unknown.
+     */
+    public float getDistanceMeters(float from, float to) {
+        return getDistance(from, to) * trackMeters;
+    }
+
+    private static float forwardDistance(float from, float to) {
+        float distance = to - from;
+        return distance < 0 ? distance + 1 : distance;
+    }
+
+    private static float wrap(float splinePosition) {
+        return splinePosition - (float) Math.floor(splinePosition);
+    }
+
+    /**
+     * Index of the first car at or after a spline position.
+     */
+    private int lowerBound(float s) {
+        int low = 0;
+        int high = order.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.getKey(mid) < s) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Index of the first car after a spline position.
+     */
+    private int upperBound(float s) {
+        int low = 0;
+        int high = order.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.getKey(mid) <= s) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int[] range(int from, int to) {
+        int[] result = new int[Math.max(0, to - from)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = order.getCarId(from + i);
+        }
+        return result;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -7,10 +7,8 @@ package racecontrol.client.extension.contact;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import racecontrol.client.events.BroadcastingEventEvent;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
@@ -29,9 +27,11 @@ import racecontrol.client.data.RealtimeInfo;
 import racecontrol.client.data.SessionInfo;
 import racecontrol.client.data.enums.CarLocation;
 import static racecontrol.client.data.enums.SessionType.RACE;
-import racecontrol.client.events.RealtimeCarUpdateEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.events.SessionChangedEvent;
+import racecontrol.client.extension.carhistory.CarHistory;
+import racecontrol.client.extension.carhistory.CarHistoryExtension;
+import racecontrol.client.extension.carhistory.SplineIndex;
 import racecontrol.client.extension.dangerdetection.YellowFlagEvent;
 import racecontrol.client.extension.googlesheetsapi.GoogleSheetsAPIExtension;
 import static racecontrol.client.extension.statistics.CarProperties.LAP_COUNT;
@@ -87,12 +87,20 @@ public class ContactExtension
      */
     private long stagedContactTimestamp = 0;
     /**
-     * Holds car data for the past time. Maps session time to a map of carId to
-     * realtimeInfo.
+     * Holds car data for the past time.
      */
-    private final Map<Integer, Map<Integer, RealtimeInfo>> history = new HashMap<>();
+    private final CarHistory HISTORY;
     /**
-     * maximum time the history is saved for.
+     * Index of the current spline positions.
+     */
+    private final SplineIndex SPLINE_INDEX;
+    /**
+     * Index of the spline positions of a frame of the history. Reused for
+     * every contact that needs another car.
+     */
+    private final SplineIndex frameIndex = new SplineIndex();
+    /**
+     * maximum time the yellow flag events are saved for.
      */
     private final int HISTORY_MAX_TIME = 10000;
     /**
@@ -142,8 +150,11 @@ public class ContactExtension
      * Private constructor.
      */
     private ContactExtension() {
-        EventBus.register(this);
+        EventBus.register(this, BroadcastingEventEvent.class, RealtimeUpdateEvent.class,
+                YellowFlagEvent.class, SessionChangedEvent.class);
         CLIENT = AccBroadcastingClient.getClient();
+        HISTORY = CarHistoryExtension.getInstance().getHistory();
+        SPLINE_INDEX = CarHistoryExtension.getInstance().getSplineIndex();
         REPLAY_EXTENSION = ReplayOffsetExtension.getInstance();
         GOOGLE_SHEETS_EXTENSION = GoogleSheetsAPIExtension.getInstance();
         STATISTICS_EXTENSION = StatisticsExtension.getInstance();
@@ -194,71 +205,25 @@ public class ContactExtension
         } else if (e instanceof RealtimeUpdateEvent) {
             commitStagedContact();
             removeOldYellowEvents(((RealtimeUpdateEvent) e).getSessionInfo());
-            removeOldHistory(((RealtimeUpdateEvent) e).getSessionInfo());
-        } else if (e instanceof RealtimeCarUpdateEvent) {
-            saveInHistory(((RealtimeCarUpdateEvent) e).getInfo());
         } else if (e instanceof YellowFlagEvent) {
             saveYellowFlagEvent((YellowFlagEvent) e);
         } else if (e instanceof SessionChangedEvent) {
-            history.clear();
             yellowEvents.clear();
         }
     }
 
     /**
-     * Saves a RealtimeInfo in the history.
-     *
-     * @param info the RealtimeInfo to save.
-     */
-    private void saveInHistory(RealtimeInfo info) {
-        // add info to history.
-        int sessionTime = CLIENT.getModel().getSessionInfo().getSessionTime();
-        if (!history.containsKey(sessionTime)) {
-            history.put(sessionTime, new HashMap<>());
-        }
-        history.get(sessionTime).put(info.getCarId(), info);
-    }
-
-    /**
-     * Removes history that goes beyond the limit.
-     *
-     * @param info SessionInfo for the current session.
-     */
-    private void removeOldHistory(SessionInfo info) {
-        // remove old history data
-        var iter = history.entrySet().iterator();
-        while (iter.hasNext()) {
-            var entry = iter.next();
-            int t = entry.getKey();
-            if (info.getSessionTime() - t > HISTORY_MAX_TIME) {
-                iter.remove();
-            }
-        }
-    }
-
-    /**
-     * Gets the closest time in the history based on some requested time.
+     * Gets the frame in the history that is closest to some requested time.
      *
      * @param requestedTime The requested time.
-     * @return The closest match in the history.
+     * @return The index of the closest frame in the history.
      */
-    private int getSessionTimeFromHistory(int requestedTime) {
-        if (history.containsKey(requestedTime)) {
-            return requestedTime;
-        }
-        if (history.isEmpty()) {
+    private int getFrameFromHistory(int requestedTime) {
+        int frame = HISTORY.findFrame(requestedTime);
+        if (frame < 0) {
             throw new IllegalArgumentException("History is empty");
         }
-        int sessionTime = 0;
-        int sdt = 999999;
-        for (int t : history.keySet()) {
-            int dt = Math.abs(t - requestedTime);
-            if (dt < sdt) {
-                sdt = dt;
-                sessionTime = t;
-            }
-        }
-        return sessionTime;
+        return frame;
     }
 
     /*
@@ -269,13 +234,16 @@ public class ContactExtension
     public void onAccident(BroadcastingEvent event) {
         // an accident event is usually 5000 ms after the contact.
         // to get an accurate timing we subtract that offset.
-        int sessionTime = getSessionTimeFromHistory(
+        int frame = getFrameFromHistory(
                 CLIENT.getModel().getSessionInfo().getSessionTime() - 5000);
+        int sessionTime = HISTORY.getSessionTime(frame);
         CarInfo car = CLIENT.getModel().getCar(event.getCarId());
 
         // use realtime data from history
-        car = car.withRealtime(history.get(sessionTime)
-                .getOrDefault(event.getCarId(), car.getRealtime()));
+        int index = HISTORY.indexOf(frame, event.getCarId());
+        if (index >= 0) {
+            car = car.withRealtime(HISTORY.getRealtime(frame, index));
+        }
 
         if (stagedContact != null) {
             stagedContact = stagedContact.withCar(sessionTime, car);
@@ -284,14 +252,14 @@ public class ContactExtension
                     REPLAY_EXTENSION.getReplayTimeFromSessionTime(sessionTime),
                     car,
                     CLIENT.getSessionId());
-            stagedContactTimestamp = System.currentTimeMillis();
+            stagedContactTimestamp = CLIENT.getPacketTime();
         }
     }
 
     public void commitStagedContact() {
         // commit any staged contact that is older than 1 second.
         if (stagedContact != null) {
-            long now = System.currentTimeMillis();
+            long now = CLIENT.getPacketTime();
             if (now - stagedContactTimestamp > 1000) {
                 commitContact(stagedContact);
                 stagedContact = null;
@@ -321,40 +289,40 @@ public class ContactExtension
 
     private ContactInfo findOtherCars(ContactInfo contact) {
         // find history entry for the session time
-        int time = getSessionTimeFromHistory(contact.getSessionEarliestTime());
-        Map<Integer, RealtimeInfo> h = history.get(time);
+        int frame = getFrameFromHistory(contact.getSessionEarliestTime());
+        int time = HISTORY.getSessionTime(frame);
 
         // find other car with the smallest distance
         int subjectId = contact.getCars().get(0).getCarId();
-        RealtimeInfo subject = h.get(subjectId);
-        Optional<CarInfo> closestCarO = h.values().stream()
-                .filter(r -> r.getCarId() != subject.getCarId())
-                .min((r1, r2) -> {
-                    float d1 = Math.abs(getDistance(r1, subject));
-                    float d2 = Math.abs(getDistance(r2, subject));
-                    return ((Float) d1).compareTo(d2);
-                })
-                .map(r -> {
-                    CarInfo car = CLIENT.getModel().getCar(r.getCarId());
-                    return car.withRealtime(r);
-                });
-
-        if (closestCarO.isEmpty()) {
+        int subject = HISTORY.indexOf(frame, subjectId);
+        if (subject < 0) {
+            return contact;
+        }
+        float subjectSpline = HISTORY.getSplinePosition(frame, subject);
+        frameIndex.clear();
+        for (int i = 0; i < HISTORY.getCarCount(frame); i++) {
+            frameIndex.put(HISTORY.getCarId(frame, i), HISTORY.getSplinePosition(frame, i));
+        }
+        frameIndex.sort();
+        int closestId = frameIndex.findNearest(subjectSpline, carId -> carId != subjectId);
+        if (closestId < 0) {
             return contact;
         }
 
-        CarInfo closestCar = closestCarO.get();
-        // log 
-        if (closestCar != null) {
-            int trackMeters = CLIENT.getModel().getTrackInfo().getTrackMeters();
-            float distance = (closestCar.getRealtime().getSplinePosition()
-                    - subject.getSplinePosition()) * trackMeters;
-            LOG.info(String.format("Contact: ?%s\t\t%.2fm\t%s",
-                    closestCar.getCarNumberString(),
-                    distance,
-                    TimeUtils.asDuration(time)
-            ));
+        CarInfo closestCar = CLIENT.getModel().getCar(closestId);
+        if (closestCar == null) {
+            return contact;
         }
+        closestCar = closestCar.withRealtime(
+                HISTORY.getRealtime(frame, HISTORY.indexOf(frame, closestId)));
+        // log 
+        float distance = SPLINE_INDEX.getDistanceMeters(subjectSpline,
+                closestCar.getRealtime().getSplinePosition());
+        LOG.info(String.format("Contact: ?%s\t\t%.2fm\t%s",
+                closestCar.getCarNumberString(),
+                distance,
+                TimeUtils.asDuration(time)
+        ));
 
         return contact.withCar(
                 contact.getSessionLatestTime(),
@@ -362,7 +330,7 @@ public class ContactExtension
     }
 
     private ContactInfo matchYellowEvents(ContactInfo info) {
-        int time = getSessionTimeFromHistory(info.getSessionEarliestTime());
+        int time = HISTORY.getSessionTime(getFrameFromHistory(info.getSessionEarliestTime()));
 
         Map<Integer, CarInfo> carsInvolved = info.getCars().stream()
                 .collect(Collectors.toMap(
@@ -428,25 +396,26 @@ public class ContactExtension
         }
 
         // find closest car at the moment the yellow flag was shown.
-        Optional<CarInfo> closestCarInstant
-                = CLIENT.getModel().getCarsInfo().values().stream()
-                        .filter(car -> car.getCarId() != flaggedCar.getCarId())
-                        .filter(car -> car.getRealtime().getLocation() != CarLocation.NONE)
-                        .filter(car -> car.getRealtime().getLocation() != CarLocation.PITLANE)
-                        .min((c1, c2) -> {
-                            float d1 = Math.abs(getDistance(c1.getRealtime(), flaggedCar.getRealtime()));
-                            float d2 = Math.abs(getDistance(c2.getRealtime(), flaggedCar.getRealtime()));
-                            return Float.compare(d1, d2);
-                        });
+        int closestCarId = SPLINE_INDEX.findNearest(
+                flaggedCar.getRealtime().getSplinePosition(),
+                carId -> {
+                    if (carId == flaggedCar.getCarId()) {
+                        return false;
+                    }
+                    CarInfo car = CLIENT.getModel().getCar(carId);
+                    return car != null
+                            && car.getRealtime().getLocation() != CarLocation.NONE
+                            && car.getRealtime().getLocation() != CarLocation.PITLANE;
+                });
 
         // no closed car found
-        if (closestCarInstant.isEmpty()) {
+        if (closestCarId < 0) {
             return;
         }
 
         yellowEvents.add(new YellowFlagContactInfo(
                 flaggedCar,
-                closestCarInstant.get(),
+                CLIENT.getModel().getCar(closestCarId),
                 event.getSessionTime(),
                 event.getId())
         );
@@ -477,8 +446,8 @@ public class ContactExtension
             return false;
         }
 
-        float distance = getDistance(info.getClosestCar().getRealtime(),
-                info.getFlaggedCar().getRealtime()) * CLIENT.getModel().getTrackInfo().getTrackMeters();
+        float distance = getDistanceMeters(info.getClosestCar().getRealtime(),
+                info.getFlaggedCar().getRealtime());
         if (Math.abs(distance) > YELLOW_FLAG_DISTANCE_THRESHOLD) {
             return false;
         }
@@ -487,11 +456,10 @@ public class ContactExtension
     }
 
     private void logYellowFlagContactInfo(YellowFlagContactInfo info) {
-        int trackMeters = CLIENT.getModel().getTrackInfo().getTrackMeters();
         LOG.info(String.format("\t\t%s\t%.2fm",
                 info.getClosestCar().getCarNumberString(),
-                getDistance(info.getClosestCar().getRealtime(),
-                        info.getFlaggedCar().getRealtime()) * trackMeters
+                getDistanceMeters(info.getClosestCar().getRealtime(),
+                        info.getFlaggedCar().getRealtime())
         ));
     }
 
@@ -513,20 +481,13 @@ public class ContactExtension
     }
 
     /**
-     * Finds the spline distance between two cars.
+     * Finds the distance in meters between two cars.
      *
      * @param r1 RealtimeInfo for car 1.
      * @param r2 RealtimeInfo for car 2.
-     * @return The spline distance between two cars.
+     * @return The distance between two cars in meters.
      */
-    private float getDistance(RealtimeInfo r1, RealtimeInfo r2) {
-        float distance = r1.getSplinePosition() - r2.getSplinePosition();
-        if (distance > 0.5f) {
-            distance -= 1f;
-        }
-        if (distance < -0.5f) {
-            distance += 1f;
-        }
-        return distance;
+    private float getDistanceMeters(RealtimeInfo r1, RealtimeInfo r2) {
+        return SPLINE_INDEX.getDistanceMeters(r2.getSplinePosition(), r1.getSplinePosition());
     }
 }
@@ -6,14 +6,14 @@
 package racecontrol.client.extension.dangerdetection;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
-import processing.core.PVector;
 import racecontrol.client.AccBroadcastingClient;
 import racecontrol.client.ClientExtension;
+import racecontrol.client.data.AccBroadcastingData;
 import racecontrol.client.data.RealtimeInfo;
 import racecontrol.client.data.SessionInfo;
 import racecontrol.client.data.enums.CarLocation;
@@ -21,8 +21,7 @@ import static racecontrol.client.data.enums.CarLocation.PITENTRY;
 import static racecontrol.client.data.enums.CarLocation.PITEXIT;
 import static racecontrol.client.data.enums.CarLocation.PITLANE;
 import racecontrol.client.data.enums.SessionPhase;
-import racecontrol.client.events.RealtimeCarUpdateEvent;
-import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.client.events.RealtimeTickEvent;
 import racecontrol.client.extension.replayoffset.ReplayOffsetExtension;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
@@ -48,9 +47,13 @@ public class DangerDetectionExtension
      */
     private static final Logger LOG = Logger.getLogger(DangerDetectionExtension.class.getName());
     /**
-     * Reference to the connection client.
+     * Gives the model of the connection.
      */
-    private final AccBroadcastingClient client;
+    private final Supplier<AccBroadcastingData> model;
+    /**
+     * Gives the receive time of the packet that is being processed.
+     */
+    private final LongSupplier packetTime;
     /**
      * Base tolerance for the direction.
      */
@@ -74,39 +77,48 @@ public class DangerDetectionExtension
     /**
      * Velocity map that maps a point on track to its nominal velocity.
      */
-    private List<Float> velocityMap;
+    private float[] velocityMap = new float[0];
     /**
      * Map for velocity tolerances for white flags.
      */
-    private List<Float> velocityToleranceWhiteMap;
+    private float[] velocityToleranceWhiteMap = new float[0];
     /**
      * Map for velocity tolerances for yellow flags.
      */
-    private List<Float> velocityToleranceYellowMap;
+    private float[] velocityToleranceYellowMap = new float[0];
+    /**
+     * Nominal direction at each point on track as a unit vector. Holds the
+     * x component.
+     */
+    private float[] directionX = new float[0];
     /**
-     * Direction map that maps a point on track to its nominal direction.
+     * Nominal direction at each point on track as a unit vector. Holds the
+     * y component.
      */
-    private List<Float> directionMap;
+    private float[] directionY = new float[0];
     /**
      * Map for the direction tolerance over the lap.
      */
-    private List<Float> directionToleranceMap;
+    private float[] directionToleranceMap = new float[0];
     /**
      * Flag for when track data is present.
      */
     private boolean hasTrackData = false;
     /**
-     * Holds cars that are white flagged. maps carId to timestamp.
+     * Time a car was last white flagged, indexed by car id. 0 for cars that
+     * are not white flagged.
      */
-    private final Map<Integer, Long> whiteFlaggedCars = new HashMap<>();
+    private long[] whiteFlagTimes = new long[0];
     /**
-     * Holds cars that are yellow flagged. maps carId to timestamp.
+     * Time a car was last yellow flagged, indexed by car id. 0 for cars that
+     * are not yellow flagged.
      */
-    private final Map<Integer, Long> yellowFlaggedCars = new HashMap<>();
+    private long[] yellowFlagTimes = new long[0];
     /**
-     * Holds cars that are protected by the pit exit. Maps carId to speed.
+     * Speed of cars that are protected by the pit exit, indexed by car id. -1
+     * for cars that are not protected.
      */
-    private final Map<Integer, Integer> pitExitProtection = new HashMap<>();
+    private int[] pitExitSpeeds = new int[0];
     /**
      * Id counter for yellow flag events.
      */
@@ -125,18 +137,38 @@ public class DangerDetectionExtension
     }
 
     private DangerDetectionExtension() {
-        EventBus.register(this);
-        client = AccBroadcastingClient.getClient();
+        this(AccBroadcastingClient.getClient()::getModel,
+                AccBroadcastingClient.getClient()::getPacketTime);
+        EventBus.register(this, TrackDataEvent.class, RealtimeTickEvent.class);
+    }
+
+    /**
+     * Creates an extension that is not registered to the event bus and reads
+     * the model and the packet time from the given sources instead of the
+     * client.
+     *
+     * @param model gives the model of the connection.
+     * @param packetTime gives the receive time of the current packet.
+     */
+    DangerDetectionExtension(Supplier<AccBroadcastingData> model,
+            LongSupplier packetTime) {
+        this.model = model;
+        this.packetTime = packetTime;
     }
 
     @Override
     public void onEvent(Event e) {
         if (e instanceof TrackDataEvent) {
             onTrackData(((TrackDataEvent) e).getTrackData());
-        } else if (e instanceof RealtimeCarUpdateEvent) {
-            doPitExitProtection(((RealtimeCarUpdateEvent) e).getInfo());
-            testTolerances(((RealtimeCarUpdateEvent) e).getInfo());
-        } else if (e instanceof RealtimeUpdateEvent) {
+        } else if (e instanceof RealtimeTickEvent) {
+            RealtimeTickEvent tick = (RealtimeTickEvent) e;
+            for (int i = 0; i < tick.getCarCount(); i++) {
+                ensureCapacity(tick.getCar(i).getCarId());
+            }
+            for (int i = 0; i < tick.getCarCount(); i++) {
+                doPitExitProtection(tick.getCar(i));
+                testTolerances(tick.getCar(i));
+            }
             removeFlags();
         }
     }
@@ -148,7 +180,8 @@ public class DangerDetectionExtension
      * @return true if the car is white flagged.
      */
     public boolean isCarWhiteFlag(int carId) {
-        return whiteFlaggedCars.containsKey(carId);
+        return carId >= 0 && carId < whiteFlagTimes.length
+                && whiteFlagTimes[carId] != 0;
     }
 
     /**
@@ -158,46 +191,90 @@ public class DangerDetectionExtension
      * @return true if the car is white flagged.
      */
     public boolean isCarYellowFlag(int carId) {
-        return yellowFlaggedCars.containsKey(carId);
+        return carId >= 0 && carId < yellowFlagTimes.length
+                && yellowFlagTimes[carId] != 0;
     }
 
     public List<Float> getDirectionToleranceMap() {
-        return new ArrayList<>(directionToleranceMap);
+        return toList(directionToleranceMap);
     }
 
     public List<Float> getVelocityToleranceWhiteMap() {
-        return new ArrayList<>(velocityToleranceWhiteMap);
+        return toList(velocityToleranceWhiteMap);
     }
 
     public List<Float> getVelocityToleranceYellowMap() {
-        return new ArrayList<>(velocityToleranceYellowMap);
+        return toList(velocityToleranceYellowMap);
+    }
+
+    private List<Float> toList(float[] map) {
+        List<Float> list = new ArrayList<>(map.length);
+        for (float value : map) {
+            list.add(value);
+        }
+        return list;
     }
 
+    /**
+     * Precomputes the maps for the new track so that the checks for each
+     * update only read from arrays.
+     *
+     * @param data the track data.
+     */
     private void onTrackData(TrackData data) {
-        velocityMap = data.getGt3VelocityMap();
-        velocityToleranceWhiteMap = new ArrayList<>();
-        velocityToleranceYellowMap = new ArrayList<>();
-        directionToleranceMap = new ArrayList<>();
-        for (int i = 0; i < velocityMap.size(); i++) {
-            float v = velocityMap.get(i);
+        List<Float> vMap = data.getGt3VelocityMap();
+        int size = vMap.size();
+        velocityMap = new float[size];
+        for (int i = 0; i < size; i++) {
+            velocityMap[i] = vMap.get(i);
+        }
+        velocityToleranceWhiteMap = new float[size];
+        velocityToleranceYellowMap = new float[size];
+        directionToleranceMap = new float[size];
+        for (int i = 0; i < size; i++) {
+            float v = velocityMap[i];
             float z = 1 - (v - 50) / 200;
             z = DIR_BASE_TOLERANCE + Math.max(0, Math.min(1, z * z));
-            directionToleranceMap.add(z);
+            directionToleranceMap[i] = z;
 
             float smallestV = 1000;
             for (int j = 0; j < SPEED_LOOKAHEAD_COUNT; j++) {
-                int index = (i + j) % velocityMap.size();
-                smallestV = Math.min(smallestV, velocityMap.get(index));
+                int index = (i + j) % size;
+                smallestV = Math.min(smallestV, velocityMap[index]);
             }
-            velocityToleranceWhiteMap.add(smallestV
-                    - Math.min(SPEED_WHITE_TOLERANCE, smallestV * 0.5f));
-            velocityToleranceYellowMap.add(smallestV
-                    - Math.min(SPEED_YELLOW_TOLERANCE, smallestV * 0.6f));
+            velocityToleranceWhiteMap[i] = smallestV
+                    - Math.min(SPEED_WHITE_TOLERANCE, smallestV * 0.5f);
+            velocityToleranceYellowMap[i] = smallestV
+                    - Math.min(SPEED_YELLOW_TOLERANCE, smallestV * 0.6f);
+        }
+
+        List<Float> dMap = data.getDirectionMap();
+        directionX = new float[dMap.size()];
+        directionY = new float[dMap.size()];
+        for (int i = 0; i < dMap.size(); i++) {
+            directionX[i] = (float) Math.cos(dMap.get(i));
+            directionY[i] = (float) Math.sin(dMap.get(i));
         }
-        directionMap = data.getDirectionMap();
         hasTrackData = true;
     }
 
+    /**
+     * Grows the arrays indexed by car id so that they can hold the given car.
+     *
+     * @param carId the car id.
+     */
+    private void ensureCapacity(int carId) {
+        if (carId < pitExitSpeeds.length) {
+            return;
+        }
+        int oldLength = pitExitSpeeds.length;
+        int newLength = Math.max(carId + 1, oldLength * 2);
+        whiteFlagTimes = Arrays.copyOf(whiteFlagTimes, newLength);
+        yellowFlagTimes = Arrays.copyOf(yellowFlagTimes, newLength);
+        pitExitSpeeds = Arrays.copyOf(pitExitSpeeds, newLength);
+        Arrays.fill(pitExitSpeeds, oldLength, newLength, -1);
+    }
+
     /**
      * Tests if a car is protected from flags by exiting the pits. Aslong as the
      * speed of a car exiting the pits is increasing it is protected from flags.
@@ -209,14 +286,14 @@ public class DangerDetectionExtension
         if (info.getLocation() == PITLANE
                 || info.getLocation() == PITEXIT
                 || info.getLocation() == PITENTRY) {
-            pitExitProtection.put(info.getCarId(), info.getKMH());
+            pitExitSpeeds[info.getCarId()] = info.getKMH();
             return;
         }
-        if (pitExitProtection.containsKey(info.getCarId())) {
-            if (info.getKMH() < pitExitProtection.get(info.getCarId())) {
-                pitExitProtection.remove(info.getCarId());
+        if (pitExitSpeeds[info.getCarId()] != -1) {
+            if (info.getKMH() < pitExitSpeeds[info.getCarId()]) {
+                pitExitSpeeds[info.getCarId()] = -1;
             } else {
-                pitExitProtection.put(info.getCarId(), info.getKMH());
+                pitExitSpeeds[info.getCarId()] = info.getKMH();
             }
         }
     }
@@ -246,13 +323,13 @@ public class DangerDetectionExtension
         if (!hasTrackData) {
             return false;
         }
-        if (velocityMap.size() == 0) {
+        if (velocityMap.length == 0) {
             return false;
         }
         if (info.getLocation() != CarLocation.TRACK) {
             return false;
         }
-        SessionInfo sessionInfo = client.getModel().getSessionInfo();
+        SessionInfo sessionInfo = model.get().getSessionInfo();
         if (sessionInfo.getPhase() != SessionPhase.SESSION
                 && sessionInfo.getPhase() != SessionPhase.SESSIONOVER) {
             return false;
@@ -260,7 +337,7 @@ public class DangerDetectionExtension
         if (sessionInfo.getSessionTime() < 15000) {
             return false;
         }
-        if (pitExitProtection.containsKey(info.getCarId())) {
+        if (pitExitSpeeds[info.getCarId()] != -1) {
             return false;
         }
         return true;
@@ -268,7 +345,7 @@ public class DangerDetectionExtension
 
     private void setWhiteFlag(int carId, float vDiff, float tolerance) {
         /*
-        if (!whiteFlaggedCars.containsKey(carId)) {
+        if (!isCarWhiteFlag(carId)) {
             String carNumber = AccBroadcastingClient.getClient().getModel().getCar(carId).getCarNumber() + "";
             LOG.info("White Flag for: #" + carNumber
                     + String.format(", speed: %.2f", vDiff)
@@ -277,25 +354,23 @@ public class DangerDetectionExtension
 
         }
          */
-        long now = System.currentTimeMillis();
-        whiteFlaggedCars.put(carId, now);
+        whiteFlagTimes[carId] = packetTime.getAsLong();
     }
 
     private void setYellowFlag(int carId, boolean isSlow, boolean isSpin) {
-        boolean isNew = !yellowFlaggedCars.containsKey(carId);
-        long now = System.currentTimeMillis();
-        yellowFlaggedCars.put(carId, now);
+        boolean isNew = yellowFlagTimes[carId] == 0;
+        yellowFlagTimes[carId] = packetTime.getAsLong();
 
         // yellow flag overrides a white flag.
-        whiteFlaggedCars.remove(carId);
+        whiteFlagTimes[carId] = 0;
 
         if (isNew) {
             if (isSpin) {
-                SessionInfo info = client.getModel().getSessionInfo();
+                SessionInfo info = model.get().getSessionInfo();
                 int sessionTime = info.getSessionTime();
                 int replayTime = ReplayOffsetExtension.getInstance().getReplayTimeFromSessionTime(sessionTime);
                 String logMessage = "Yellow Flag nr." + idCounter + " :"
-                        + client.getModel().getCar(carId).getCarNumberString()
+                        + model.get().getCar(carId).getCarNumberString()
                         + "\t" + TimeUtils.asDuration(sessionTime)
                         + "\t" + TimeUtils.asDuration(replayTime)
                         + "\t";
@@ -304,7 +379,7 @@ public class DangerDetectionExtension
 
                 LOG.info(logMessage);
                 EventBus.publish(new YellowFlagEvent(
-                        client.getModel().getCar(carId),
+                        model.get().getCar(carId),
                         sessionTime,
                         idCounter++
                 ));
@@ -313,47 +388,49 @@ public class DangerDetectionExtension
     }
 
     private void removeFlags() {
-        long now = System.currentTimeMillis();
-        var iter = whiteFlaggedCars.entrySet().iterator();
-        while (iter.hasNext()) {
-            Entry<Integer, Long> entry = iter.next();
-            if (now - entry.getValue() > FLAG_REMOVE_TIME) {
-                iter.remove();
+        long now = packetTime.getAsLong();
+        for (int carId = 0; carId < whiteFlagTimes.length; carId++) {
+            if (whiteFlagTimes[carId] != 0
+                    && now - whiteFlagTimes[carId] > FLAG_REMOVE_TIME) {
+                whiteFlagTimes[carId] = 0;
             }
-        }
-        iter = yellowFlaggedCars.entrySet().iterator();
-        while (iter.hasNext()) {
-            Entry<Integer, Long> entry = iter.next();
-            if (now - entry.getValue() > FLAG_REMOVE_TIME) {
-                iter.remove();
+            if (yellowFlagTimes[carId] != 0
+                    && now - yellowFlagTimes[carId] > FLAG_REMOVE_TIME) {
+                yellowFlagTimes[carId] = 0;
             }
         }
     }
 
-    private float getValueFromMap(List<Float> map, float position) {
-        if (map.isEmpty()) {
+    private float getValueFromMap(float[] map, float position) {
+        if (map.length == 0) {
             return 0;
         }
-        int size = map.size();
+        int size = map.length;
         int lowerIndex = (int) Math.floor(position * size) % size;
         int upperIndex = (lowerIndex + 1) % size;
         float t = (position * size) % 1;
-        float lower = map.get(lowerIndex);
-        float upper = map.get(upperIndex);
-        return lower * (1 - t) + upper * t;
+        return map[lowerIndex] * (1 - t) + map[upperIndex] * t;
     }
 
+    /**
+     * Returns the nominal direction at a point on track. Interpolates between
+     * the unit vectors of the neighbouring map points so that the angle wraps
+     * around correctly.
+     *
+     * @param position the point on track.
+     * @return the direction as an angle.
+     */
     private float getDMapValue(float position) {
-        if (directionMap.isEmpty()) {
+        if (directionX.length == 0) {
             return 0;
         }
-        int size = directionMap.size();
+        int size = directionX.length;
         int lowerIndex = (int) Math.floor(position * size) % size;
         int upperIndex = (lowerIndex + 1) % size;
         float t = (position * size) % 1;
-        PVector lower = PVector.fromAngle(directionMap.get(lowerIndex)).mult(1 - t);
-        PVector upper = PVector.fromAngle(directionMap.get(upperIndex)).mult(t);
-        return lower.add(upper).heading();
+        float x = directionX[lowerIndex] * (1 - t) + directionX[upperIndex] * t;
+        float y = directionY[lowerIndex] * (1 - t) + directionY[upperIndex] * t;
+        return (float) Math.atan2(y, x);
     }
 
     private float angleBetewen(float a1, float a2) {
@@ -26,6 +26,7 @@ import java.util.logging.Logger;
 import racecontrol.client.AccBroadcastingClient;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
 import racecontrol.logging.UILogger;
 import racecontrol.client.ClientExtension;
 import racecontrol.client.extension.googlesheetsapi.GoogleSheetsConnection.State;
@@ -75,7 +76,9 @@ public class GoogleSheetsAPIExtension
     }
 
     private GoogleSheetsAPIExtension() {
-        EventBus.register(this);
+        EventBus.registerAsync(this, OverflowPolicy.BLOCK, 256,
+                SessionChangedEvent.class, SessionPhaseChangedEvent.class, CarConnectedEvent.class,
+                GoogleSheetsConnectedEvent.class);
         REPLAY_OFFSET_EXTENSION = ReplayOffsetExtension.getInstance();
         CLIENT = AccBroadcastingClient.getClient();
         connection = new GoogleSheetsConnection();
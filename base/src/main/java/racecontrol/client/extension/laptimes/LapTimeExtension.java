@@ -79,7 +79,7 @@ public class LapTimeExtension
     private final boolean isLoggingEnabled;
 
     public LapTimeExtension() {
-        EventBus.register(this);
+        EventBus.register(this, RealtimeCarUpdateEvent.class, SessionChangedEvent.class);
         client = AccBroadcastingClient.getClient();
         this.isLoggingEnabled = false;
         if (isLoggingEnabled) {
@@ -31,6 +31,7 @@ import racecontrol.eventbus.EventListener;
 import racecontrol.client.extension.laptimes.LapCompletedEvent;
 import racecontrol.client.extension.results.ResultsExtension;
 import racecontrol.utility.TimeUtils;
+import racecontrol.client.AccBroadcastingClient;
 import racecontrol.client.ClientExtension;
 
 /**
@@ -74,7 +75,7 @@ public class RaceReportController
     }
 
     private RaceReportController() {
-        EventBus.register(this);
+        EventBus.register(this, LapCompletedEvent.class, SessionChangedEvent.class);
         raceControlController = RaceControlController.getInstance();
     }
 
@@ -114,7 +115,7 @@ public class RaceReportController
         if (sessionId.getType() == RACE) {
             //if this car is the leader add the leader offset.
             int lapCount = e.getCar().getRealtime().getLaps();
-            long now = System.currentTimeMillis();
+            long now = AccBroadcastingClient.getClient().getPacketTime();
             if (!leaderOffset.containsKey(lapCount)) {
                 leaderOffset.put(lapCount, now);
             }
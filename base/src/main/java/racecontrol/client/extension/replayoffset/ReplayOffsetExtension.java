@@ -128,7 +128,9 @@ public class ReplayOffsetExtension
     }
 
     private ReplayOffsetExtension() {
-        EventBus.register(this);
+        EventBus.register(this, ConnectionOpenedEvent.class, SessionChangedEvent.class,
+                BroadcastingEventEvent.class, RealtimeUpdateEvent.class,
+                ReplayStartKnownEvent.class);
         client = AccBroadcastingClient.getClient();
         replayStartTime = 0;
         gameConnectionTime = 0;
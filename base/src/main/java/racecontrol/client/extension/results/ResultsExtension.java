@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import racecontrol.eventbus.EventListener;
+import racecontrol.client.AccBroadcastingClient;
 import racecontrol.client.ClientExtension;
 
 /**
@@ -78,9 +79,9 @@ public class ResultsExtension
             if (info.getSessionType() == SessionType.RACE) {
                 if (info.getPhase() == SessionPhase.STARTING) {
                     isMeasuringGreenFlagOffset = true;
-                    greenFlagOffsetTimestamp = System.currentTimeMillis();
+                    greenFlagOffsetTimestamp = AccBroadcastingClient.getClient().getPacketTime();
                 } else if (info.getPhase() == SessionPhase.SESSION && isMeasuringGreenFlagOffset) {
-                    greenFlagOffset = System.currentTimeMillis() - greenFlagOffsetTimestamp;
+                    greenFlagOffset = AccBroadcastingClient.getClient().getPacketTime() - greenFlagOffsetTimestamp;
                     report.greenFlagOffset = greenFlagOffset;
                     isMeasuringGreenFlagOffset = false;
                 }
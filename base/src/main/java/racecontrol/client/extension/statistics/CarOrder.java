@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.statistics;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Keeps car ids ordered by a key. The order is kept between updates and
+ * repaired with an insertion sort, which only does work for the cars that
+ * changed places. Between two realtime updates that are usually only a few.
+ * Cars with the same key keep their previous order.
+ *
+ * @author Leonard
+ */
+public class CarOrder {
+
+    /**
+     * Car ids in order.
+     */
+    private int[] carIds = new int[64];
+    /**
+     * Keys of the cars, in the same order as the car ids.
+     */
+    private float[] keys = new float[64];
+    /**
+     * Maps car ids to their index. -1 for cars that are not part of the
+     * order.
+     */
+    private int[] indexByCarId = new int[0];
+    /**
+     * Amount of cars.
+     */
+    private int size = 0;
+    /**
+     * True if the cars with the largest key come first.
+     */
+    private final boolean descending;
+
+    /**
+     * Creates a new order.
+     *
+     * @param descending true if the cars with the largest key should come
+     * first.
+     */
+    public CarOrder(boolean descending) {
+        this.descending = descending;
+    }
+
+    /**
+     * Sets the key of a car. The car is added at the end if it is not part of
+     * the order yet. The order is not repaired until {@link #sort()} is
+     * called.
+     *
+     * @param carId the car id.
+     * @param key the key.
+     */
+    public void put(int carId, float key) {
+        int index = indexOf(carId);
+        if (index < 0) {
+            if (size == carIds.length) {
+                carIds = Arrays.copyOf(carIds, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            if (carId >= indexByCarId.length) {
+                int oldLength = indexByCarId.length;
+                indexByCarId = Arrays.copyOf(indexByCarId, Math.max(carId + 1, oldLength * 2));
+                Arrays.fill(indexByCarId, oldLength, indexByCarId.length, -1);
+            }
+            index = size++;
+            carIds[index] = carId;
+            indexByCarId[carId] = index;
+        }
+        keys[index] = key;
+    }
+
+    /**
+     * Removes a car.
+     *
+     * @param carId the car id.
+     */
+    public void remove(int carId) {
+        int index = indexOf(carId);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(carIds, index + 1, carIds, index, size - index - 1);
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        size--;
+        indexByCarId[carId] = -1;
+        for (int i = index; i < size; i++) {
+            indexByCarId[carIds[i]] = i;
+        }
+    }
+
+    /**
+     * Removes every car that does not pass a filter. The remaining cars keep
+     * their order.
+     *
+     * @param filter tests the car ids of the cars to keep.
+     */
+    public void retain(IntPredicate filter) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int carId = carIds[i];
+            if (filter.test(carId)) {
+                carIds[kept] = carId;
+                keys[kept] = keys[i];
+                indexByCarId[carId] = kept;
+                kept++;
+            } else {
+                indexByCarId[carId] = -1;
+            }
+        }
+        size = kept;
+    }
+
+    /**
+     * Repairs the order after the keys have changed.
+     *
+     * @return the amount of places the cars were moved by.
+     */
+    public int sort() {
+        int moves = 0;
+        for (int i = 1; i < size; i++) {
+            int carId = carIds[i];
+            float key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && isBefore(key, keys[j])) {
+                carIds[j + 1] = carIds[j];
+                keys[j + 1] = keys[j];
+                indexByCarId[carIds[j + 1]] = j + 1;
+                j--;
+            }
+            if (j + 1 != i) {
+                carIds[j + 1] = carId;
+                keys[j + 1] = key;
+                indexByCarId[carId] = j + 1;
+                moves += i - j - 1;
+            }
+        }
+        return moves;
+    }
+
+    private boolean isBefore(float key, float other) {
+        return descending ? key > other : key < other;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the car at the given place in the order.
+     *
+     * @param index the index starting at 0.
+     * @return the car id.
+     */
+    public int getCarId(int index) {
+        return carIds[index];
+    }
+
+    /**
+     * Returns the key of the car at the given place in the order.
+     *
+     * @param index the index starting at 0.
+     * @return the key.
+     */
+    public float getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the place of a car in the order.
+     *
+     * @param carId the car id.
+     * @return the index starting at 0 or -1 if the car is not part of the
+     * order.
+     */
+    public int indexOf(int carId) {
+        if (carId < 0 || carId >= indexByCarId.length) {
+            return -1;
+        }
+        return indexByCarId[carId];
+    }
+
+    /**
+     * Returns a copy of the car ids in order.
+     *
+     * @return the car ids.
+     */
+    public int[] getCarIds() {
+        return Arrays.copyOf(carIds, size);
+    }
+
+    /**
+     * Returns a copy of the keys in order.
+     *
+     * @return the keys.
+     */
+    public float[] getKeys() {
+        return Arrays.copyOf(keys, size);
+    }
+}
@@ -74,11 +74,13 @@ public interface CarProperties {
     public final Key<Boolean> IS_SESSION_BEST = new Key<>(Boolean.class, false);
     public final Key<Boolean> IS_WHITE_FLAG = new Key<>(Boolean.class, false);
     public final Key<Boolean> IS_YELLOW_FLAG = new Key<>(Boolean.class, false);
+    public final Key<Integer> REALTIME_UPDATE_AGE = new Key<>(Integer.class, 0);
     // Realtime position
     public final Key<Float> RACE_DISTANCE_SIMPLE = new Key<>(Float.class, 0f);
     public final Key<Float> RACE_DISTANCE_COMPLEX = new Key<>(Float.class, 0f);
     public final Key<Float> SPLINE_POS = new Key<>(Float.class, 0f);
     public final Key<Integer> REALTIME_POSITION = new Key<>(Integer.class, 0);
+    public final Key<Integer> REALTIME_POSITION_CHANGE = new Key<>(Integer.class, 0);
     public final Key<Boolean> USE_REALTIME_POS = new Key<>(Boolean.class, false);
     // Session over
     public final Key<Boolean> SESSION_FINISHED = new Key<>(Boolean.class, false);
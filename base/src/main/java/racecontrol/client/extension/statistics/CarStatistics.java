@@ -5,7 +5,6 @@ package racecontrol.client.extension.statistics;
  * 
  * For licensing information see the included license (LICENSE.txt)
  */
-import java.util.Map;
 import java.util.logging.Logger;
 import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 
@@ -19,12 +18,34 @@ public class CarStatistics {
     private static final Logger LOG = Logger.getLogger(CarStatistics.class.getName());
 
     /**
-     * Map holds the properties.
+     * Integer properties.
      */
-    private final Map<Key<?>, Object> properties;
+    private final int[] ints;
+    /**
+     * Float properties.
+     */
+    private final float[] floats;
+    /**
+     * Boolean properties.
+     */
+    private final boolean[] booleans;
+    /**
+     * All other properties.
+     */
+    private final Object[] references;
+
+    /**
+     * Creates car statistics where every property has its default value.
+     */
+    public CarStatistics() {
+        this(new int[0], new float[0], new boolean[0], new Object[0]);
+    }
 
-    public CarStatistics(Map<Key<?>, Object> properties) {
-        this.properties = properties;
+    CarStatistics(int[] ints, float[] floats, boolean[] booleans, Object[] references) {
+        this.ints = ints;
+        this.floats = floats;
+        this.booleans = booleans;
+        this.references = references;
     }
 
     /**
@@ -35,9 +56,43 @@ public class CarStatistics {
      * @return The value of type T.
      */
     public <T> T get(Key<T> key) {
-        if (!properties.containsKey(key)) {
-            return key.defaultValue;
+        return get(key, ints, floats, booleans, references);
+    }
+
+    public int getInt(Key<Integer> key) {
+        return key.ordinal < ints.length ? ints[key.ordinal] : key.defaultValue;
+    }
+
+    public float getFloat(Key<Float> key) {
+        return key.ordinal < floats.length ? floats[key.ordinal] : key.defaultValue;
+    }
+
+    public boolean getBoolean(Key<Boolean> key) {
+        return key.ordinal < booleans.length ? booleans[key.ordinal] : key.defaultValue;
+    }
+
+    static <T> T get(Key<T> key, int[] ints, float[] floats, boolean[] booleans, Object[] references) {
+        switch (key.kind) {
+            case INT:
+                if (key.ordinal >= ints.length) {
+                    return key.defaultValue;
+                }
+                return key.type.cast(ints[key.ordinal]);
+            case FLOAT:
+                if (key.ordinal >= floats.length) {
+                    return key.defaultValue;
+                }
+                return key.type.cast(floats[key.ordinal]);
+            case BOOLEAN:
+                if (key.ordinal >= booleans.length) {
+                    return key.defaultValue;
+                }
+                return key.type.cast(booleans[key.ordinal]);
+            default:
+                if (key.ordinal >= references.length) {
+                    return key.defaultValue;
+                }
+                return key.type.cast(references[key.ordinal]);
         }
-        return key.type.cast(properties.get(key));
     }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Time gaps between every pair of cars on track for a single realtime update.
+ * A gap is the time a car needs to drive to the position of another car on
+ * track, independent of the laps they have driven. A matrix is never changed
+ * after it has been created and can be read from any thread.
+ *
+ * @author Leonard
+ */
+public class GapMatrix {
+
+    /**
+     * Matrix without any cars.
+     */
+    public static final GapMatrix EMPTY
+            = new GapMatrix(new int[0], new float[0], 0);
+    /**
+     * Car ids ordered by their position on track.
+     */
+    private final int[] carIds;
+    /**
+     * Time in ms to drive from the start line to each car, in the same order
+     * as the car ids.
+     */
+    private final float[] times;
+    /**
+     * Maps car ids to their index. -1 for cars that are not on track.
+     */
+    private final int[] indexByCarId;
+    /**
+     * Gaps between each pair of cars. The gap from car i to car j is at
+     * i * n + j.
+     */
+    private final float[] gaps;
+    /**
+     * Time in ms for a full lap.
+     */
+    private final float lapTime;
+
+    /**
+     * Creates a new gap matrix. The arrays are not copied and must not be
+     * changed afterwards.
+     *
+     * @param carIds the car ids ordered by their position on track.
+     * @param times the time in ms to drive from the start line to each car, in
+     * ascending order.
+     * @param lapTime the time in ms for a full lap.
+     */
+    public GapMatrix(int[] carIds, float[] times, float lapTime) {
+        int n = carIds.length;
+        this.carIds = carIds;
+        this.times = times;
+        this.lapTime = lapTime;
+
+        int maxCarId = -1;
+        for (int carId : carIds) {
+            maxCarId = Math.max(maxCarId, carId);
+        }
+        indexByCarId = new int[maxCarId + 1];
+        Arrays.fill(indexByCarId, -1);
+        for (int i = 0; i < n; i++) {
+            indexByCarId[this.carIds[i]] = i;
+        }
+
+        gaps = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            float from = this.times[i];
+            for (int j = 0; j < n; j++) {
+                float gap = this.times[j] - from;
+                gaps[row + j] = gap < 0 ? gap + lapTime : gap;
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of cars in this matrix.
+     *
+     * @return the amount of cars.
+     */
+    public int getCarCount() {
+        return carIds.length;
+    }
+
+    /**
+     * Returns the car ids ordered by their position on track, starting at the
+     * start line.
+     *
+     * @return the car ids.
+     */
+    public int[] getCarIds() {
+        return carIds.clone();
+    }
+
+    public float getLapTime() {
+        return lapTime;
+    }
+
+    /**
+     * Returns true if the car is part of this matrix.
+     *
+     * @param carId the car id.
+     * @return true if the car is part of this matrix.
+     */
+    public boolean contains(int carId) {
+        return indexOf(carId) >= 0;
+    }
+
+    /**
+     * Returns the time it takes the first car to drive to the position of the
+     * second car.
+     *
+     * @param fromCarId the car id of the car behind.
+     * @param toCarId the car id of the car infront.
+     * @return the gap in ms or NaN if one of the cars is not on track.
+     */
+    public float getGap(int fromCarId, int toCarId) {
+        int from = indexOf(fromCarId);
+        int to = indexOf(toCarId);
+        if (from < 0 || to < 0) {
+            return Float.NaN;
+        }
+        return gaps[from * carIds.length + to];
+    }
+
+    /**
+     * Returns the shortest gap between two cars. The gap is positive if the
+     * second car is infront of the first car and negative if it is behind.
+     *
+     * @param carId the car id of the reference car.
+     * @param otherCarId the car id of the other car.
+     * @return the gap in ms or NaN if one of the cars is not on track.
+     */
+    public float getRelativeGap(int carId, int otherCarId) {
+        float gap = getGap(carId, otherCarId);
+        return gap > lapTime / 2 ? gap - lapTime : gap;
+    }
+
+    /**
+     * Returns the cars that are less than the given time infront or behind a
+     * car, the closest first. Only the cars within the range are visited.
+     *
+     * @param carId the car id of the reference car.
+     * @param maxGap the maximum gap in ms.
+     * @return the car ids of the cars within the gap, excluding the reference
+     * car.
+     */
+    public int[] getCarsWithin(int carId, float maxGap) {
+        int n = carIds.length;
+        int index = indexOf(carId);
+        if (index < 0 || n < 2) {
+            return new int[0];
+        }
+        int[] result = new int[n - 1];
+        int count = 0;
+        int ahead = 1;
+        int behind = 1;
+        while (count < n - 1) {
+            float gapAhead = gaps[index * n + (index + ahead) % n];
+            float gapBehind = gaps[((index - behind + n) % n) * n + index];
+            if (Math.min(gapAhead, gapBehind) > maxGap) {
+                break;
+            }
+            if (gapAhead <= gapBehind) {
+                result[count++] = carIds[(index + ahead) % n];
+                ahead++;
+            } else {
+                result[count++] = carIds[(index - behind + n) % n];
+                behind++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int indexOf(int carId) {
+        if (carId < 0 || carId >= indexByCarId.length) {
+            return -1;
+        }
+        return indexByCarId[carId];
+    }
+}
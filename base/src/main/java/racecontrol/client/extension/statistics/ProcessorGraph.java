@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.statistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
+
+/**
+ * Orders statistics processors by the car properties they read and write. A
+ * processor depends on every processor that writes a property it reads. The
+ * processors are grouped into levels where every processor only depends on
+ * processors of earlier levels, so that the processors of a level can run in
+ * parallel.
+ *
+ * @author Leonard
+ */
+class ProcessorGraph {
+
+    /**
+     * Processors grouped by level.
+     */
+    private final List<List<StatisticsProcessor>> levels = new ArrayList<>();
+    /**
+     * All processors in an order where every processor comes after the
+     * processors it depends on.
+     */
+    private final List<StatisticsProcessor> order = new ArrayList<>();
+
+    /**
+     * Builds the graph.
+     *
+     * @param processors the processors.
+     * @throws IllegalStateException if two processors write the same property
+     * or the dependencies contain a cycle.
+     */
+    ProcessorGraph(List<StatisticsProcessor> processors) {
+        //find the writer of every property.
+        Map<Key<?>, StatisticsProcessor> writers = new HashMap<>();
+        for (StatisticsProcessor processor : processors) {
+            for (Key<?> key : processor.getWrittenProperties()) {
+                StatisticsProcessor other = writers.put(key, processor);
+                if (other != null && other != processor) {
+                    throw new IllegalStateException("Property written by "
+                            + name(other) + " and " + name(processor));
+                }
+            }
+        }
+
+        //a processor depends on the writers of the properties it reads.
+        Map<StatisticsProcessor, Set<StatisticsProcessor>> dependencies = new HashMap<>();
+        for (StatisticsProcessor processor : processors) {
+            Set<StatisticsProcessor> dependsOn = new LinkedHashSet<>();
+            for (Key<?> key : processor.getReadProperties()) {
+                StatisticsProcessor writer = writers.get(key);
+                if (writer != null && writer != processor) {
+                    dependsOn.add(writer);
+                }
+            }
+            dependencies.put(processor, dependsOn);
+        }
+
+        //peel off the processors whose dependencies are all placed.
+        List<StatisticsProcessor> remaining = new ArrayList<>(processors);
+        Set<StatisticsProcessor> placed = new LinkedHashSet<>();
+        while (!remaining.isEmpty()) {
+            List<StatisticsProcessor> level = new ArrayList<>();
+            for (StatisticsProcessor processor : remaining) {
+                if (placed.containsAll(dependencies.get(processor))) {
+                    level.add(processor);
+                }
+            }
+            if (level.isEmpty()) {
+                List<String> names = new ArrayList<>();
+                remaining.forEach(processor -> names.add(name(processor)));
+                throw new IllegalStateException("Cyclic dependency between " + names);
+            }
+            remaining.removeAll(level);
+            placed.addAll(level);
+            levels.add(Collections.unmodifiableList(level));
+            order.addAll(level);
+        }
+    }
+
+    /**
+     * Returns the processors grouped by level. The processors of a level only
+     * depend on processors of earlier levels.
+     *
+     * @return the levels.
+     */
+    List<List<StatisticsProcessor>> getLevels() {
+        return Collections.unmodifiableList(levels);
+    }
+
+    /**
+     * Returns the processors in dependency order.
+     *
+     * @return the processors.
+     */
+    List<StatisticsProcessor> getOrder() {
+        return Collections.unmodifiableList(order);
+    }
+
+    private static String name(StatisticsProcessor processor) {
+        return processor.getClass().getSimpleName();
+    }
+}
@@ -6,11 +6,22 @@
 package racecontrol.client.extension.statistics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import racecontrol.client.data.CarInfo;
 import racecontrol.client.events.CarConnectedEvent;
+import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeTickEvent;
+import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.extension.statistics.processors.DataProcessor;
 import racecontrol.client.extension.statistics.processors.GapProcessor;
 import racecontrol.client.extension.statistics.processors.OvertakeProcessor;
@@ -23,6 +34,7 @@ import racecontrol.client.extension.statistics.processors.SpeedProcessor;
 import racecontrol.client.extension.statistics.processors.StintTimeProcessor;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
+import racecontrol.eventbus.EventDispatcher;
 import racecontrol.eventbus.EventListener;
 import racecontrol.client.ClientExtension;
 import racecontrol.client.extension.statistics.processors.FlagProcessor;
@@ -40,13 +52,46 @@ public class StatisticsExtension
      */
     private static StatisticsExtension instance;
     /**
-     * Maps carId's to car statistics.
+     * Statistics for a car that has no statistics yet.
+     */
+    private static final CarStatistics EMPTY_STATISTICS
+            = new CarStatistics();
+    /**
+     * Maps carId's to car statistics. Written to by the processors.
      */
     private final Map<Integer, WritableCarStatistics> cars = new HashMap<>();
     /**
-     * List of processors.
+     * Read only statistics as of the end of the last realtime update.
+     * Replaced as a whole so that readers on other threads always see the
+     * state of a single tick.
+     */
+    private volatile Map<Integer, CarStatistics> snapshot = Collections.emptyMap();
+    /**
+     * Gaps between all cars as of the end of the last realtime update.
+     */
+    private volatile GapMatrix gapMatrix = GapMatrix.EMPTY;
+    /**
+     * Processor that calculates the gaps.
+     */
+    private final GapProcessor gapProcessor;
+    /**
+     * Processors ordered by the properties they read and write.
      */
-    private final List<StatisticsProcessor> processors;
+    private final ProcessorGraph graph;
+    /**
+     * Delivers events that are not part of a realtime tick to the processors
+     * that react to them, in dependency order.
+     */
+    private final EventDispatcher processorDispatcher = new EventDispatcher();
+    /**
+     * Processors that react to realtime updates, grouped by level.
+     */
+    private final List<List<TickStep>> tickLevels = new ArrayList<>();
+    /**
+     * Pool to run the processors of a level in parallel. Null if there is
+     * nothing to gain from running in parallel.
+     */
+    private final ForkJoinPool pool;
 
     /**
      * Gives the instance of the statistics extension.
@@ -61,19 +106,53 @@ public class StatisticsExtension
     }
 
     private StatisticsExtension() {
-        EventBus.register(this);
-        this.processors = new ArrayList<>();
+        List<StatisticsProcessor> processors = new ArrayList<>();
         processors.add(new DataProcessor(cars));
         processors.add(new SectorTimesProcessor(cars));
         processors.add(new SessionOverProcessor(cars));
         processors.add(new RealtimePositionProcessor(cars));
-        processors.add(new GapProcessor(cars));
+        gapProcessor = new GapProcessor(cars);
+        processors.add(gapProcessor);
         processors.add(new OvertakeProcessor(cars));
         processors.add(new PlacesLostGainedProcessor(cars));
         processors.add(new PitTimeProcessor(cars));
         processors.add(new SpeedProcessor(cars));
         processors.add(new StintTimeProcessor(cars));
         processors.add(new FlagProcessor(cars));
+
+        graph = new ProcessorGraph(processors);
+
+        Set<Class<?>> eventTypes = new LinkedHashSet<>();
+        eventTypes.add(CarConnectedEvent.class);
+        eventTypes.add(RealtimeTickEvent.class);
+        for (StatisticsProcessor processor : graph.getOrder()) {
+            processorDispatcher.register(processor, processor.getEventTypes());
+            eventTypes.addAll(Arrays.asList(processor.getEventTypes()));
+        }
+        //realtime updates are processed once per tick.
+        eventTypes.remove(RealtimeCarUpdateEvent.class);
+        eventTypes.remove(RealtimeUpdateEvent.class);
+
+        int width = 0;
+        for (List<StatisticsProcessor> level : graph.getLevels()) {
+            List<TickStep> steps = new ArrayList<>();
+            for (StatisticsProcessor processor : level) {
+                TickStep step = new TickStep(processor);
+                if (step.carUpdates || step.sessionUpdate) {
+                    steps.add(step);
+                }
+            }
+            if (!steps.isEmpty()) {
+                tickLevels.add(steps);
+                width = Math.max(width, steps.size());
+            }
+        }
+        int parallelism = Math.min(width, Runtime.getRuntime().availableProcessors());
+        pool = parallelism > 1
+                ? new ForkJoinPool(parallelism, StatisticsExtension::newWorkerThread, null, false)
+                : null;
+
+        EventBus.register(this, eventTypes.toArray(new Class<?>[0]));
     }
 
     @Override
@@ -83,11 +162,139 @@ public class StatisticsExtension
             cars.put(car.getCarId(), new WritableCarStatistics());
         }
 
-        processors.forEach(processor -> processor.onEvent(e));
+        if (e instanceof RealtimeTickEvent) {
+            onRealtimeTick((RealtimeTickEvent) e);
+            publishSnapshot();
+            return;
+        }
+
+        processorDispatcher.publish(e);
+
+        if (e instanceof CarConnectedEvent) {
+            //make the new car visible without publishing the half finished tick.
+            int carId = ((CarConnectedEvent) e).getCar().getCarId();
+            Map<Integer, CarStatistics> next = new HashMap<>(snapshot);
+            next.put(carId, cars.get(carId).freeze());
+            snapshot = Collections.unmodifiableMap(next);
+        }
+    }
+
+    /**
+     * Runs the processors for a realtime tick. Every processor first sees the
+     * updates for all cars of the tick and then the session update. The
+     * processors of a level run in parallel.
+     *
+     * @param tick the tick.
+     */
+    private void onRealtimeTick(RealtimeTickEvent tick) {
+        Event[] carUpdates = new Event[tick.getCarCount()];
+        for (int i = 0; i < carUpdates.length; i++) {
+            carUpdates[i] = new RealtimeCarUpdateEvent(tick.getCar(i));
+        }
+        Event sessionUpdate = new RealtimeUpdateEvent(tick.getSessionInfo());
+
+        for (List<TickStep> level : tickLevels) {
+            if (pool == null || level.size() == 1) {
+                for (TickStep step : level) {
+                    step.run(carUpdates, sessionUpdate);
+                }
+            } else {
+                pool.invoke(new LevelTask(level, carUpdates, sessionUpdate));
+            }
+        }
+    }
+
+    private static ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("Statistics processor thread " + thread.getPoolIndex());
+        return thread;
     }
 
+    private void publishSnapshot() {
+        Map<Integer, CarStatistics> next = new HashMap<>(cars.size() * 2);
+        cars.forEach((carId, statistics) -> next.put(carId, statistics.freeze()));
+        snapshot = Collections.unmodifiableMap(next);
+        gapMatrix = gapProcessor.getGapMatrix();
+    }
+
+    /**
+     * Returns the statistics of a car as of the last realtime update. Safe to
+     * call from any thread.
+     *
+     * @param carId the car id.
+     * @return the car statistics.
+     */
     public CarStatistics getCar(int carId) {
-        return new CarStatistics(cars.get(carId).getProperties());
+        return snapshot.getOrDefault(carId, EMPTY_STATISTICS);
+    }
+
+    /**
+     * Returns the gaps between all cars as of the last realtime update. Safe
+     * to call from any thread.
+     *
+     * @return the gap matrix.
+     */
+    public GapMatrix getGapMatrix() {
+        return gapMatrix;
     }
 
+    /**
+     * A processor that reacts to realtime updates.
+     */
+    private static class TickStep {
+
+        private final StatisticsProcessor processor;
+        private final boolean carUpdates;
+        private final boolean sessionUpdate;
+
+        TickStep(StatisticsProcessor processor) {
+            this.processor = processor;
+            boolean cars = false;
+            boolean session = false;
+            for (Class<?> type : processor.getEventTypes()) {
+                cars |= type.isAssignableFrom(RealtimeCarUpdateEvent.class);
+                session |= type.isAssignableFrom(RealtimeUpdateEvent.class);
+            }
+            this.carUpdates = cars;
+            this.sessionUpdate = session;
+        }
+
+        void run(Event[] cars, Event session) {
+            if (carUpdates) {
+                for (Event car : cars) {
+                    processor.onEvent(car);
+                }
+            }
+            if (sessionUpdate) {
+                processor.onEvent(session);
+            }
+        }
+    }
+
+    /**
+     * Runs the processors of a level in parallel.
+     */
+    private static class LevelTask
+            extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final List<TickStep> steps;
+        private final Event[] carUpdates;
+        private final Event sessionUpdate;
+
+        LevelTask(List<TickStep> steps, Event[] carUpdates, Event sessionUpdate) {
+            this.steps = steps;
+            this.carUpdates = carUpdates;
+            this.sessionUpdate = sessionUpdate;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(steps.size());
+            for (TickStep step : steps) {
+                tasks.add(ForkJoinTask.adapt(() -> step.run(carUpdates, sessionUpdate)));
+            }
+            invokeAll(tasks);
+        }
+    }
 }
@@ -6,14 +6,17 @@
 package racecontrol.client.extension.statistics;
 
 import java.util.Map;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.eventbus.Event;
+import racecontrol.eventbus.EventListener;
 
 /**
  * Describes methods a statistics processor must implement.
  *
  * @author Leonard
  */
-public abstract class StatisticsProcessor {
+public abstract class StatisticsProcessor
+        implements EventListener {
 
     private final Map<Integer, WritableCarStatistics> cars;
 
@@ -25,5 +28,30 @@ public abstract class StatisticsProcessor {
         return cars;
     }
 
+    /**
+     * Returns the event types this processor reacts to. Only events of these
+     * types are passed to {@link #onEvent(Event)}.
+     *
+     * @return the event types.
+     */
+    public abstract Class<?>[] getEventTypes();
+
+    /**
+     * Returns the car properties this processor reads. A processor runs after
+     * all processors that write a property it reads.
+     *
+     * @return the properties read.
+     */
+    public abstract Key<?>[] getReadProperties();
+
+    /**
+     * Returns the car properties this processor writes. Every property can
+     * only be written by a single processor.
+     *
+     * @return the properties written.
+     */
+    public abstract Key<?>[] getWrittenProperties();
+
+    @Override
     public abstract void onEvent(Event e);
 }
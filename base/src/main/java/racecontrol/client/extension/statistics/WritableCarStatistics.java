@@ -5,20 +5,49 @@
  */
 package racecontrol.client.extension.statistics;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * Car statistics class that holds a map of properties.
+ * Car statistics class that holds the properties of a car. Integer, float
+ * and boolean properties are stored unboxed in arrays indexed by the
+ * ordinal of their key. Every property has its own array element so that
+ * processors that write different properties can run in parallel.
  *
  * @author Leonard
  */
 public class WritableCarStatistics {
 
     /**
-     * Map holds the properties.
+     * Integer properties.
      */
-    private final Map<Key<?>, Object> properties = new HashMap<>();
+    private int[] ints;
+    /**
+     * Float properties.
+     */
+    private float[] floats;
+    /**
+     * Boolean properties.
+     */
+    private boolean[] booleans;
+    /**
+     * All other properties.
+     */
+    private Object[] references;
+    /**
+     * Read only copy of the properties. Null if a property has changed since
+     * the copy was made.
+     */
+    private CarStatistics frozen;
+
+    public WritableCarStatistics() {
+        ints = new int[0];
+        floats = new float[0];
+        booleans = new boolean[0];
+        references = new Object[0];
+        ensureCapacity();
+    }
 
     /**
      * Add a new property
@@ -28,7 +57,54 @@ public class WritableCarStatistics {
      * @param value The value to save.
      */
     public <T> void put(Key<T> key, T value) {
-        properties.put(key, value);
+        switch (key.kind) {
+            case INT:
+                put(key.ordinal, (Integer) value);
+                break;
+            case FLOAT:
+                put(key.ordinal, (Float) value);
+                break;
+            case BOOLEAN:
+                put(key.ordinal, (Boolean) value);
+                break;
+            default:
+                if (key.ordinal >= references.length) {
+                    ensureCapacity();
+                }
+                references[key.ordinal] = value;
+                frozen = null;
+                break;
+        }
+    }
+
+    /**
+     * Add a new integer property without boxing.
+     *
+     * @param key The key place the value under.
+     * @param value The value to save.
+     */
+    public void put(Key<Integer> key, int value) {
+        put(key.ordinal, value);
+    }
+
+    /**
+     * Add a new float property without boxing.
+     *
+     * @param key The key place the value under.
+     * @param value The value to save.
+     */
+    public void put(Key<Float> key, float value) {
+        put(key.ordinal, value);
+    }
+
+    /**
+     * Add a new boolean property without boxing.
+     *
+     * @param key The key place the value under.
+     * @param value The value to save.
+     */
+    public void put(Key<Boolean> key, boolean value) {
+        put(key.ordinal, value);
     }
 
     /**
@@ -39,19 +115,117 @@ public class WritableCarStatistics {
      * @return The value of type T.
      */
     public <T> T get(Key<T> key) {
-        if (!properties.containsKey(key)) {
-            return key.defaultValue;
-        }
-        return key.type.cast(properties.get(key));
+        return CarStatistics.get(key, ints, floats, booleans, references);
+    }
+
+    public int getInt(Key<Integer> key) {
+        return key.ordinal < ints.length ? ints[key.ordinal] : key.defaultValue;
+    }
+
+    public float getFloat(Key<Float> key) {
+        return key.ordinal < floats.length ? floats[key.ordinal] : key.defaultValue;
+    }
+
+    public boolean getBoolean(Key<Boolean> key) {
+        return key.ordinal < booleans.length ? booleans[key.ordinal] : key.defaultValue;
     }
 
     /**
-     * Returns the properties for this car.
+     * Returns a read only copy of the current properties. The copy is reused
+     * until a property changes.
      *
-     * @return Map of keys to objects.
+     * @return the car statistics.
      */
-    public Map<Key<?>, Object> getProperties() {
-        return properties;
+    public CarStatistics freeze() {
+        if (frozen == null) {
+            frozen = new CarStatistics(ints.clone(), floats.clone(),
+                    booleans.clone(), references.clone());
+        }
+        return frozen;
+    }
+
+    private void put(int ordinal, int value) {
+        if (ordinal >= ints.length) {
+            ensureCapacity();
+        }
+        ints[ordinal] = value;
+        frozen = null;
+    }
+
+    private void put(int ordinal, float value) {
+        if (ordinal >= floats.length) {
+            ensureCapacity();
+        }
+        floats[ordinal] = value;
+        frozen = null;
+    }
+
+    private void put(int ordinal, boolean value) {
+        if (ordinal >= booleans.length) {
+            ensureCapacity();
+        }
+        booleans[ordinal] = value;
+        frozen = null;
+    }
+
+    /**
+     * Grows the storage to fit all keys that exist and fills the new slots
+     * with the default values of their keys.
+     */
+    private void ensureCapacity() {
+        int oldInts = ints.length;
+        int oldFloats = floats.length;
+        int oldBooleans = booleans.length;
+        int oldReferences = references.length;
+        ints = Arrays.copyOf(ints, Math.max(oldInts, Key.count(Kind.INT)));
+        floats = Arrays.copyOf(floats, Math.max(oldFloats, Key.count(Kind.FLOAT)));
+        booleans = Arrays.copyOf(booleans, Math.max(oldBooleans, Key.count(Kind.BOOLEAN)));
+        references = Arrays.copyOf(references, Math.max(oldReferences, Key.count(Kind.REFERENCE)));
+        for (Key<?> key : Key.all()) {
+            switch (key.kind) {
+                case INT:
+                    if (key.ordinal >= oldInts) {
+                        ints[key.ordinal] = (Integer) key.defaultValue;
+                    }
+                    break;
+                case FLOAT:
+                    if (key.ordinal >= oldFloats) {
+                        floats[key.ordinal] = (Float) key.defaultValue;
+                    }
+                    break;
+                case BOOLEAN:
+                    if (key.ordinal >= oldBooleans) {
+                        booleans[key.ordinal] = (Boolean) key.defaultValue;
+                    }
+                    break;
+                default:
+                    if (key.ordinal >= oldReferences) {
+                        references[key.ordinal] = key.defaultValue;
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * How the values of a key are stored.
+     */
+    public enum Kind {
+        INT,
+        FLOAT,
+        BOOLEAN,
+        REFERENCE;
+
+        static Kind of(Class<?> type) {
+            if (type == Integer.class) {
+                return INT;
+            } else if (type == Float.class) {
+                return FLOAT;
+            } else if (type == Boolean.class) {
+                return BOOLEAN;
+            }
+            return REFERENCE;
+        }
     }
 
     /**
@@ -61,6 +235,14 @@ public class WritableCarStatistics {
      */
     public static class Key<T> {
 
+        /**
+         * All keys that have been created.
+         */
+        private static final List<Key<?>> KEYS = new ArrayList<>();
+        /**
+         * Amount of keys created for each kind.
+         */
+        private static final int[] COUNTS = new int[Kind.values().length];
         /**
          * Type of the object this key referes to.
          */
@@ -69,10 +251,39 @@ public class WritableCarStatistics {
          * Default value for this key if the property does not exist.
          */
         final T defaultValue;
+        /**
+         * How the values of this key are stored.
+         */
+        final Kind kind;
+        /**
+         * Dense index of this key among the keys of the same kind.
+         */
+        final int ordinal;
 
         public Key(Class<T> type, T defaultValue) {
             this.type = type;
             this.defaultValue = defaultValue;
+            this.kind = Kind.of(type);
+            synchronized (KEYS) {
+                this.ordinal = COUNTS[kind.ordinal()]++;
+                KEYS.add(this);
+            }
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        static int count(Kind kind) {
+            synchronized (KEYS) {
+                return COUNTS[kind.ordinal()];
+            }
+        }
+
+        static List<Key<?>> all() {
+            synchronized (KEYS) {
+                return new ArrayList<>(KEYS);
+            }
         }
     }
 
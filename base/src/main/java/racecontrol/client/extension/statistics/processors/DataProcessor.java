@@ -5,6 +5,7 @@
  */
 package racecontrol.client.extension.statistics.processors;
 
+import java.util.Arrays;
 import java.util.Map;
 import racecontrol.client.AccBroadcastingClient;
 import racecontrol.client.data.CarInfo;
@@ -13,6 +14,8 @@ import racecontrol.client.data.LapInfo;
 import racecontrol.client.data.RealtimeInfo;
 import racecontrol.client.data.SessionInfo;
 import static racecontrol.client.data.enums.CarLocation.PITLANE;
+import racecontrol.client.events.CarConnectedEvent;
+import racecontrol.client.events.EntryListCarUpdateEvent;
 import racecontrol.client.events.RealtimeCarUpdateEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import static racecontrol.client.extension.statistics.CarProperties.BEST_LAP_INVALID;
@@ -34,12 +37,14 @@ import static racecontrol.client.extension.statistics.CarProperties.IS_IN_PITS;
 import static racecontrol.client.extension.statistics.CarProperties.LAST_LAP_TIME;
 import static racecontrol.client.extension.statistics.CarProperties.NAME;
 import static racecontrol.client.extension.statistics.CarProperties.POSITION;
+import static racecontrol.client.extension.statistics.CarProperties.REALTIME_UPDATE_AGE;
 import static racecontrol.client.extension.statistics.CarProperties.SHORT_NAME;
 import static racecontrol.client.extension.statistics.CarProperties.SURNAME;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import static racecontrol.client.extension.statistics.CarProperties.LAP_COUNT;
 import static racecontrol.client.extension.statistics.CarProperties.IS_FOCUSED_ON;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.eventbus.Event;
 import static racecontrol.client.extension.statistics.CarProperties.CURRENT_LAP_INVALID;
 import static racecontrol.client.extension.statistics.CarProperties.DRIVER_INDEX;
@@ -64,23 +69,66 @@ public class DataProcessor extends StatisticsProcessor {
      * Reference to the game client.
      */
     private final AccBroadcastingClient client;
+    /**
+     * Driver index the identity properties of a car were last written for,
+     * indexed by car id. -1 if they have to be written on the next update.
+     */
+    private int[] identityDriverIndex = new int[0];
 
     public DataProcessor(Map<Integer, WritableCarStatistics> cars) {
         super(cars);
         client = AccBroadcastingClient.getClient();
     }
 
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeCarUpdateEvent.class, RealtimeUpdateEvent.class,
+            CarConnectedEvent.class, EntryListCarUpdateEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{BEST_LAP_TIME, CAR_ID};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{
+            BEST_LAP_INVALID, BEST_LAP_TIME, BEST_SECTOR_ONE, BEST_SECTOR_THREE, BEST_SECTOR_TWO,
+            CAR_ID, CAR_LOCATION, CAR_MODEL, CAR_NUMBER, CATEGORY, CUP_POSITION,
+            CURRENT_LAP_INVALID, CURRENT_LAP_TIME, DELTA, DRIVER_INDEX, DRIVER_LIST, FIRSTNAME,
+            FULL_NAME, IS_FOCUSED_ON, IS_IN_PITS, IS_SESSION_BEST, LAP_COUNT, LAST_LAP_INVALID,
+            LAST_LAP_TIME, LAST_SECTOR_ONE, LAST_SECTOR_THREE, LAST_SECTOR_TWO, NAME, POSITION,
+            REALTIME_UPDATE_AGE, SESSION_ID, SHORT_NAME, SURNAME, TEAM_NAME
+        };
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof RealtimeCarUpdateEvent) {
             onRealtimeCarUpdate(((RealtimeCarUpdateEvent) e).getInfo());
         } else if (e instanceof RealtimeUpdateEvent) {
             onRealtimeUpdate(((RealtimeUpdateEvent) e).getSessionInfo());
+        } else if (e instanceof CarConnectedEvent) {
+            invalidateIdentity(((CarConnectedEvent) e).getCar().getCarId());
+        } else if (e instanceof EntryListCarUpdateEvent) {
+            invalidateIdentity(((EntryListCarUpdateEvent) e).getSessionInfo().getCarId());
+        }
+    }
+
+    /**
+     * Makes sure the identity properties of a car are written again on its
+     * next realtime update.
+     *
+     * @param carId the car id.
+     */
+    private void invalidateIdentity(int carId) {
+        if (carId >= 0 && carId < identityDriverIndex.length) {
+            identityDriverIndex[carId] = -1;
         }
     }
 
     public void onRealtimeCarUpdate(RealtimeInfo info) {
-        CarInfo carInfo = client.getModel().getCar(info.getCarId());
         if (!getCars().containsKey(info.getCarId())) {
             return;
         }
@@ -88,18 +136,17 @@ public class DataProcessor extends StatisticsProcessor {
 
         car.put(CAR_ID, info.getCarId());
 
-        // Identity
-        car.put(FIRSTNAME, carInfo.getDriver().getFirstName());
-        car.put(SURNAME, carInfo.getDriver().getLastName());
-        car.put(FULL_NAME, carInfo.getDriver().getFirstName() + " " + carInfo.getDriver().getLastName());
-        car.put(NAME, getName(carInfo.getDriver()));
-        car.put(SHORT_NAME, carInfo.getDriver().getShortName());
-        car.put(CAR_NUMBER, carInfo.getCarNumber());
-        car.put(CAR_MODEL, carInfo.getCarModel());
-        car.put(CATEGORY, carInfo.getDriver().getCategory());
-        car.put(DRIVER_INDEX, (int) carInfo.getRealtime().getDriverIndex());
-        car.put(DRIVER_LIST, new DriverList(carInfo.getDrivers()));
-        car.put(TEAM_NAME, carInfo.getTeamName());
+        // Identity, only changes with the entry list or a driver swap.
+        if (info.getCarId() >= identityDriverIndex.length) {
+            int oldLength = identityDriverIndex.length;
+            identityDriverIndex = Arrays.copyOf(identityDriverIndex,
+                    Math.max(info.getCarId() + 1, oldLength * 2));
+            Arrays.fill(identityDriverIndex, oldLength, identityDriverIndex.length, -1);
+        }
+        if (identityDriverIndex[info.getCarId()] != info.getDriverIndex()) {
+            writeIdentity(car, client.getModel().getCar(info.getCarId()));
+            identityDriverIndex[info.getCarId()] = info.getDriverIndex();
+        }
         // Laps
         car.put(CURRENT_LAP_TIME, info.getCurrentLap().getLapTimeMS());
         car.put(LAST_LAP_TIME, info.getLastLap().getLapTimeMS());
@@ -111,13 +158,13 @@ public class DataProcessor extends StatisticsProcessor {
         car.put(LAP_COUNT, info.getLaps());
         // Sectors
         LapInfo lap = info.getBestSessionLap();
-        car.put(BEST_SECTOR_ONE, intOrDefault(lap.getSplits().get(0), 0));
-        car.put(BEST_SECTOR_TWO, intOrDefault(lap.getSplits().get(1), 0));
-        car.put(BEST_SECTOR_THREE, intOrDefault(lap.getSplits().get(2), 0));
+        car.put(BEST_SECTOR_ONE, lap.getSplit(0));
+        car.put(BEST_SECTOR_TWO, lap.getSplit(1));
+        car.put(BEST_SECTOR_THREE, lap.getSplit(2));
         lap = info.getLastLap();
-        car.put(LAST_SECTOR_ONE, intOrDefault(lap.getSplits().get(0), 0));
-        car.put(LAST_SECTOR_TWO, intOrDefault(lap.getSplits().get(1), 0));
-        car.put(LAST_SECTOR_THREE, intOrDefault(lap.getSplits().get(2), 0));
+        car.put(LAST_SECTOR_ONE, lap.getSplit(0));
+        car.put(LAST_SECTOR_TWO, lap.getSplit(1));
+        car.put(LAST_SECTOR_THREE, lap.getSplit(2));
         // Status
         car.put(POSITION, info.getPosition());
         car.put(CUP_POSITION, info.getCupPosition());
@@ -126,6 +173,21 @@ public class DataProcessor extends StatisticsProcessor {
 
     }
 
+    private void writeIdentity(WritableCarStatistics car, CarInfo carInfo) {
+        DriverInfo driver = carInfo.getDriver();
+        car.put(FIRSTNAME, driver.getFirstName());
+        car.put(SURNAME, driver.getLastName());
+        car.put(FULL_NAME, driver.getFirstName() + " " + driver.getLastName());
+        car.put(NAME, getName(driver));
+        car.put(SHORT_NAME, driver.getShortName());
+        car.put(CAR_NUMBER, carInfo.getCarNumber());
+        car.put(CAR_MODEL, carInfo.getCarModel());
+        car.put(CATEGORY, driver.getCategory());
+        car.put(DRIVER_INDEX, (int) carInfo.getRealtime().getDriverIndex());
+        car.put(DRIVER_LIST, new DriverList(carInfo.getDrivers()));
+        car.put(TEAM_NAME, carInfo.getTeamName());
+    }
+
     private String getName(DriverInfo driver) {
         String firstname = driver.getFirstName();
         firstname = firstname.substring(0, Math.min(firstname.length(), 1));
@@ -134,19 +196,14 @@ public class DataProcessor extends StatisticsProcessor {
 
     public void onRealtimeUpdate(SessionInfo info) {
         for (WritableCarStatistics car : getCars().values()) {
-            car.put(IS_FOCUSED_ON, info.getFocusedCarIndex() == car.get(CAR_ID));
+            car.put(IS_FOCUSED_ON, info.getFocusedCarIndex() == car.getInt(CAR_ID));
             car.put(SESSION_ID, client.getSessionId());
+            car.put(REALTIME_UPDATE_AGE,
+                    client.getModel().getCarState().getMissedUpdates(car.getInt(CAR_ID)));
             car.put(IS_SESSION_BEST,
                     info.getBestSessionLap().getLapTimeMS() != Integer.MAX_VALUE
-                    && info.getBestSessionLap().getLapTimeMS() == car.get(BEST_LAP_TIME)
+                    && info.getBestSessionLap().getLapTimeMS() == car.getInt(BEST_LAP_TIME)
             );
         }
     }
-
-    private Integer intOrDefault(Integer i, int d) {
-        if (i == null) {
-            return d;
-        }
-        return i;
-    }
 }
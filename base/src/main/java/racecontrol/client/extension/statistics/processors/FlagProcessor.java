@@ -11,6 +11,7 @@ import racecontrol.client.extension.dangerdetection.DangerDetectionExtension;
 import static racecontrol.client.extension.statistics.CarProperties.IS_WHITE_FLAG;
 import static racecontrol.client.extension.statistics.CarProperties.IS_YELLOW_FLAG;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.eventbus.Event;
 
@@ -31,6 +32,21 @@ public class FlagProcessor
         dangerExtension = DangerDetectionExtension.getInstance();
     }
 
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeCarUpdateEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{IS_WHITE_FLAG, IS_YELLOW_FLAG};
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof RealtimeCarUpdateEvent) {
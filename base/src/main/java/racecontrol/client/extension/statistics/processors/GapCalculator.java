@@ -27,10 +27,24 @@ public class GapCalculator {
      * Track data.
      */
     private TrackData trackData;
+    /**
+     * Velocity map in m/s.
+     */
+    private float[] velocities = new float[0];
+    /**
+     * Time in seconds to drive from the start line to each point of the
+     * velocity map. The last entry is the time for a full lap.
+     */
+    private double[] cumulativeTime = new double[1];
+    /**
+     * Length of the track between two points of the velocity map in m.
+     */
+    private float pointLength;
 
     public void setTrackData(TrackData trackData) {
         this.trackData = trackData;
-        lapTime = calculateLapTime();
+        buildTimeTable();
+        lapTime = (float) (cumulativeTime[velocities.length] * 1000);
     }
 
     public float getLapTime() {
@@ -52,62 +66,60 @@ public class GapCalculator {
                 infront.getRealtime().getSplinePosition());
     }
 
+    /**
+     * Calculates the time it takes to drive from one spline position to
+     * another based on the velocity map. If the end lies before the start the
+     * gap wraps around the start line.
+     *
+     * @param behind spline position of the car behind.
+     * @param infront spline position of the car infront.
+     * @return gap from -> to in ms.
+     */
     public float calculateGap(float behind, float infront) {
-        List<Float> velocityMap = trackData.getGt3VelocityMap();
-
-        float start = behind;
-        float end = infront;
-        //make sure the end is always > than the start so we dont have to worry
-        //about that later.
-        //0->1 wrappeing does not matter because it will be Modulo'ed out when
-        //accessing the velocity map.
-        if (end < start) {
-            end += 1;
+        double time = timeToPosition(infront) - timeToPosition(behind);
+        if (infront < behind) {
+            time += cumulativeTime[velocities.length];
         }
-
-        float stepSize = 1f / velocityMap.size();
-        float totalTime = 0;
-        float currentPosition = start;
-        //if there is a checkpoint inbetween the current point and the end
-        //calculate the time to the checkpoint first.
-        while (currentPosition + stepSize < end) {
-            totalTime += calcTimeBetweenSplinePoints(currentPosition, currentPosition + stepSize);
-            currentPosition += stepSize;
-        }
-        //add time to the end point.
-        totalTime += calcTimeBetweenSplinePoints(currentPosition, end);
-        return totalTime * 1000;
+        return (float) (time * 1000);
     }
 
     /**
-     * Calculates the time it takes to drive from spline position s1 to s2 based
-     * on the velocity map.
+     * Returns the time it takes to drive from the start line to a spline
+     * position.
      *
-     * @param s1 start spline position.
-     * @param s2 end spline position.
-     * @return time in ms.
+     * @param s the spline position.
+     * @return the time in seconds.
      */
-    private float calcTimeBetweenSplinePoints(float s1, float s2) {
-        float s1Velocity = findVmapVelocityForPosition(s1);
-        float s2Velocity = findVmapVelocityForPosition(s2);
-        float distance = (s2 - s1) * trackData.getTrackMeters();
-        return calcTimeBetweenPointsWithVelocity(s1Velocity, s2Velocity, distance);
+    public double timeToPosition(float s) {
+        int n = velocities.length;
+        if (n == 0) {
+            return 0;
+        }
+        float position = (s - (float) Math.floor(s)) * n;
+        int index = Math.min((int) position, n - 1);
+        float t = position - index;
+        float v0 = velocities[index];
+        float v1 = velocities[(index + 1) % n];
+        float v = v0 * (1 - t) + v1 * t;
+        return cumulativeTime[index] + calcTimeBetweenPointsWithVelocity(v0, v, t * pointLength);
     }
 
     /**
-     * Find the corosponding vmap velocity for the specified position by
-     * interpolating between the two closest vMap points.
-     *
-     * @param s the position.
-     * @return the vMap speed.
+     * Integrates the time to drive between the points of the velocity map.
      */
-    private float findVmapVelocityForPosition(float s) {
+    private void buildTimeTable() {
         List<Float> velocityMap = trackData.getGt3VelocityMap();
-        int lowerIndex = (int) Math.floor(s * velocityMap.size()) % velocityMap.size();
-        int upperIndex = (lowerIndex + 1) % velocityMap.size();
-        float t = s * velocityMap.size() % 1;
-        float rtn = (velocityMap.get(lowerIndex) * (1 - t) + velocityMap.get(upperIndex) * t) / 3.6f;
-        return rtn;
+        int n = velocityMap.size();
+        velocities = new float[n];
+        for (int i = 0; i < n; i++) {
+            velocities[i] = velocityMap.get(i) / 3.6f;
+        }
+        cumulativeTime = new double[n + 1];
+        pointLength = n == 0 ? 0 : (float) trackData.getTrackMeters() / n;
+        for (int i = 0; i < n; i++) {
+            cumulativeTime[i + 1] = cumulativeTime[i]
+                    + calcTimeBetweenPointsWithVelocity(velocities[i], velocities[(i + 1) % n], pointLength);
+        }
     }
 
     /**
@@ -117,7 +129,7 @@ public class GapCalculator {
      * @param v0 start velocity in m/s.
      * @param v1 end velocity in m/s.
      * @param d distance in m.
-     * @return time in ms to accelerate from v0 to v1 in d meter.
+     * @return time in s to accelerate from v0 to v1 in d meter.
      */
     private float calcTimeBetweenPointsWithVelocity(float v0, float v1, float d) {
         if (v0 + v1 == 0) {
@@ -144,25 +156,4 @@ public class GapCalculator {
         return trackDistance / averageSpeed * 1000;
     }
 
-    private float calculateLapTime() {
-        if (trackData.getGt3VelocityMap().isEmpty()) {
-            return 0;
-        }
-
-        List<Float> velocityMap = trackData.getGt3VelocityMap();
-
-        float stepSize = 1f / velocityMap.size();
-        float totalTime = 0;
-        float currentPosition = 0;
-        //if there is a checkpoint inbetween the current point and the end
-        //calculate the time to the checkpoint first.
-        while (currentPosition + stepSize < 1) {
-            totalTime += calcTimeBetweenSplinePoints(currentPosition, currentPosition + stepSize);
-            currentPosition += stepSize;
-        }
-        //add time to the end point.
-        totalTime += calcTimeBetweenSplinePoints(currentPosition, 1);
-        return totalTime * 1000;
-    }
-
 }
@@ -5,13 +5,13 @@
  */
 package racecontrol.client.extension.statistics.processors;
 
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 import racecontrol.client.AccBroadcastingClient;
-import racecontrol.client.data.CarInfo;
 import racecontrol.client.data.LapInfo;
+import racecontrol.client.data.LiveCarState;
 import racecontrol.client.data.SessionInfo;
+import racecontrol.client.events.CarDisconnectedEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import static racecontrol.client.extension.statistics.CarProperties.BEST_LAP_TIME;
 import static racecontrol.client.extension.statistics.CarProperties.GAP_TO_CAR_AHEAD;
@@ -21,7 +21,10 @@ import static racecontrol.client.extension.statistics.CarProperties.GAP_TO_POSIT
 import static racecontrol.client.extension.statistics.CarProperties.LAPS_BEHIND_LEADER;
 import static racecontrol.client.extension.statistics.CarProperties.LAPS_BEHIND_SPLIT;
 import static racecontrol.client.extension.statistics.CarProperties.LAP_TIME_GAP_TO_SESSION_BEST;
+import racecontrol.client.extension.statistics.CarOrder;
+import racecontrol.client.extension.statistics.GapMatrix;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
@@ -35,15 +38,63 @@ import static racecontrol.client.extension.statistics.CarProperties.REALTIME_POS
  */
 public class GapProcessor extends StatisticsProcessor {
 
-    private final AccBroadcastingClient client;
+    /**
+     * Gives the cars of the current connection.
+     */
+    private final Supplier<LiveCarState> carState;
 
     private TrackData trackData;
 
     private final GapCalculator gapCalculator = new GapCalculator();
+    /**
+     * Gaps between all cars as of the last realtime update.
+     */
+    private GapMatrix gapMatrix = GapMatrix.EMPTY;
+    /**
+     * Cars ordered by their realtime position.
+     */
+    private final CarOrder positionOrder = new CarOrder(false);
+    /**
+     * Cars ordered by the time it takes to drive from the start line to their
+     * position on track.
+     */
+    private final CarOrder trackOrder = new CarOrder(false);
 
     public GapProcessor(Map<Integer, WritableCarStatistics> cars) {
+        this(cars, () -> AccBroadcastingClient.getClient().getModel().getCarState());
+    }
+
+    /**
+     * Creates a processor that reads the cars from the given source instead
+     * of the client.
+     *
+     * @param cars the car statistics.
+     * @param carState gives the cars of the current connection.
+     */
+    GapProcessor(Map<Integer, WritableCarStatistics> cars,
+            Supplier<LiveCarState> carState) {
         super(cars);
-        client = AccBroadcastingClient.getClient();
+        this.carState = carState;
+    }
+
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeUpdateEvent.class, TrackDataEvent.class,
+            CarDisconnectedEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{BEST_LAP_TIME, REALTIME_POSITION};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{
+            GAP_TO_CAR_AHEAD, GAP_TO_CAR_BEHIND, GAP_TO_LEADER, GAP_TO_POSITION_AHEAD,
+            LAPS_BEHIND_LEADER, LAPS_BEHIND_SPLIT, LAP_TIME_GAP_TO_SESSION_BEST,
+            RACE_DISTANCE_BEHIND_LEADER
+        };
     }
 
     @Override
@@ -53,6 +104,10 @@ public class GapProcessor extends StatisticsProcessor {
         } else if (e instanceof TrackDataEvent) {
             trackData = ((TrackDataEvent) e).getTrackData();
             gapCalculator.setTrackData(trackData);
+        } else if (e instanceof CarDisconnectedEvent) {
+            int carId = ((CarDisconnectedEvent) e).getCar().getCarId();
+            positionOrder.remove(carId);
+            trackOrder.remove(carId);
         }
     }
 
@@ -66,9 +121,10 @@ public class GapProcessor extends StatisticsProcessor {
         }
 
         // Skip if we dont know the track or the v map.
+        LiveCarState cars = carState.get();
         if (trackData == null
                 || trackData.getGt3VelocityMap().isEmpty()
-                || client.getModel().getCarsInfo().isEmpty()) {
+                || cars.getCarCount() == 0) {
             for (WritableCarStatistics car : getCars().values()) {
                 if (trackData == null
                         || trackData.getGt3VelocityMap().isEmpty()) {
@@ -80,34 +136,45 @@ public class GapProcessor extends StatisticsProcessor {
                     car.put(RACE_DISTANCE_BEHIND_LEADER, 0f);
                 }
             }
+            gapMatrix = GapMatrix.EMPTY;
             return;
         }
 
+        // repair the order by position and by position on track. Cars of a
+        // previous connection are not always disconnected, drop them here.
+        positionOrder.retain(cars::contains);
+        trackOrder.retain(cars::contains);
+        for (int carId : cars.getCarIds()) {
+            positionOrder.put(carId, getCars().get(carId).get(REALTIME_POSITION));
+            trackOrder.put(carId, (float) (gapCalculator.timeToPosition(
+                    cars.getSplinePosition(carId)) * 1000));
+        }
+        positionOrder.sort();
+        trackOrder.sort();
+
+        GapMatrix matrix = new GapMatrix(trackOrder.getCarIds(),
+                trackOrder.getKeys(), gapCalculator.getLapTime());
+        gapMatrix = matrix;
+
         // calculate gaps to position ahead and leader.
-        List<CarInfo> cars = client.getModel().getCarsInfo().values().stream()
-                .sorted((c1, c2) -> {
-                    return getCars().get(c1.getCarId()).get(REALTIME_POSITION)
-                            .compareTo(getCars().get(c2.getCarId()).get(REALTIME_POSITION));
-                })
-                .collect(Collectors.toList());
-        float leaderRaceDistance = cars.get(0).getRealtime().getLaps()
-                + cars.get(0).getRealtime().getSplinePosition();
+        int leaderId = positionOrder.getCarId(0);
+        float leaderRaceDistance = cars.getLaps(leaderId) + cars.getSplinePosition(leaderId);
         int splitLapsBehind = 0;
-        WritableCarStatistics carStats = getCars().get(cars.get(0).getCarId());
+        WritableCarStatistics carStats = getCars().get(positionOrder.getCarId(0));
         carStats.put(GAP_TO_LEADER, 0);
         carStats.put(GAP_TO_POSITION_AHEAD, 0);
         carStats.put(LAPS_BEHIND_LEADER, 0);
         carStats.put(LAPS_BEHIND_SPLIT, false);
         carStats.put(RACE_DISTANCE_BEHIND_LEADER, 0f);
-        for (int i = 1; i < cars.size(); i++) {
-            int gap = (int) gapCalculator.calculateGap(cars.get(i), cars.get(i - 1));
-            int gapToLeader = (int) gapCalculator.calculateGap(cars.get(i), cars.get(0));
+        for (int i = 1; i < positionOrder.size(); i++) {
+            int carId = positionOrder.getCarId(i);
+            int gap = (int) matrix.getGap(carId, positionOrder.getCarId(i - 1));
+            int gapToLeader = (int) matrix.getGap(carId, positionOrder.getCarId(0));
 
-            float raceDistance = cars.get(i).getRealtime().getLaps()
-                    + cars.get(i).getRealtime().getSplinePosition();
+            float raceDistance = cars.getLaps(carId) + cars.getSplinePosition(carId);
             int lapsBehind = (int) Math.floor(leaderRaceDistance - raceDistance);
 
-            carStats = getCars().get(cars.get(i).getCarId());
+            carStats = getCars().get(carId);
             carStats.put(GAP_TO_LEADER, gapToLeader);
             carStats.put(GAP_TO_POSITION_AHEAD, gap);
             carStats.put(LAPS_BEHIND_LEADER, lapsBehind);
@@ -117,24 +184,25 @@ public class GapProcessor extends StatisticsProcessor {
             splitLapsBehind = lapsBehind;
         }
 
-        cars = client.getModel().getCarsInfo().values().stream()
-                .sorted((c1, c2) -> Float.compare(c1.getRealtime().getSplinePosition(), c2.getRealtime().getSplinePosition()))
-                .collect(Collectors.toList());
-        for (int i = 0; i < cars.size(); i++) {
-            int next = (i == cars.size() - 1) ? 0 : i + 1;
-            int gapToCar = (int) gapCalculator.calculateGap(cars.get(i), cars.get(next));
-
-            carStats = getCars().get(cars.get(i).getCarId());
-            carStats.put(GAP_TO_CAR_AHEAD, gapToCar);
-        }
-        for (int i = 0; i < cars.size(); i++) {
-            int prev = (i == 0) ? cars.size() - 1 : i - 1;
-            int gapToCar = (int) gapCalculator.calculateGap(cars.get(prev), cars.get(i));
+        // calculate gaps to the cars directly infront and behind on track.
+        int[] carIds = matrix.getCarIds();
+        for (int i = 0; i < carIds.length; i++) {
+            int next = carIds[(i + 1) % carIds.length];
+            int prev = carIds[(i - 1 + carIds.length) % carIds.length];
 
-            carStats = getCars().get(cars.get(i).getCarId());
-            carStats.put(GAP_TO_CAR_BEHIND, gapToCar);
+            carStats = getCars().get(carIds[i]);
+            carStats.put(GAP_TO_CAR_AHEAD, (int) matrix.getGap(carIds[i], next));
+            carStats.put(GAP_TO_CAR_BEHIND, (int) matrix.getGap(prev, carIds[i]));
         }
+    }
 
+    /**
+     * Returns the gap matrix of the last realtime update.
+     *
+     * @return the gap matrix.
+     */
+    public GapMatrix getGapMatrix() {
+        return gapMatrix;
     }
 
 }
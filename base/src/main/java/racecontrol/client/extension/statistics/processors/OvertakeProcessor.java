@@ -16,8 +16,9 @@ import racecontrol.client.events.AfterPacketReceivedEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import static racecontrol.client.extension.statistics.CarProperties.CAR_NUMBER;
 import static racecontrol.client.extension.statistics.CarProperties.OVERTAKE_INDICATOR;
-import static racecontrol.client.extension.statistics.CarProperties.REALTIME_POSITION;
+import static racecontrol.client.extension.statistics.CarProperties.REALTIME_POSITION_CHANGE;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.eventbus.Event;
 
@@ -41,10 +42,6 @@ public class OvertakeProcessor
      * Ms the indicator should be visible for.
      */
     private final int INDICATOR_TIME = 15000;
-    /**
-     * Holds the previous position a car was in. Maps CarId to position.
-     */
-    private final Map<Integer, Integer> prevPositions = new HashMap<>();
     /**
      * Timestamp for when a indicator started to show. Maps carId to timestamp.
      */
@@ -55,6 +52,21 @@ public class OvertakeProcessor
         this.client = AccBroadcastingClient.getClient();
     }
 
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeUpdateEvent.class, AfterPacketReceivedEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{REALTIME_POSITION_CHANGE};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{OVERTAKE_INDICATOR};
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof RealtimeUpdateEvent) {
@@ -76,19 +88,16 @@ public class OvertakeProcessor
 
             WritableCarStatistics stats = getCars().get(car.getCarId());
 
-            if (prevPositions.containsKey(car.getCarId())) {
-                int diff = stats.get(REALTIME_POSITION) - prevPositions.get(car.getCarId());
-                if (diff != 0) {
-                    stats.put(OVERTAKE_INDICATOR, diff);
-                    timestamps.put(car.getCarId(), System.currentTimeMillis());
-                }
+            int diff = stats.get(REALTIME_POSITION_CHANGE);
+            if (diff != 0) {
+                stats.put(OVERTAKE_INDICATOR, diff);
+                timestamps.put(car.getCarId(), client.getPacketTime());
             }
-            prevPositions.put(car.getCarId(), stats.get(REALTIME_POSITION));
         }
     }
 
     private void resetIndicators() {
-        long now = System.currentTimeMillis();
+        long now = client.getPacketTime();
         var iter = timestamps.entrySet().iterator();
         while (iter.hasNext()) {
             var entry = iter.next();
@@ -21,6 +21,7 @@ import static racecontrol.client.extension.statistics.CarProperties.PITLANE_COUN
 import static racecontrol.client.extension.statistics.CarProperties.PITLANE_TIME;
 import static racecontrol.client.extension.statistics.CarProperties.PITLANE_TIME_STATIONARY;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.eventbus.Event;
 
@@ -51,6 +52,24 @@ public class PitTimeProcessor
         this.client = AccBroadcastingClient.getClient();
     }
 
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeCarUpdateEvent.class, SessionChangedEvent.class,
+                SessionPhaseChangedEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{PITLANE_COUNT, PITLANE_TIME_STATIONARY};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{
+            PITLANE_COUNT, PITLANE_COUNT_ACCURATE, PITLANE_TIME, PITLANE_TIME_STATIONARY
+        };
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof RealtimeCarUpdateEvent) {
@@ -79,7 +98,7 @@ public class PitTimeProcessor
     private void realtimeCarUpdate(RealtimeInfo info) {
         if (info.getLocation() == PITLANE) {
             
-            long now = System.currentTimeMillis();
+            long now = client.getPacketTime();
             WritableCarStatistics carStats = getCars().get(info.getCarId());
 
             // if car has entered the pits, set the timestamp, reset the
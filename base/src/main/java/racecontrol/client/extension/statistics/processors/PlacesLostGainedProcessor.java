@@ -20,6 +20,7 @@ import static racecontrol.client.extension.statistics.CarProperties.POSITION;
 import static racecontrol.client.extension.statistics.CarProperties.RACE_START_POSITION;
 import static racecontrol.client.extension.statistics.CarProperties.REALTIME_POSITION;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.eventbus.Event;
 import static racecontrol.client.extension.statistics.CarProperties.RACE_START_POSITION_ACCURATE;
@@ -44,6 +45,22 @@ public class PlacesLostGainedProcessor
         this.client = AccBroadcastingClient.getClient();
     }
 
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeUpdateEvent.class, SessionChangedEvent.class,
+                SessionPhaseChangedEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{POSITION, RACE_START_POSITION, REALTIME_POSITION, SESSION_FINISHED};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{PLACES_GAINED, RACE_START_POSITION, RACE_START_POSITION_ACCURATE};
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof RealtimeUpdateEvent) {
@@ -6,14 +6,18 @@
 package racecontrol.client.extension.statistics.processors;
 
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import racecontrol.client.AccBroadcastingClient;
 import racecontrol.client.data.RealtimeInfo;
+import racecontrol.client.data.CarInfo;
+import racecontrol.client.data.LiveCarState;
 import racecontrol.client.data.SessionInfo;
 import static racecontrol.client.data.enums.CarLocation.PITLANE;
 import static racecontrol.client.data.enums.SessionPhase.PRESESSION;
 import static racecontrol.client.data.enums.SessionType.RACE;
+import racecontrol.client.events.CarConnectedEvent;
+import racecontrol.client.events.CarDisconnectedEvent;
 import racecontrol.client.events.RealtimeCarUpdateEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.events.SessionChangedEvent;
@@ -23,10 +27,13 @@ import static racecontrol.client.extension.statistics.CarProperties.CAR_LOCATION
 import static racecontrol.client.extension.statistics.CarProperties.RACE_DISTANCE_COMPLEX;
 import static racecontrol.client.extension.statistics.CarProperties.RACE_DISTANCE_SIMPLE;
 import static racecontrol.client.extension.statistics.CarProperties.REALTIME_POSITION;
+import static racecontrol.client.extension.statistics.CarProperties.REALTIME_POSITION_CHANGE;
 import static racecontrol.client.extension.statistics.CarProperties.SESSION_FINISHED;
 import static racecontrol.client.extension.statistics.CarProperties.SPLINE_POS;
 import static racecontrol.client.extension.statistics.CarProperties.USE_REALTIME_POS;
+import racecontrol.client.extension.statistics.CarOrder;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.eventbus.Event;
 
@@ -42,13 +49,54 @@ public class RealtimePositionProcessor
      */
     private static final Logger LOG = Logger.getLogger(RealtimePositionProcessor.class.getName());
     /**
-     * Reference to the game client.
+     * Gives the cars of the current connection.
      */
-    private final AccBroadcastingClient client;
+    private final Supplier<LiveCarState> carState;
+    /**
+     * Cars ordered by their complex race distance.
+     */
+    private final CarOrder raceOrder = new CarOrder(true);
+    /**
+     * Flag to indicate that the session has changed and positions should not
+     * be compared to the previous session.
+     */
+    private boolean sessionChanged = false;
 
     public RealtimePositionProcessor(Map<Integer, WritableCarStatistics> cars) {
+        this(cars, () -> AccBroadcastingClient.getClient().getModel().getCarState());
+    }
+
+    /**
+     * Creates a processor that reads the cars from the given source instead
+     * of the client.
+     *
+     * @param cars the car statistics.
+     * @param carState gives the cars of the current connection.
+     */
+    RealtimePositionProcessor(Map<Integer, WritableCarStatistics> cars,
+            Supplier<LiveCarState> carState) {
         super(cars);
-        client = AccBroadcastingClient.getClient();
+        this.carState = carState;
+    }
+
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeCarUpdateEvent.class, RealtimeUpdateEvent.class,
+                SessionChangedEvent.class, SessionPhaseChangedEvent.class,
+                CarConnectedEvent.class, CarDisconnectedEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{CAR_ID, CAR_LOCATION, RACE_DISTANCE_COMPLEX, SESSION_FINISHED};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{
+            RACE_DISTANCE_COMPLEX, RACE_DISTANCE_SIMPLE, REALTIME_POSITION,
+            REALTIME_POSITION_CHANGE, SPLINE_POS, USE_REALTIME_POS
+        };
     }
 
     @Override
@@ -61,6 +109,12 @@ public class RealtimePositionProcessor
             resetDistances();
         } else if (e instanceof SessionPhaseChangedEvent) {
             sessionPhaseChanged(((SessionPhaseChangedEvent) e).getSessionInfo());
+        } else if (e instanceof CarConnectedEvent) {
+            CarInfo car = ((CarConnectedEvent) e).getCar();
+            raceOrder.put(car.getCarId(),
+                    getCars().get(car.getCarId()).get(RACE_DISTANCE_COMPLEX));
+        } else if (e instanceof CarDisconnectedEvent) {
+            raceOrder.remove(((CarDisconnectedEvent) e).getCar().getCarId());
         }
     }
 
@@ -84,27 +138,32 @@ public class RealtimePositionProcessor
             }
         }
         carStats.put(RACE_DISTANCE_COMPLEX, raceDistance);
+        raceOrder.put(info.getCarId(), raceDistance);
     }
 
     private void onSessionUpdate(SessionInfo info) {
-        // sort cars based on their complex race distance.
-        var carsSorted = client.getModel().getCarsInfo().values().stream()
-                .map(carInfo -> getCars().get(carInfo.getCarId()))
-                .sorted((c1, c2) -> c2.get(RACE_DISTANCE_COMPLEX).compareTo(c1.get(RACE_DISTANCE_COMPLEX)))
-                .collect(Collectors.toList());
-
-        int pos = 1;
-        for (var carStats : carsSorted) {
-            if (shouldUseRealtimePosition(info, carStats)) {
-                carStats.put(REALTIME_POSITION, pos);
-            } else {
-                carStats.put(REALTIME_POSITION,
-                        client.getModel().getCar(carStats.get(CAR_ID))
-                                .getRealtime().getPosition());
+        // order cars based on their complex race distance. Cars of a previous
+        // connection are not always disconnected, drop them here.
+        LiveCarState cars = carState.get();
+        raceOrder.retain(cars::contains);
+        raceOrder.sort();
+
+        for (int i = 0; i < raceOrder.size(); i++) {
+            int carId = raceOrder.getCarId(i);
+            WritableCarStatistics carStats = getCars().get(carId);
+            boolean useRealtimePosition = shouldUseRealtimePosition(info, carStats);
+            int position = i + 1;
+            if (!useRealtimePosition) {
+                position = cars.getPosition(carId);
             }
-            carStats.put(USE_REALTIME_POS, shouldUseRealtimePosition(info, carStats));
-            pos++;
+
+            int previousPosition = carStats.get(REALTIME_POSITION);
+            carStats.put(REALTIME_POSITION_CHANGE,
+                    (previousPosition == 0 || sessionChanged) ? 0 : position - previousPosition);
+            carStats.put(REALTIME_POSITION, position);
+            carStats.put(USE_REALTIME_POS, useRealtimePosition);
         }
+        sessionChanged = false;
     }
 
     private boolean shouldUseRealtimePosition(SessionInfo info,
@@ -115,11 +174,13 @@ public class RealtimePositionProcessor
     }
 
     private void resetDistances() {
-        client.getModel().getCarsInfo().values().forEach(carInfo -> {
-            WritableCarStatistics car = getCars().get(carInfo.getCarId());
+        for (int carId : carState.get().getCarIds()) {
+            WritableCarStatistics car = getCars().get(carId);
             car.put(RACE_DISTANCE_SIMPLE, 0f);
             car.put(RACE_DISTANCE_COMPLEX, 0f);
-        });
+            raceOrder.put(carId, 0f);
+        }
+        sessionChanged = true;
     }
 
     private void sessionPhaseChanged(SessionInfo info) {
@@ -127,6 +188,9 @@ public class RealtimePositionProcessor
             getCars().values().forEach(carStats -> {
                 if (carStats.get(CAR_LOCATION) == PITLANE) {
                     carStats.put(RACE_DISTANCE_COMPLEX, -1f);
+                    if (raceOrder.indexOf(carStats.get(CAR_ID)) >= 0) {
+                        raceOrder.put(carStats.get(CAR_ID), -1f);
+                    }
                 }
             });
         }
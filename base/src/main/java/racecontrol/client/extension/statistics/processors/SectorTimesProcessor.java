@@ -24,6 +24,7 @@ import static racecontrol.client.extension.statistics.CarProperties.BEST_SECTOR_
 import static racecontrol.client.extension.statistics.CarProperties.BEST_SECTOR_TWO;
 import static racecontrol.client.extension.statistics.CarProperties.CURRENT_SECTOR_ONE;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
@@ -72,6 +73,30 @@ public class SectorTimesProcessor
         super(cars);
     }
 
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeCarUpdateEvent.class, RealtimeUpdateEvent.class,
+                LapCompletedEvent.class, TrackDataEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{
+            BEST_SECTOR_ONE, BEST_SECTOR_THREE, BEST_SECTOR_TWO, CURRENT_SECTOR_ONE_CALC,
+            CURRENT_SECTOR_TWO_CALC
+        };
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{
+            CURRENT_SECTOR_ONE, CURRENT_SECTOR_ONE_CALC, CURRENT_SECTOR_THREE,
+            CURRENT_SECTOR_THREE_CALC, CURRENT_SECTOR_TWO, CURRENT_SECTOR_TWO_CALC,
+            SESSION_BEST_LAP_TIME, SESSION_BEST_SECTOR_ONE, SESSION_BEST_SECTOR_THREE,
+            SESSION_BEST_SECTOR_TWO
+        };
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof RealtimeCarUpdateEvent) {
@@ -148,9 +173,9 @@ public class SectorTimesProcessor
         carStats.put(CURRENT_SECTOR_THREE_CALC, s3Time);
 
         LapInfo lastLap = car.getRealtime().getLastLap();
-        carStats.put(CURRENT_SECTOR_ONE, lastLap.getSplits().get(0));
-        carStats.put(CURRENT_SECTOR_TWO, lastLap.getSplits().get(1));
-        carStats.put(CURRENT_SECTOR_THREE, lastLap.getSplits().get(2));
+        carStats.put(CURRENT_SECTOR_ONE, lastLap.getSplit(0));
+        carStats.put(CURRENT_SECTOR_TWO, lastLap.getSplit(1));
+        carStats.put(CURRENT_SECTOR_THREE, lastLap.getSplit(2));
     }
 
     private boolean sectorOneCrossed(RealtimeInfo info) {
@@ -196,7 +221,7 @@ public class SectorTimesProcessor
             LapInfo lastLap = car.getRealtime().getLastLap();
             // Sector suggestions.
             if (sectorSuggestions.containsKey(car.getCarId())) {
-                int s1Time = lastLap.getSplits().get(0);
+                int s1Time = lastLap.getSplit(0);
                 for (Tuple t : sectorSuggestions.get(car.getCarId())) {
                     if (t.time > s1Time) {
                         LOG.info(String.format("S1 suggestion: %.7f\t%s",
@@ -206,7 +231,7 @@ public class SectorTimesProcessor
                         break;
                     }
                 }
-                int s2Time = lastLap.getSplits().get(1) + s1Time;
+                int s2Time = lastLap.getSplit(1) + s1Time;
                 for (Tuple t : sectorSuggestions.get(car.getCarId())) {
                     if (t.time > s2Time) {
                         LOG.info(String.format("S2 suggestion: %.7f\t%s",
@@ -219,20 +244,20 @@ public class SectorTimesProcessor
                 sectorSuggestions.get(car.getCarId()).clear();
             }
 
-            int s1Diff = carStats.get(CURRENT_SECTOR_ONE_CALC) - lastLap.getSplits().get(0);
-            int s2Diff = carStats.get(CURRENT_SECTOR_TWO_CALC) - lastLap.getSplits().get(1);
+            int s1Diff = carStats.get(CURRENT_SECTOR_ONE_CALC) - lastLap.getSplit(0);
+            int s2Diff = carStats.get(CURRENT_SECTOR_TWO_CALC) - lastLap.getSplit(1);
             if (carStats.get(CURRENT_SECTOR_TWO_CALC) != 0
                     && Math.abs(s2Diff) < 10000
                     && carStats.get(CURRENT_SECTOR_ONE_CALC) != 0
                     && Math.abs(s1Diff) < 10000) {
 
                 LOG.info(String.format("S1: %s\t%s\t%s",
-                        TimeUtils.asSeconds(lastLap.getSplits().get(0)),
+                        TimeUtils.asSeconds(lastLap.getSplit(0)),
                         TimeUtils.asSeconds(carStats.get(CURRENT_SECTOR_ONE_CALC)),
                         TimeUtils.asDelta(s1Diff)
                 ));
                 LOG.info(String.format("S2: %s\t%s\t%s",
-                        TimeUtils.asSeconds(lastLap.getSplits().get(1)),
+                        TimeUtils.asSeconds(lastLap.getSplit(1)),
                         TimeUtils.asSeconds(carStats.get(CURRENT_SECTOR_TWO_CALC)),
                         TimeUtils.asDelta(s2Diff)
                 ));
@@ -18,6 +18,7 @@ import racecontrol.client.events.SessionPhaseChangedEvent;
 import racecontrol.client.extension.laptimes.LapCompletedEvent;
 import static racecontrol.client.extension.statistics.CarProperties.SESSION_FINISHED;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.eventbus.Event;
 
@@ -41,6 +42,22 @@ public class SessionOverProcessor
         client = AccBroadcastingClient.getClient();
     }
 
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{LapCompletedEvent.class, SessionChangedEvent.class,
+                SessionPhaseChangedEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{SESSION_FINISHED};
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof LapCompletedEvent) {
@@ -17,6 +17,7 @@ import static racecontrol.client.extension.statistics.CarProperties.MAX_MAXIMUM_
 import static racecontrol.client.extension.statistics.CarProperties.MAX_SPEED_TRAP_SPEED;
 import static racecontrol.client.extension.statistics.CarProperties.SPEED_TRAP_SPEED;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
@@ -42,6 +43,24 @@ public class SpeedProcessor
         super(cars);
     }
 
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{RealtimeCarUpdateEvent.class, RealtimeUpdateEvent.class,
+                TrackDataEvent.class, SessionChangedEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{MAXIMUM_SPEED, SPEED_TRAP_SPEED};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{
+            CURRENT_SPEED, MAXIMUM_SPEED, MAX_MAXIMUM_SPEED, MAX_SPEED_TRAP_SPEED, SPEED_TRAP_SPEED
+        };
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof RealtimeCarUpdateEvent) {
@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
+import racecontrol.client.AccBroadcastingClient;
 import racecontrol.client.data.BroadcastingEvent;
 import racecontrol.client.data.RealtimeInfo;
 import static racecontrol.client.data.enums.BroadcastingEventType.PENALTYCOMMMSG;
@@ -25,6 +26,7 @@ import static racecontrol.client.extension.statistics.CarProperties.CAR_NUMBER;
 import static racecontrol.client.extension.statistics.CarProperties.DRIVER_STINT_TIME;
 import static racecontrol.client.extension.statistics.CarProperties.DRIVER_STINT_TIME_ACCURATE;
 import racecontrol.client.extension.statistics.StatisticsProcessor;
+import racecontrol.client.extension.statistics.WritableCarStatistics.Key;
 import racecontrol.client.extension.statistics.WritableCarStatistics;
 import racecontrol.eventbus.Event;
 import racecontrol.utility.TimeUtils;
@@ -37,6 +39,10 @@ public class StintTimeProcessor
         extends StatisticsProcessor {
 
     private static final Logger LOG = Logger.getLogger(StintTimeProcessor.class.getName());
+    /**
+     * Reference to the game client.
+     */
+    private final AccBroadcastingClient client;
     /**
      * Maps carId's to the timestamp for when their stint timer starts.
      */
@@ -52,6 +58,23 @@ public class StintTimeProcessor
 
     public StintTimeProcessor(Map<Integer, WritableCarStatistics> cars) {
         super(cars);
+        this.client = AccBroadcastingClient.getClient();
+    }
+
+    @Override
+    public Class<?>[] getEventTypes() {
+        return new Class<?>[]{SessionPhaseChangedEvent.class, RealtimeCarUpdateEvent.class,
+                BroadcastingEventEvent.class};
+    }
+
+    @Override
+    public Key<?>[] getReadProperties() {
+        return new Key<?>[]{CAR_ID, CAR_LOCATION, CAR_NUMBER, DRIVER_STINT_TIME};
+    }
+
+    @Override
+    public Key<?>[] getWrittenProperties() {
+        return new Key<?>[]{DRIVER_STINT_TIME, DRIVER_STINT_TIME_ACCURATE};
     }
 
     @Override
@@ -68,7 +91,7 @@ public class StintTimeProcessor
     private void sessionPhaseChanged(SessionPhaseChangedEvent event) {
         // reset all stint timers, set timestamps and set accurate flag.
         if (event.getSessionInfo().getPhase() == SESSION) {
-            long now = System.currentTimeMillis();
+            long now = client.getPacketTime();
             getCars().values().forEach(carStat -> {
                 stintStartTimestamp.put(carStat.get(CAR_ID), now);
                 carStat.put(DRIVER_STINT_TIME, 0);
@@ -79,7 +102,7 @@ public class StintTimeProcessor
 
     private void realtimeCarUpdate(RealtimeInfo info) {
         WritableCarStatistics carStats = getCars().get(info.getCarId());
-        long now = System.currentTimeMillis();
+        long now = client.getPacketTime();
         if (!stintStartTimestamp.containsKey(info.getCarId())) {
             stintStartTimestamp.put(info.getCarId(), now);
             carStats.put(DRIVER_STINT_TIME_ACCURATE, false);
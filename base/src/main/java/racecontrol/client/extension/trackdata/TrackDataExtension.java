@@ -46,7 +46,7 @@ public class TrackDataExtension
     }
 
     private TrackDataExtension() {
-        EventBus.register(this);
+        EventBus.register(this, TrackInfoEvent.class);
     }
 
     @Override
@@ -15,7 +15,7 @@ import racecontrol.client.AccBroadcastingClient;
 import racecontrol.client.ClientExtension;
 import racecontrol.client.data.RealtimeInfo;
 import racecontrol.client.data.SessionId;
-import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeTickEvent;
 import racecontrol.client.events.SessionChangedEvent;
 import racecontrol.client.extension.googlesheetsapi.GoogleSheetsAPIExtension;
 import racecontrol.eventbus.Event;
@@ -81,7 +81,7 @@ public class VirtualSafetyCarExtension
     }
 
     private VirtualSafetyCarExtension() {
-        EventBus.register(this);
+        EventBus.register(this, RealtimeTickEvent.class, SessionChangedEvent.class);
         CLIENT = AccBroadcastingClient.getClient();
         GOOGLE_SHEETS_EXTENSION = GoogleSheetsAPIExtension.getInstance();
     }
@@ -89,8 +89,11 @@ public class VirtualSafetyCarExtension
     @Override
     public void onEvent(Event e) {
         if (vscOn) {
-            if (e instanceof RealtimeCarUpdateEvent) {
-                onRealtimeCarUpdate(((RealtimeCarUpdateEvent) e).getInfo());
+            if (e instanceof RealtimeTickEvent) {
+                RealtimeTickEvent tick = (RealtimeTickEvent) e;
+                for (int i = 0; i < tick.getCarCount(); i++) {
+                    onRealtimeCarUpdate(tick.getCar(i));
+                }
             } else if (e instanceof SessionChangedEvent) {
                 onSessionChanged((SessionChangedEvent) e);
             }
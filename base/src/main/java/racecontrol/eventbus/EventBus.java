@@ -5,8 +5,11 @@
  */
 package racecontrol.eventbus;
 
-import java.util.LinkedList;
+import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *
@@ -14,27 +17,184 @@ import java.util.List;
  */
 public class EventBus {
 
-    private static final List<EventListener> listeners = new LinkedList<>();
-
-    private final static Object syncObject = new Object();
+    private static final EventDispatcher dispatcher = new EventDispatcher();
+    /**
+     * Mailboxes of the asynchronous listeners.
+     */
+    private static final Map<EventListener, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    /**
+     * Metrics of the listener calls. Null if instrumentation is disabled.
+     */
+    private static volatile EventBusMetrics metrics;
 
+    /**
+     * Registers a listener for all events.
+     *
+     * @param listener the listener.
+     */
     public static void register(EventListener listener) {
-        synchronized (syncObject) {
-            listeners.add(listener);
+        dispatcher.register(listener);
+    }
+
+    /**
+     * Registers a listener for events of the given types and their subtypes.
+     *
+     * @param listener the listener.
+     * @param eventTypes the event types.
+     */
+    public static void register(EventListener listener, Class<?>... eventTypes) {
+        dispatcher.register(listener, eventTypes);
+    }
+
+    /**
+     * Registers a listener that receives events asynchronously. Events are
+     * put into a bounded mailbox and delivered in order on a thread of the
+     * listener's own, so the publisher does not wait for the listener.
+     *
+     * @param listener the listener.
+     * @param policy what to do when the mailbox is full.
+     * @param capacity the maximum amount of queued events.
+     * @param eventTypes the event types. All events if none are given.
+     */
+    public static void registerAsync(EventListener listener,
+            OverflowPolicy policy,
+            int capacity,
+            Class<?>... eventTypes) {
+        Mailbox mailbox = new Mailbox(listener, policy, capacity);
+        Mailbox previous = mailboxes.put(listener, mailbox);
+        if (previous != null) {
+            dispatcher.unregister(previous);
+            previous.close();
         }
+        dispatcher.register(mailbox, eventTypes);
     }
 
     public static void unregister(EventListener listener) {
-        synchronized (syncObject) {
-            listeners.remove(listener);
+        dispatcher.unregister(listener);
+        Mailbox mailbox = mailboxes.remove(listener);
+        if (mailbox != null) {
+            dispatcher.unregister(mailbox);
+            mailbox.close();
         }
     }
 
     public static void publish(Event e) {
-        synchronized (syncObject) {
-            listeners.forEach(listener -> {
-                listener.onEvent(e);
-            });
+        dispatcher.publish(e);
+    }
+
+    /**
+     * Enables or disables recording of listener call metrics. Enabling
+     * starts with empty metrics.
+     *
+     * @param enabled true to enable.
+     * @param budgetNanos time a single listener call may take before it is
+     * flagged as slow.
+     */
+    public static void setInstrumentationEnabled(boolean enabled, long budgetNanos) {
+        metrics = enabled ? new EventBusMetrics(budgetNanos) : null;
+        dispatcher.setMetrics(metrics);
+    }
+
+    /**
+     * Returns the metrics of the listener calls.
+     *
+     * @return the metrics or null if instrumentation is disabled.
+     */
+    public static EventBusMetrics getMetrics() {
+        return metrics;
+    }
+
+    public static int getListenerCount() {
+        return dispatcher.getListenerCount();
+    }
+
+    /**
+     * Returns the state of the mailboxes of all asynchronous listeners.
+     *
+     * @return the mailbox states.
+     */
+    public static List<MailboxState> getMailboxStates() {
+        List<MailboxState> states = new ArrayList<>();
+        for (Mailbox mailbox : mailboxes.values()) {
+            states.add(new MailboxState(
+                    mailbox.getListener().getClass().getSimpleName(),
+                    mailbox.getPolicy(),
+                    mailbox.getCapacity(),
+                    mailbox.getQueueSize(),
+                    mailbox.getDroppedCount()));
+        }
+        return states;
+    }
+
+    /**
+     * Writes a report of the registered listeners, the mailboxes and the
+     * collected metrics.
+     *
+     * @param writer the writer to write to.
+     */
+    public static void writeReport(PrintWriter writer) {
+        writer.printf("Registered listeners: %d%n%n", getListenerCount());
+        writer.printf("%-50s %-12s %10s %10s %10s%n",
+                "Mailbox", "Policy", "Capacity", "Queued", "Dropped");
+        for (MailboxState state : getMailboxStates()) {
+            writer.printf("%-50s %-12s %10d %10d %10d%n",
+                    state.getListenerName(),
+                    state.getPolicy(),
+                    state.getCapacity(),
+                    state.getQueueSize(),
+                    state.getDroppedCount());
+        }
+        writer.println();
+        EventBusMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            writer.println("Instrumentation is disabled.");
+        } else {
+            currentMetrics.writeReport(writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * State of the mailbox of an asynchronous listener.
+     */
+    public static class MailboxState {
+
+        private final String listenerName;
+        private final OverflowPolicy policy;
+        private final int capacity;
+        private final int queueSize;
+        private final long droppedCount;
+
+        private MailboxState(String listenerName,
+                OverflowPolicy policy,
+                int capacity,
+                int queueSize,
+                long droppedCount) {
+            this.listenerName = listenerName;
+            this.policy = policy;
+            this.capacity = capacity;
+            this.queueSize = queueSize;
+            this.droppedCount = droppedCount;
+        }
+
+        public String getListenerName() {
+            return listenerName;
+        }
+
+        public OverflowPolicy getPolicy() {
+            return policy;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public long getDroppedCount() {
+            return droppedCount;
         }
     }
 }
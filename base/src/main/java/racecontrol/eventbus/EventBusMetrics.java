@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.eventbus;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Collects how often and how long the listeners of the event bus are called,
+ * per listener and event type, and how many events of each type are
+ * published. Calls that take longer than the budget are counted and logged.
+ *
+ * @author Leonard
+ */
+public class EventBusMetrics {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(EventBusMetrics.class.getName());
+    /**
+     * Minimum time between two warnings for the same listener and event type.
+     */
+    private static final long WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+    /**
+     * Time over which the event rates are measured.
+     */
+    private static final long RATE_WINDOW = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * Call statistics per listener and event type.
+     */
+    private final Map<EventListener, Map<Class<?>, ListenerStats>> listenerStats
+            = new ConcurrentHashMap<>();
+    /**
+     * Publish statistics per event type.
+     */
+    private final Map<Class<?>, EventTypeStats> eventTypeStats = new ConcurrentHashMap<>();
+    /**
+     * Time a single listener call may take before it is flagged as slow.
+     */
+    private volatile long budgetNanos;
+    /**
+     * Time at which the collection started.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Creates new metrics.
+     *
+     * @param budgetNanos time a single listener call may take before it is
+     * flagged as slow.
+     */
+    public EventBusMetrics(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Records that an event was published.
+     *
+     * @param eventType the type of the event.
+     * @param now the current time in nanoseconds.
+     */
+    void recordPublish(Class<?> eventType, long now) {
+        EventTypeStats stats = eventTypeStats.get(eventType);
+        if (stats == null) {
+            stats = eventTypeStats.computeIfAbsent(eventType,
+                    type -> new EventTypeStats(type, now));
+        }
+        stats.record(now);
+    }
+
+    /**
+     * Records a call to a listener.
+     *
+     * @param listener the listener that was called.
+     * @param eventType the type of the event.
+     * @param nanos the duration of the call.
+     */
+    void recordCall(EventListener listener, Class<?> eventType, long nanos) {
+        Map<Class<?>, ListenerStats> byType = listenerStats.get(listener);
+        if (byType == null) {
+            byType = listenerStats.computeIfAbsent(listener,
+                    l -> new ConcurrentHashMap<>());
+        }
+        ListenerStats stats = byType.get(eventType);
+        if (stats == null) {
+            stats = byType.computeIfAbsent(eventType,
+                    type -> new ListenerStats(describe(listener), type));
+        }
+        stats.latency.record(nanos);
+        if (nanos > budgetNanos) {
+            stats.overBudget.incrementAndGet();
+            long now = System.nanoTime();
+            long lastWarning = stats.lastWarning.get();
+            if ((lastWarning == 0 || now - lastWarning > WARNING_INTERVAL)
+                    && stats.lastWarning.compareAndSet(lastWarning, now)) {
+                LOG.warning(String.format("Listener %s took %.2f ms for %s, budget is %.2f ms.",
+                        stats.listenerName, nanos / 1e6,
+                        eventType.getSimpleName(), budgetNanos / 1e6));
+            }
+        }
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public void setBudgetNanos(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Returns the statistics for all listener and event type combinations,
+     * the listeners that spent the most time first.
+     *
+     * @return the listener statistics.
+     */
+    public List<ListenerStats> getListenerStats() {
+        List<ListenerStats> result = new ArrayList<>();
+        for (Map<Class<?>, ListenerStats> byType : listenerStats.values()) {
+            result.addAll(byType.values());
+        }
+        result.sort(Comparator.comparingLong(
+                (ListenerStats stats) -> stats.latency.getSum()).reversed());
+        return result;
+    }
+
+    /**
+     * Returns the statistics for all event types, the most frequent first.
+     *
+     * @return the event type statistics.
+     */
+    public List<EventTypeStats> getEventTypeStats() {
+        List<EventTypeStats> result = new ArrayList<>(eventTypeStats.values());
+        result.sort(Comparator.comparingLong(EventTypeStats::getCount).reversed());
+        return result;
+    }
+
+    /**
+     * Returns the listeners that exceeded the budget at least once.
+     *
+     * @return the listener statistics of slow listeners.
+     */
+    public List<ListenerStats> getSlowListeners() {
+        List<ListenerStats> result = new ArrayList<>();
+        for (ListenerStats stats : getListenerStats()) {
+            if (stats.getOverBudgetCount() > 0) {
+                result.add(stats);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes a human readable report of the collected metrics.
+     *
+     * @param writer the writer to write to.
+     */
+    public void writeReport(PrintWriter writer) {
+        writer.printf("Collected over %d s, listener budget %.3f ms%n%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos),
+                budgetNanos / 1e6);
+        writer.printf("%-40s %12s %10s %10s%n",
+                "Event", "Published", "Avg/s", "Last/s");
+        for (EventTypeStats stats : getEventTypeStats()) {
+            writer.printf("%-40s %12d %10.1f %10.1f%n",
+                    stats.getEventType().getSimpleName(),
+                    stats.getCount(),
+                    stats.getAverageRate(),
+                    stats.getRate());
+        }
+        writer.println();
+        writer.printf("%-50s %-30s %10s %10s %10s %10s %10s %10s %10s%n",
+                "Listener", "Event", "Calls", "Mean us", "p50 us", "p99 us",
+                "p99.9 us", "Max us", "Over");
+        for (ListenerStats stats : getListenerStats()) {
+            LatencyHistogram latency = stats.getLatency();
+            writer.printf("%-50s %-30s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10d%n",
+                    stats.getListenerName(),
+                    stats.getEventType().getSimpleName(),
+                    latency.getCount(),
+                    latency.getMean() / 1e3,
+                    latency.getPercentile(50) / 1e3,
+                    latency.getPercentile(99) / 1e3,
+                    latency.getPercentile(99.9) / 1e3,
+                    latency.getMax() / 1e3,
+                    stats.getOverBudgetCount());
+        }
+    }
+
+    private static String describe(EventListener listener) {
+        if (listener instanceof Mailbox) {
+            return ((Mailbox) listener).getListener().getClass().getSimpleName()
+                    + " (enqueue)";
+        }
+        String name = listener.getClass().getSimpleName();
+        return name.isEmpty() ? listener.getClass().getName() : name;
+    }
+
+    /**
+     * Call statistics of a listener for one event type.
+     */
+    public static class ListenerStats {
+
+        private final String listenerName;
+        private final Class<?> eventType;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong overBudget = new AtomicLong();
+        private final AtomicLong lastWarning = new AtomicLong();
+
+        private ListenerStats(String listenerName, Class<?> eventType) {
+            this.listenerName = listenerName;
+            this.eventType = eventType;
+        }
+
+        public String getListenerName() {
+            return listenerName;
+        }
+
+        public Class<?> getEventType() {
+            return eventType;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getOverBudgetCount() {
+            return overBudget.get();
+        }
+    }
+
+    /**
+     * Publish statistics of an event type.
+     */
+    public static class EventTypeStats {
+
+        private final Class<?> eventType;
+        private final long firstNanos;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong windowCount = new AtomicLong();
+        private final AtomicLong windowStart;
+        private volatile double rate;
+
+        private EventTypeStats(Class<?> eventType, long now) {
+            this.eventType = eventType;
+            this.firstNanos = now;
+            this.windowStart = new AtomicLong(now);
+        }
+
+        private void record(long now) {
+            count.incrementAndGet();
+            windowCount.incrementAndGet();
+            long start = windowStart.get();
+            if (now - start >= RATE_WINDOW && windowStart.compareAndSet(start, now)) {
+                rate = windowCount.getAndSet(0) * 1e9 / (now - start);
+            }
+        }
+
+        public Class<?> getEventType() {
+            return eventType;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        /**
+         * Returns the events per second measured over the last second.
+         *
+         * @return the events per second.
+         */
+        public double getRate() {
+            if (System.nanoTime() - windowStart.get() > 2 * RATE_WINDOW) {
+                //no events in the last window.
+                return 0;
+            }
+            return rate;
+        }
+
+        /**
+         * Returns the events per second since the first event of this type.
+         *
+         * @return the events per second.
+         */
+        public double getAverageRate() {
+            long elapsed = System.nanoTime() - firstNanos;
+            return elapsed <= 0 ? 0 : count.get() * 1e9 / elapsed;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.eventbus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivers events to the listeners that subscribed to their class. The
+ * listeners for each event class are resolved once and cached, registering
+ * and unregistering replace the subscriptions and the cache as a whole so
+ * that publishing never has to lock.
+ *
+ * @author Leonard
+ */
+public class EventDispatcher {
+
+    /**
+     * Event types a listener receives when it does not specify any.
+     */
+    private static final Class<?>[] ALL_EVENTS = {Event.class};
+    /**
+     * Current subscriptions in registration order. Never modified, only
+     * replaced.
+     */
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    /**
+     * Maps event classes to the listeners that receive them. Replaced when
+     * the subscriptions change.
+     */
+    private volatile Map<Class<?>, EventListener[]> dispatchTable = new ConcurrentHashMap<>();
+    /**
+     * Metrics to record the listener calls to. Null if instrumentation is
+     * disabled.
+     */
+    private volatile EventBusMetrics metrics;
+
+    /**
+     * Registers a listener for events of the given types and their subtypes.
+     * If no types are given the listener receives all events.
+     *
+     * @param listener the listener.
+     * @param eventTypes the event types.
+     */
+    public synchronized void register(EventListener listener, Class<?>... eventTypes) {
+        Subscription[] next = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        next[next.length - 1] = new Subscription(listener,
+                eventTypes.length == 0 ? ALL_EVENTS : eventTypes.clone());
+        update(next);
+    }
+
+    /**
+     * Removes all subscriptions of a listener.
+     *
+     * @param listener the listener.
+     */
+    public synchronized void unregister(EventListener listener) {
+        List<Subscription> next = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener != listener) {
+                next.add(subscription);
+            }
+        }
+        update(next.toArray(new Subscription[0]));
+    }
+
+    /**
+     * Delivers an event to all listeners that subscribed to its type on the
+     * calling thread.
+     *
+     * @param e the event.
+     */
+    public void publish(Event e) {
+        Map<Class<?>, EventListener[]> table = dispatchTable;
+        EventListener[] listeners = table.get(e.getClass());
+        if (listeners == null) {
+            listeners = resolve(subscriptions, e.getClass());
+            table.put(e.getClass(), listeners);
+        }
+        EventBusMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            for (EventListener listener : listeners) {
+                listener.onEvent(e);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        currentMetrics.recordPublish(e.getClass(), start);
+        for (EventListener listener : listeners) {
+            try {
+                listener.onEvent(e);
+            } finally {
+                long end = System.nanoTime();
+                currentMetrics.recordCall(listener, e.getClass(), end - start);
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * Sets the metrics to record the listener calls to.
+     *
+     * @param metrics the metrics or null to disable instrumentation.
+     */
+    public void setMetrics(EventBusMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the amount of registered listeners.
+     *
+     * @return the amount of listeners.
+     */
+    public int getListenerCount() {
+        return subscriptions.length;
+    }
+
+    private void update(Subscription[] next) {
+        //precompute the dispatch table for all event types seen so far.
+        Map<Class<?>, EventListener[]> table = new ConcurrentHashMap<>();
+        for (Class<?> eventType : dispatchTable.keySet()) {
+            table.put(eventType, resolve(next, eventType));
+        }
+        subscriptions = next;
+        dispatchTable = table;
+    }
+
+    private static EventListener[] resolve(Subscription[] subscriptions, Class<?> eventType) {
+        List<EventListener> listeners = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.accepts(eventType)) {
+                listeners.add(subscription.listener);
+            }
+        }
+        return listeners.toArray(new EventListener[0]);
+    }
+
+    private static class Subscription {
+
+        private final EventListener listener;
+        private final Class<?>[] eventTypes;
+
+        Subscription(EventListener listener, Class<?>[] eventTypes) {
+            this.listener = listener;
+            this.eventTypes = eventTypes;
+        }
+
+        boolean accepts(Class<?> eventType) {
+            for (Class<?> type : eventTypes) {
+                if (type.isAssignableFrom(eventType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
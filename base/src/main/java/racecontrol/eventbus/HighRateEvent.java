@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.eventbus;
+
+/**
+ * Marks an event that is published at a high rate and is superseded by the
+ * next event of the same class, like a realtime update. A full mailbox may
+ * drop or replace these events. Every other event is always delivered.
+ *
+ * @author Leonard
+ */
+public interface HighRateEvent {
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.eventbus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded queue of events for an asynchronous listener. The events are
+ * delivered in order on a thread owned by the mailbox. When the mailbox is
+ * full only {@link HighRateEvent}s are dropped or replaced, see
+ * {@link OverflowPolicy}.
+ *
+ * @author Leonard
+ */
+class Mailbox
+        implements EventListener {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(Mailbox.class.getName());
+    /**
+     * The listener to deliver to.
+     */
+    private final EventListener listener;
+    /**
+     * What to do when the mailbox is full.
+     */
+    private final OverflowPolicy policy;
+    /**
+     * Maximum amount of queued events.
+     */
+    private final int capacity;
+    /**
+     * Queued events as a ring. Grows when events that must not be dropped
+     * arrive while the mailbox is full.
+     */
+    private Event[] queue;
+    /**
+     * Index of the oldest queued event.
+     */
+    private int head = 0;
+    /**
+     * Amount of queued events.
+     */
+    private int size = 0;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    /**
+     * Amount of events dropped or replaced because the mailbox was full.
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+    /**
+     * Thread that delivers the events.
+     */
+    private final Thread thread;
+    /**
+     * Flag to indicate that the mailbox should keep delivering.
+     */
+    private volatile boolean running = true;
+
+    Mailbox(EventListener listener, OverflowPolicy policy, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity cannot be less than 1");
+        }
+        this.listener = listener;
+        this.policy = policy;
+        this.capacity = capacity;
+        this.queue = new Event[capacity];
+        thread = new Thread(this::deliver,
+                "Event mailbox " + listener.getClass().getSimpleName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        lock.lock();
+        try {
+            if (policy == OverflowPolicy.BLOCK) {
+                //the listener publishes to itself, waiting would never end.
+                while (size >= capacity && Thread.currentThread() != thread) {
+                    notFull.awaitUninterruptibly();
+                }
+            } else if (size >= capacity && !makeRoom(e)) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+            addLast(e);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes room for a new event in a full mailbox.
+     *
+     * @param e the new event.
+     * @return false if the new event was dropped or has replaced a queued
+     * event, true if it should be added.
+     */
+    private boolean makeRoom(Event e) {
+        boolean highRate = e instanceof HighRateEvent;
+        if (highRate && policy == OverflowPolicy.COALESCE) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (get(i).getClass() == e.getClass()) {
+                    set(i, e);
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (get(i) instanceof HighRateEvent) {
+                remove(i);
+                droppedCount.incrementAndGet();
+                return true;
+            }
+        }
+        return !highRate;
+    }
+
+    private Event get(int i) {
+        return queue[(head + i) % queue.length];
+    }
+
+    private void set(int i, Event e) {
+        queue[(head + i) % queue.length] = e;
+    }
+
+    private void addLast(Event e) {
+        if (size == queue.length) {
+            Event[] grown = new Event[queue.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = get(i);
+            }
+            queue = grown;
+            head = 0;
+        }
+        set(size++, e);
+    }
+
+    private Event pollFirst() {
+        Event e = queue[head];
+        queue[head] = null;
+        head = (head + 1) % queue.length;
+        size--;
+        return e;
+    }
+
+    /**
+     * Removes a queued event. The events before it move up by one so that
+     * the order is kept.
+     */
+    private void remove(int index) {
+        for (int i = index; i > 0; i--) {
+            set(i, get(i - 1));
+        }
+        pollFirst();
+    }
+
+    private void deliver() {
+        while (running) {
+            Event e;
+            lock.lock();
+            try {
+                while (size == 0) {
+                    if (!running) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                e = pollFirst();
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            EventBusMetrics metrics = EventBus.getMetrics();
+            long start = System.nanoTime();
+            try {
+                listener.onEvent(e);
+                if (metrics != null) {
+                    metrics.recordCall(listener, e.getClass(), System.nanoTime() - start);
+                }
+            } catch (RuntimeException ex) {
+                LOG.log(Level.SEVERE, "Error in event listener "
+                        + listener.getClass().getName(), ex);
+            }
+        }
+    }
+
+    /**
+     * Stops delivering events. Queued events are discarded.
+     */
+    void close() {
+        lock.lock();
+        try {
+            running = false;
+            while (size > 0) {
+                pollFirst();
+            }
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    EventListener getListener() {
+        return listener;
+    }
+
+    OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int getQueueSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.eventbus;
+
+/**
+ * What an asynchronous listener's mailbox does when it is full. Only events
+ * that implement {@link HighRateEvent} are ever dropped or replaced. Other
+ * events are always queued, even if the mailbox holds more than its capacity
+ * for a moment.
+ *
+ * @author Leonard
+ */
+public enum OverflowPolicy {
+    /**
+     * The publisher waits until the listener has caught up.
+     */
+    BLOCK,
+    /**
+     * The oldest queued high rate event is dropped. If there is none a new
+     * high rate event is dropped.
+     */
+    DROP_OLDEST,
+    /**
+     * A new high rate event replaces the latest queued event of the same
+     * class in its place in the queue. Otherwise it behaves like
+     * {@link #DROP_OLDEST}.
+     */
+    COALESCE;
+}
@@ -14,6 +14,7 @@ import java.util.Map;
 import static processing.core.PConstants.CENTER;
 import static processing.core.PConstants.LEFT;
 import racecontrol.Main;
+import racecontrol.gui.app.debug.EventBusDebugController;
 import racecontrol.gui.app.logging.LoggingPanel;
 import racecontrol.gui.app.racecontrol.RaceControlController;
 import racecontrol.client.AccBroadcastingClient;
@@ -24,6 +25,7 @@ import racecontrol.client.events.RegistrationResultEvent;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
 import racecontrol.gui.RaceControlApplet;
 import racecontrol.gui.app.livetiming.LiveTimingController;
 import racecontrol.gui.lpui.LPComponent;
@@ -87,7 +89,9 @@ public class AppController
         }
         initialised = true;
 
-        EventBus.register(this);
+        EventBus.registerAsync(this, OverflowPolicy.COALESCE, 16,
+                RealtimeUpdateEvent.class, ConnectionOpenedEvent.class,
+                RegistrationResultEvent.class, ConnectionClosedEvent.class);
 
         appPanel = new AppPanel();
         settingsPage = new SettingsPage();
@@ -105,6 +109,7 @@ public class AppController
         pageControllers.add(liveTimingController);
         pageControllers.add(RaceControlController.getInstance());
         pageControllers.add(new LoggingPanel());
+        pageControllers.add(new EventBusDebugController());
         //pageControllers.add(new TestPanel());
         //pageControllers.add(new DangerDetectionController());
         //pageControllers.add(new TrackDataController());
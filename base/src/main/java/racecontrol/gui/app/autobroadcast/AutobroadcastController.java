@@ -12,6 +12,7 @@ import racecontrol.client.extension.autobroadcast.Entry;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
 import racecontrol.gui.RaceControlApplet;
 import racecontrol.gui.lpui.LPContainer;
 
@@ -37,7 +38,7 @@ public class AutobroadcastController
     private final RatingTableModel tableModel;
 
     public AutobroadcastController() {
-        EventBus.register(this);
+        EventBus.registerAsync(this, OverflowPolicy.COALESCE, 16, RealtimeUpdateEvent.class);
         client = AccBroadcastingClient.getClient();
         extension = AutobroadcastExtension.getInstance();
 
@@ -57,7 +57,8 @@ public class DangerDetectionController
     private int focusedCarId = 0;
 
     public DangerDetectionController() {
-        EventBus.register(this);
+        EventBus.register(this, TrackDataEvent.class, RealtimeCarUpdateEvent.class,
+                RealtimeUpdateEvent.class);
         extension = DangerDetectionExtension.getInstance();
         menuItem = new Menu.MenuItem("Danger det.",
                 ((CustomPApplet) getApplet()).loadResourceAsPImage("/images/RC_Menu_Debugging.png"));
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.app.debug;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.AccBroadcastingClient;
+import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.eventbus.Event;
+import racecontrol.eventbus.EventBus;
+import racecontrol.eventbus.EventBus.MailboxState;
+import racecontrol.eventbus.EventBusMetrics;
+import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
+import racecontrol.gui.CustomPApplet;
+import racecontrol.gui.RaceControlApplet;
+import racecontrol.gui.app.Menu;
+import racecontrol.gui.app.PageController;
+import racecontrol.gui.lpui.LPContainer;
+import racecontrol.persistance.PersistantConfig;
+import static racecontrol.persistance.PersistantConfigKeys.EVENTBUS_INSTRUMENTATION_ENABLED;
+import static racecontrol.persistance.PersistantConfigKeys.EVENTBUS_LISTENER_BUDGET_MICROS;
+
+/**
+ * Debug page for the event bus. Shows how long each listener takes per event
+ * type, how many events are published and how far the packet processing of
+ * the client has fallen behind.
+ *
+ * @author Leonard
+ */
+public class EventBusDebugController
+        implements PageController, EventListener {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(EventBusDebugController.class.getName());
+    /**
+     * Minimum time between two refreshes of the tables.
+     */
+    private static final long REFRESH_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * The panel for this controller.
+     */
+    private final EventBusDebugPanel panel;
+    /**
+     * Table model for the listener table.
+     */
+    private final ListenerMetricsTableModel listenerTableModel = new ListenerMetricsTableModel();
+    /**
+     * Table model for the event table.
+     */
+    private final EventRateTableModel eventTableModel = new EventRateTableModel();
+    /**
+     * The menu item for this page.
+     */
+    private final Menu.MenuItem menuItem;
+    /**
+     * Time of the last refresh.
+     */
+    private long lastRefresh;
+
+    public EventBusDebugController() {
+        panel = new EventBusDebugPanel();
+        panel.listenerTable.setTableModel(listenerTableModel);
+        panel.eventTable.setTableModel(eventTableModel);
+        panel.enableCheckBox.setChangeAction(this::setInstrumentationEnabled);
+        panel.resetButton.setAction(this::reset);
+        panel.dumpButton.setAction(this::dumpToFile);
+
+        menuItem = new Menu.MenuItem("Events",
+                ((CustomPApplet) panel.getApplet()).loadResourceAsPImage("/images/RC_Menu_Debugging.png"));
+
+        boolean enabled = PersistantConfig.get(EVENTBUS_INSTRUMENTATION_ENABLED);
+        panel.enableCheckBox.setSelected(enabled);
+        setInstrumentationEnabled(enabled);
+
+        EventBus.registerAsync(this, OverflowPolicy.COALESCE, 4, RealtimeUpdateEvent.class);
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        if (e instanceof RealtimeUpdateEvent) {
+            long now = System.nanoTime();
+            if (now - lastRefresh >= REFRESH_INTERVAL) {
+                lastRefresh = now;
+                RaceControlApplet.runLater(this::refresh);
+            }
+        }
+    }
+
+    private void setInstrumentationEnabled(boolean enabled) {
+        PersistantConfig.put(EVENTBUS_INSTRUMENTATION_ENABLED, enabled);
+        EventBus.setInstrumentationEnabled(enabled, getBudgetNanos());
+        refresh();
+    }
+
+    private void reset() {
+        if (EventBus.getMetrics() != null) {
+            EventBus.setInstrumentationEnabled(true, getBudgetNanos());
+        }
+        refresh();
+    }
+
+    private long getBudgetNanos() {
+        return TimeUnit.MICROSECONDS.toNanos(
+                PersistantConfig.get(EVENTBUS_LISTENER_BUDGET_MICROS));
+    }
+
+    private void refresh() {
+        long dropped = 0;
+        for (MailboxState state : EventBus.getMailboxStates()) {
+            dropped += state.getDroppedCount();
+        }
+        EventBusMetrics metrics = EventBus.getMetrics();
+        AccBroadcastingClient client = AccBroadcastingClient.getClient();
+        String summary = "Listeners: " + EventBus.getListenerCount()
+                + "    Dropped by mailboxes: " + dropped
+                + "    Packet queue: " + client.getPacketQueueSize()
+                + " (max " + client.getPacketQueueHighWaterMark() + ")"
+                + "    Dropped packets: " + client.getDroppedPacketCount();
+        if (metrics != null) {
+            summary += String.format("    Budget: %.2f ms    Slow listeners: %d",
+                    metrics.getBudgetNanos() / 1e6,
+                    metrics.getSlowListeners().size());
+            listenerTableModel.setEntries(metrics.getListenerStats());
+            eventTableModel.setEntries(metrics.getEventTypeStats());
+        } else {
+            listenerTableModel.setEntries(new ArrayList<>());
+            eventTableModel.setEntries(new ArrayList<>());
+        }
+        panel.summaryLabel.setText(summary);
+        panel.invalidate();
+    }
+
+    private void dumpToFile() {
+        File directory = new File(System.getProperty("user.dir"), "diagnostics");
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOG.warning("Cannot create directory " + directory);
+            return;
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        File file = new File(directory,
+                dateFormat.format(new Date()) + "_eventbus.txt");
+        try ( PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            EventBus.writeReport(writer);
+            LOG.info("Event bus metrics written to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Error writing event bus metrics to " + file.getAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public LPContainer getPanel() {
+        return panel;
+    }
+
+    @Override
+    public Menu.MenuItem getMenuItem() {
+        return menuItem;
+    }
+}
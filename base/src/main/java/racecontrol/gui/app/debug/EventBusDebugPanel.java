@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.app.debug;
+
+import processing.core.PApplet;
+import static racecontrol.gui.LookAndFeel.COLOR_DARK_GRAY;
+import static racecontrol.gui.LookAndFeel.LINE_HEIGHT;
+import racecontrol.gui.lpui.LPButton;
+import racecontrol.gui.lpui.LPCheckBox;
+import racecontrol.gui.lpui.LPContainer;
+import racecontrol.gui.lpui.LPLabel;
+import racecontrol.gui.lpui.table.LPTable;
+
+/**
+ * Panel that shows the event bus metrics.
+ *
+ * @author Leonard
+ */
+public class EventBusDebugPanel
+        extends LPContainer {
+
+    protected final LPCheckBox enableCheckBox = new LPCheckBox();
+    private final LPLabel enableLabel = new LPLabel("Record listener metrics");
+    protected final LPButton resetButton = new LPButton("Reset");
+    protected final LPButton dumpButton = new LPButton("Dump to file");
+    protected final LPLabel summaryLabel = new LPLabel("");
+    protected final LPTable listenerTable = new LPTable();
+    protected final LPTable eventTable = new LPTable();
+
+    public EventBusDebugPanel() {
+        setName("Event bus");
+
+        enableCheckBox.setPosition(20, 10);
+        addComponent(enableCheckBox);
+        enableLabel.setPosition(50, 0);
+        addComponent(enableLabel);
+
+        resetButton.setSize(100, LINE_HEIGHT);
+        resetButton.setPosition(300, 0);
+        addComponent(resetButton);
+        dumpButton.setSize(150, LINE_HEIGHT);
+        dumpButton.setPosition(420, 0);
+        addComponent(dumpButton);
+
+        summaryLabel.setPosition(20, LINE_HEIGHT);
+        addComponent(summaryLabel);
+        addComponent(listenerTable);
+        addComponent(eventTable);
+    }
+
+    @Override
+    public void draw(PApplet applet) {
+        applet.fill(COLOR_DARK_GRAY);
+        applet.rect(0, 0, getWidth(), getHeight());
+    }
+
+    @Override
+    public void onResize(float w, float h) {
+        summaryLabel.setSize(w - 40, LINE_HEIGHT);
+        float eventTableHeight = LINE_HEIGHT * 8;
+        listenerTable.setPosition(10, LINE_HEIGHT * 2);
+        listenerTable.setSize(w - 20, h - LINE_HEIGHT * 2 - eventTableHeight - 20);
+        eventTable.setPosition(10, h - eventTableHeight - 10);
+        eventTable.setSize(w - 20, eventTableHeight);
+    }
+}
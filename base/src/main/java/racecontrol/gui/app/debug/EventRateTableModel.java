@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.app.debug;
+
+import java.util.ArrayList;
+import java.util.List;
+import static processing.core.PConstants.LEFT;
+import static processing.core.PConstants.RIGHT;
+import racecontrol.eventbus.EventBusMetrics.EventTypeStats;
+import racecontrol.gui.lpui.table.LPTableColumn;
+import racecontrol.gui.lpui.table.LPTableModel;
+
+/**
+ * Table model for the amount of published events per event type.
+ *
+ * @author Leonard
+ */
+public class EventRateTableModel
+        extends LPTableModel {
+
+    private List<EventTypeStats> entries = new ArrayList<>();
+
+    @Override
+    public int getRowCount() {
+        return entries.size();
+    }
+
+    @Override
+    public LPTableColumn[] getColumns() {
+        return new LPTableColumn[]{
+            new LPTableColumn("Event")
+            .setTextAlign(LEFT)
+            .setGrowthRate(3),
+            new LPTableColumn("Published")
+            .setTextAlign(RIGHT),
+            new LPTableColumn("Events/s")
+            .setTextAlign(RIGHT),
+            new LPTableColumn("Avg events/s")
+            .setTextAlign(RIGHT)
+        };
+    }
+
+    @Override
+    public Object getValueAt(int column, int row) {
+        EventTypeStats stats = entries.get(row);
+        switch (column) {
+            case 0:
+                return stats.getEventType().getSimpleName();
+            case 1:
+                return stats.getCount();
+            case 2:
+                return String.format("%.1f", stats.getRate());
+            case 3:
+                return String.format("%.1f", stats.getAverageRate());
+        }
+        return "-";
+    }
+
+    public void setEntries(List<EventTypeStats> entries) {
+        this.entries = entries;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.app.debug;
+
+import java.util.ArrayList;
+import java.util.List;
+import static processing.core.PConstants.LEFT;
+import static processing.core.PConstants.RIGHT;
+import racecontrol.eventbus.EventBusMetrics.ListenerStats;
+import racecontrol.eventbus.LatencyHistogram;
+import racecontrol.gui.lpui.table.LPTableColumn;
+import racecontrol.gui.lpui.table.LPTableModel;
+
+/**
+ * Table model for the call statistics of the event bus listeners.
+ *
+ * @author Leonard
+ */
+public class ListenerMetricsTableModel
+        extends LPTableModel {
+
+    private List<ListenerStats> entries = new ArrayList<>();
+
+    @Override
+    public int getRowCount() {
+        return entries.size();
+    }
+
+    @Override
+    public LPTableColumn[] getColumns() {
+        return new LPTableColumn[]{
+            new LPTableColumn("Listener")
+            .setTextAlign(LEFT)
+            .setGrowthRate(3),
+            new LPTableColumn("Event")
+            .setTextAlign(LEFT)
+            .setGrowthRate(2),
+            new LPTableColumn("Calls")
+            .setTextAlign(RIGHT),
+            new LPTableColumn("Mean us")
+            .setTextAlign(RIGHT),
+            new LPTableColumn("p50 us")
+            .setTextAlign(RIGHT),
+            new LPTableColumn("p99 us")
+            .setTextAlign(RIGHT),
+            new LPTableColumn("Max us")
+            .setTextAlign(RIGHT),
+            new LPTableColumn("Over budget")
+            .setTextAlign(RIGHT)
+        };
+    }
+
+    @Override
+    public Object getValueAt(int column, int row) {
+        ListenerStats stats = entries.get(row);
+        LatencyHistogram latency = stats.getLatency();
+        switch (column) {
+            case 0:
+                return stats.getListenerName();
+            case 1:
+                return stats.getEventType().getSimpleName();
+            case 2:
+                return latency.getCount();
+            case 3:
+                return micros(latency.getMean());
+            case 4:
+                return micros(latency.getPercentile(50));
+            case 5:
+                return micros(latency.getPercentile(99));
+            case 6:
+                return micros(latency.getMax());
+            case 7:
+                return stats.getOverBudgetCount();
+        }
+        return "-";
+    }
+
+    public void setEntries(List<ListenerStats> entries) {
+        this.entries = entries;
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1e3);
+    }
+}
@@ -48,7 +48,7 @@ public class LiveTimingController
     private final MenuItem menuItem;
 
     public LiveTimingController() {
-        EventBus.register(this);
+        EventBus.register(this, SessionChangedEvent.class);
         menuItem = new MenuItem("Live Timing",
                 getApplet().loadResourceAsPImage("/images/RC_Menu_LiveTiming.png"));
         appController = AppController.getInstance();
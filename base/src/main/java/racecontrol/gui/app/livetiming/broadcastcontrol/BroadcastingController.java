@@ -15,6 +15,7 @@ import racecontrol.client.events.TrackInfoEvent;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
 import racecontrol.gui.lpui.LPContainer;
 
 /**
@@ -35,7 +36,8 @@ public class BroadcastingController
     private final BroadcastingPanel panel;
 
     public BroadcastingController() {
-        EventBus.register(this);
+        EventBus.registerAsync(this, OverflowPolicy.COALESCE, 16,
+                TrackInfoEvent.class, RealtimeUpdateEvent.class);
         client = AccBroadcastingClient.getClient();
         this.panel = new BroadcastingPanel(this);
     }
@@ -12,6 +12,7 @@ import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
 import racecontrol.client.AccBroadcastingClient;
 import racecontrol.gui.lpui.LPContainer;
 import java.util.logging.Logger;
@@ -78,7 +79,7 @@ public class LiveTimingTableController
     private int lastTableClickRow = -1;
 
     public LiveTimingTableController() {
-        EventBus.register(this);
+        EventBus.registerAsync(this, OverflowPolicy.COALESCE, 16, RealtimeUpdateEvent.class);
         statisticsExtension = StatisticsExtension.getInstance();
         client = AccBroadcastingClient.getClient();
         table.setCellClickAction((column, row) -> onCellClickAction(column, row));
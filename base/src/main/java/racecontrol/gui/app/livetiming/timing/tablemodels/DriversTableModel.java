@@ -5,7 +5,6 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels;
 
-import static java.util.stream.Collectors.toList;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static processing.core.PConstants.LEFT;
@@ -73,11 +72,9 @@ public class DriversTableModel
 
     @Override
     public void sort() {
-        entries = entries.stream()
-                .sorted((c1, c2)
-                        -> c1.get(REALTIME_POSITION).compareTo(c2.get(REALTIME_POSITION))
-                )
-                .collect(toList());
+        entries.sort((c1, c2)
+                -> c1.get(REALTIME_POSITION).compareTo(c2.get(REALTIME_POSITION))
+        );
     }
 
     @Override
@@ -102,7 +99,7 @@ public class DriversTableModel
             String name = info.getFirstName() + " " + info.getLastName();
             applet.fill(COLOR_WHITE);
             applet.textAlign(LEFT, CENTER);
-            if (i == stats.get(DRIVER_INDEX)) {
+            if (i == stats.getInt(DRIVER_INDEX)) {
                 applet.textFont(LookAndFeel.fontMedium());
                 if (stats.get(DRIVER_LIST).getDrivers().size() > 1) {
                     name = "<" + name + ">";
@@ -151,8 +148,8 @@ public class DriversTableModel
 
     private void stintTimeRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        String text = TimeUtils.asDurationShort(stats.get(DRIVER_STINT_TIME));
-        text = text + (stats.get(DRIVER_STINT_TIME_ACCURATE) ? "" : "*");
+        String text = TimeUtils.asDurationShort(stats.getInt(DRIVER_STINT_TIME));
+        text = text + (stats.getBoolean(DRIVER_STINT_TIME_ACCURATE) ? "" : "*");
         applet.fill(COLOR_WHITE);
         applet.textAlign(LEFT, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -8,14 +8,17 @@ package racecontrol.gui.app.livetiming.timing.tablemodels;
 import racecontrol.gui.LookAndFeel;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableModel;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static processing.core.PConstants.RIGHT;
 import static racecontrol.client.data.enums.SessionType.RACE;
 import static racecontrol.client.extension.statistics.CarProperties.BEST_LAP_TIME;
+import static racecontrol.client.extension.statistics.CarProperties.CAR_ID;
 import static racecontrol.client.extension.statistics.CarProperties.GAP_TO_LEADER;
 import static racecontrol.client.extension.statistics.CarProperties.GAP_TO_POSITION_AHEAD;
 import static racecontrol.client.extension.statistics.CarProperties.IS_FOCUSED_ON;
@@ -43,7 +46,7 @@ public abstract class LiveTimingTableModel
     /**
      * Ordered list of car entries
      */
-    protected List<CarStatistics> entries = new LinkedList<>();
+    protected List<CarStatistics> entries = new ArrayList<>();
 
     protected void gapRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
@@ -52,8 +55,8 @@ public abstract class LiveTimingTableModel
         String text = "--";
 
         if (stats.get(SESSION_ID).getType() == RACE) {
-            int gap = stats.get(GAP_TO_POSITION_AHEAD);
-            if (stats.get(REALTIME_POSITION) > 1) {
+            int gap = stats.getInt(GAP_TO_POSITION_AHEAD);
+            if (stats.getInt(REALTIME_POSITION) > 1) {
                 text = TimeUtils.asGap(gap);
             }
 
@@ -61,9 +64,9 @@ public abstract class LiveTimingTableModel
                 applet.fill(COLOR_ORANGE);
             }
         } else {
-            if (stats.get(BEST_LAP_TIME) != Integer.MAX_VALUE
-                    && stats.get(LAP_TIME_GAP_TO_SESSION_BEST) != 0) {
-                text = TimeUtils.asDelta(stats.get(LAP_TIME_GAP_TO_SESSION_BEST));
+            if (stats.getInt(BEST_LAP_TIME) != Integer.MAX_VALUE
+                    && stats.getInt(LAP_TIME_GAP_TO_SESSION_BEST) != 0) {
+                text = TimeUtils.asDelta(stats.getInt(LAP_TIME_GAP_TO_SESSION_BEST));
             }
         }
 
@@ -76,11 +79,11 @@ public abstract class LiveTimingTableModel
         CarStatistics stats = (CarStatistics) context.object;
         String text = "--";
         if (stats.get(SESSION_ID).getType() == RACE) {
-            if (stats.get(LAPS_BEHIND_SPLIT)) {
-                text = String.format("+%d Laps", stats.get(LAPS_BEHIND_LEADER));
+            if (stats.getBoolean(LAPS_BEHIND_SPLIT)) {
+                text = String.format("+%d Laps", stats.getInt(LAPS_BEHIND_LEADER));
             } else {
-                if (stats.get(GAP_TO_LEADER) != 0) {
-                    text = TimeUtils.asGap(stats.get(GAP_TO_LEADER));
+                if (stats.getInt(GAP_TO_LEADER) != 0) {
+                    text = TimeUtils.asGap(stats.getInt(GAP_TO_LEADER));
                 }
             }
         }
@@ -99,7 +102,7 @@ public abstract class LiveTimingTableModel
     public int getSelectedRow() {
         for (int i = 0; i < entries.size(); i++) {
             var stats = entries.get(i);
-            if (stats.get(IS_FOCUSED_ON)) {
+            if (stats.getBoolean(IS_FOCUSED_ON)) {
                 return i;
             }
         }
@@ -115,8 +118,30 @@ public abstract class LiveTimingTableModel
 
     public abstract String getName();
 
+    /**
+     * Sets the entries. They are arranged in the order of the previous entries
+     * so that sorting only has to move the cars that changed places.
+     *
+     * @param entries the new entries.
+     */
     public void setEntries(List<CarStatistics> entries) {
-        this.entries = entries;
+        Map<Integer, CarStatistics> byCarId = new HashMap<>();
+        for (CarStatistics stats : entries) {
+            byCarId.put(stats.get(CAR_ID), stats);
+        }
+        List<CarStatistics> ordered = new ArrayList<>(entries.size());
+        for (CarStatistics previous : this.entries) {
+            CarStatistics stats = byCarId.remove(previous.get(CAR_ID));
+            if (stats != null) {
+                ordered.add(stats);
+            }
+        }
+        for (CarStatistics stats : entries) {
+            if (byCarId.containsKey(stats.get(CAR_ID))) {
+                ordered.add(stats);
+            }
+        }
+        this.entries = ordered;
     }
 
     public CarStatistics getEntry(int row) {
@@ -5,7 +5,6 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels;
 
-import static java.util.stream.Collectors.toList;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static racecontrol.client.data.enums.CarLocation.TRACK;
@@ -87,11 +86,9 @@ public class QualifyingBestTableModel
 
     @Override
     public void sort() {
-        entries = entries.stream()
-                .sorted((c1, c2)
-                        -> c1.get(POSITION).compareTo(c2.get(POSITION))
-                )
-                .collect(toList());
+        entries.sort((c1, c2)
+                -> c1.get(POSITION).compareTo(c2.get(POSITION))
+        );
     }
 
     protected void lapTimeRenderer(PApplet applet, LPTable.RenderContext context) {
@@ -101,10 +98,10 @@ public class QualifyingBestTableModel
         applet.fill(COLOR_WHITE);
         if (stats.get(CAR_LOCATION) == TRACK) {
             applet.fill(LookAndFeel.COLOR_WHITE);
-            if (stats.get(CURRENT_LAP_INVALID)) {
+            if (stats.getBoolean(CURRENT_LAP_INVALID)) {
                 applet.fill(LookAndFeel.COLOR_RED);
             }
-            text = TimeUtils.asLapTime(stats.get(CURRENT_LAP_TIME));
+            text = TimeUtils.asLapTime(stats.getInt(CURRENT_LAP_TIME));
         }
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -118,10 +115,10 @@ public class QualifyingBestTableModel
         if (stats.get(CAR_LOCATION) == TRACK) {
 
             applet.fill(LookAndFeel.COLOR_RACE);
-            if (stats.get(DELTA) > 0) {
+            if (stats.getInt(DELTA) > 0) {
                 applet.fill(LookAndFeel.COLOR_RED);
             }
-            text = TimeUtils.asDelta(stats.get(DELTA));
+            text = TimeUtils.asDelta(stats.getInt(DELTA));
         }
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -130,8 +127,8 @@ public class QualifyingBestTableModel
 
     protected void bestSectorOneRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int splitTime = stats.get(BEST_SECTOR_ONE);
-        int sessionBestSplitTime = stats.get(SESSION_BEST_SECTOR_ONE);
+        int splitTime = stats.getInt(BEST_SECTOR_ONE);
+        int sessionBestSplitTime = stats.getInt(SESSION_BEST_SECTOR_ONE);
 
         String text = "--";
         applet.fill(COLOR_WHITE);
@@ -148,8 +145,8 @@ public class QualifyingBestTableModel
 
     protected void bestSectorTwoRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int splitTime = stats.get(BEST_SECTOR_TWO);
-        int sessionBestSplitTime = stats.get(SESSION_BEST_SECTOR_TWO);
+        int splitTime = stats.getInt(BEST_SECTOR_TWO);
+        int sessionBestSplitTime = stats.getInt(SESSION_BEST_SECTOR_TWO);
 
         String text = "--";
         applet.fill(COLOR_WHITE);
@@ -166,8 +163,8 @@ public class QualifyingBestTableModel
 
     protected void bestSectorThreeRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int splitTime = stats.get(BEST_SECTOR_THREE);
-        int sessionBestSplitTime = stats.get(SESSION_BEST_SECTOR_THREE);
+        int splitTime = stats.getInt(BEST_SECTOR_THREE);
+        int sessionBestSplitTime = stats.getInt(SESSION_BEST_SECTOR_THREE);
 
         String text = "--";
         applet.fill(COLOR_WHITE);
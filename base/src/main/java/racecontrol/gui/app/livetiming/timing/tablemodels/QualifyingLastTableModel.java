@@ -88,11 +88,11 @@ public class QualifyingLastTableModel
 
     protected void lastLapRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int lastLapTime = stats.get(LAST_LAP_TIME);
-        int bestLapTime = stats.get(BEST_LAP_TIME);
-        int sessionbestLapTime = stats.get(SESSION_BEST_LAP_TIME);
+        int lastLapTime = stats.getInt(LAST_LAP_TIME);
+        int bestLapTime = stats.getInt(BEST_LAP_TIME);
+        int sessionbestLapTime = stats.getInt(SESSION_BEST_LAP_TIME);
 
-        if (stats.get(LAST_LAP_INVALID)) {
+        if (stats.getBoolean(LAST_LAP_INVALID)) {
             applet.fill(COLOR_RED);
         } else if (lastLapTime == sessionbestLapTime) {
             applet.fill(COLOR_PURPLE);
@@ -113,15 +113,15 @@ public class QualifyingLastTableModel
 
     protected void lastSectorOneRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int splitTime = stats.get(LAST_SECTOR_ONE);
-        int bestSplitTime = stats.get(BEST_SECTOR_ONE);
-        int sessionBestSplitTime = stats.get(SESSION_BEST_SECTOR_ONE);
+        int splitTime = stats.getInt(LAST_SECTOR_ONE);
+        int bestSplitTime = stats.getInt(BEST_SECTOR_ONE);
+        int sessionBestSplitTime = stats.getInt(SESSION_BEST_SECTOR_ONE);
 
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime > 0 && splitTime < 999999) {
             text = TimeUtils.asSeconds(splitTime);
-            if (!stats.get(LAST_LAP_INVALID)) {
+            if (!stats.getBoolean(LAST_LAP_INVALID)) {
                 if (splitTime <= bestSplitTime) {
                     applet.fill(COLOR_RACE);
                 }
@@ -138,15 +138,15 @@ public class QualifyingLastTableModel
 
     protected void lastSectorTwoRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int splitTime = stats.get(LAST_SECTOR_TWO);
-        int bestSplitTime = stats.get(BEST_SECTOR_TWO);
-        int sessionBestSplitTime = stats.get(SESSION_BEST_SECTOR_TWO);
+        int splitTime = stats.getInt(LAST_SECTOR_TWO);
+        int bestSplitTime = stats.getInt(BEST_SECTOR_TWO);
+        int sessionBestSplitTime = stats.getInt(SESSION_BEST_SECTOR_TWO);
 
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime > 0 && splitTime < 999999) {
             text = TimeUtils.asSeconds(splitTime);
-            if (!stats.get(LAST_LAP_INVALID)) {
+            if (!stats.getBoolean(LAST_LAP_INVALID)) {
                 if (splitTime <= bestSplitTime) {
                     applet.fill(COLOR_RACE);
                 }
@@ -162,15 +162,15 @@ public class QualifyingLastTableModel
 
     protected void lastSectorThreeRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int splitTime = stats.get(LAST_SECTOR_THREE);
-        int bestSplitTime = stats.get(BEST_SECTOR_THREE);
-        int sessionBestSplitTime = stats.get(SESSION_BEST_SECTOR_THREE);
+        int splitTime = stats.getInt(LAST_SECTOR_THREE);
+        int bestSplitTime = stats.getInt(BEST_SECTOR_THREE);
+        int sessionBestSplitTime = stats.getInt(SESSION_BEST_SECTOR_THREE);
 
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime > 0 && splitTime < 999999) {
             text = TimeUtils.asSeconds(splitTime);
-            if (!stats.get(LAST_LAP_INVALID)) {
+            if (!stats.getBoolean(LAST_LAP_INVALID)) {
                 if (splitTime <= bestSplitTime) {
                     applet.fill(COLOR_RACE);
                 }
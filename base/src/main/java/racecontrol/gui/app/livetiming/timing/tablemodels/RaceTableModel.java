@@ -5,7 +5,6 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels;
 
-import static java.util.stream.Collectors.toList;
 import racecontrol.gui.lpui.table.LPTableColumn;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
@@ -77,11 +76,9 @@ public class RaceTableModel
 
     @Override
     public void sort() {
-        entries = entries.stream()
-                .sorted((c1, c2)
-                        -> c1.get(REALTIME_POSITION).compareTo(c2.get(REALTIME_POSITION))
-                )
-                .collect(toList());
+        entries.sort((c1, c2)
+                -> c1.get(REALTIME_POSITION).compareTo(c2.get(REALTIME_POSITION))
+        );
     }
 
     private void lapTimeRenderer(PApplet applet, RenderContext context) {
@@ -91,10 +88,10 @@ public class RaceTableModel
         applet.fill(COLOR_WHITE);
         if (stats.get(CAR_LOCATION) == TRACK) {
             applet.fill(LookAndFeel.COLOR_WHITE);
-            if (stats.get(CURRENT_LAP_INVALID)) {
+            if (stats.getBoolean(CURRENT_LAP_INVALID)) {
                 applet.fill(LookAndFeel.COLOR_RED);
             }
-            text = TimeUtils.asLapTime(stats.get(CURRENT_LAP_TIME));
+            text = TimeUtils.asLapTime(stats.getInt(CURRENT_LAP_TIME));
         }
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -103,9 +100,9 @@ public class RaceTableModel
 
     private void lastLapRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int lastLapTime = stats.get(LAST_LAP_TIME);
-        int bestLapTime = stats.get(BEST_LAP_TIME);
-        int sessionbestLapTime = stats.get(SESSION_BEST_LAP_TIME);
+        int lastLapTime = stats.getInt(LAST_LAP_TIME);
+        int bestLapTime = stats.getInt(BEST_LAP_TIME);
+        int sessionbestLapTime = stats.getInt(SESSION_BEST_LAP_TIME);
 
         if (lastLapTime == sessionbestLapTime) {
             applet.fill(COLOR_PURPLE);
@@ -5,16 +5,18 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels;
 
-import static java.util.stream.Collectors.toList;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static processing.core.PConstants.RIGHT;
+import static racecontrol.client.extension.statistics.CarProperties.CAR_ID;
 import static racecontrol.client.extension.statistics.CarProperties.GAP_TO_CAR_AHEAD;
 import static racecontrol.client.extension.statistics.CarProperties.GAP_TO_CAR_BEHIND;
 import static racecontrol.client.extension.statistics.CarProperties.LAP_COUNT;
 import static racecontrol.client.extension.statistics.CarProperties.RACE_DISTANCE_COMPLEX;
 import static racecontrol.client.extension.statistics.CarProperties.SPLINE_POS;
 import racecontrol.client.extension.statistics.CarStatistics;
+import racecontrol.client.extension.statistics.GapMatrix;
+import racecontrol.client.extension.statistics.StatisticsExtension;
 import racecontrol.gui.LookAndFeel;
 import static racecontrol.gui.LookAndFeel.COLOR_ORANGE;
 import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
@@ -83,15 +85,13 @@ public class RelativeTableModel
             selectedCar = entries.get(getSelectedRow());
         }
         final CarStatistics pivot = selectedCar;
-        entries = entries.stream()
-                .sorted((c1, c2) -> {
-                    float c1dif = pivot.get(SPLINE_POS) - c1.get(SPLINE_POS);
-                    c1dif -= (Math.abs(c1dif) > 0.5) ? Math.signum(c1dif) : 0;
-                    float c2dif = pivot.get(SPLINE_POS) - c2.get(SPLINE_POS);
-                    c2dif -= (Math.abs(c2dif) > 0.5) ? Math.signum(c2dif) : 0;
-                    return Float.compare(c1dif, c2dif);
-                })
-                .collect(toList());
+        entries.sort((c1, c2) -> {
+            float c1dif = pivot.get(SPLINE_POS) - c1.get(SPLINE_POS);
+            c1dif -= (Math.abs(c1dif) > 0.5) ? Math.signum(c1dif) : 0;
+            float c2dif = pivot.get(SPLINE_POS) - c2.get(SPLINE_POS);
+            c2dif -= (Math.abs(c2dif) > 0.5) ? Math.signum(c2dif) : 0;
+            return Float.compare(c1dif, c2dif);
+        });
     }
 
     private void custonNameRenderer(PApplet applet,
@@ -100,7 +100,7 @@ public class RelativeTableModel
         boolean isLapping = false;
         if (selectedCar != null) {
             CarStatistics stats = (CarStatistics) context.object;
-            float distance = stats.get(RACE_DISTANCE_COMPLEX)
+            float distance = stats.getFloat(RACE_DISTANCE_COMPLEX)
                     - selectedCar.get(RACE_DISTANCE_COMPLEX);
             isLapped = distance < -0.5;
             isLapping = distance > 0.5;
@@ -114,10 +114,10 @@ public class RelativeTableModel
         int gap = 0;
         String text = "--";
         if (context.rowIndex < getSelectedRow()) {
-            gap = stats.get(GAP_TO_CAR_BEHIND);
+            gap = stats.getInt(GAP_TO_CAR_BEHIND);
             text = TimeUtils.asGap(gap);
         } else if (context.rowIndex > getSelectedRow()) {
-            gap = stats.get(GAP_TO_CAR_AHEAD);
+            gap = stats.getInt(GAP_TO_CAR_AHEAD);
             text = TimeUtils.asGap(-gap);
         }
 
@@ -134,19 +134,20 @@ public class RelativeTableModel
     private void totalGapRenderer(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
 
+        GapMatrix gaps = StatisticsExtension.getInstance().getGapMatrix();
         String text = "--";
-        if (context.rowIndex < getSelectedRow()) {
-            int gap = 0;
-            for (int i = getSelectedRow() - 1; i >= context.rowIndex; i--) {
-                gap += getEntry(i).get(GAP_TO_CAR_BEHIND);
+        if (selectedCar != null) {
+            int carId = stats.get(CAR_ID);
+            int selectedCarId = selectedCar.get(CAR_ID);
+            float gap = Float.NaN;
+            if (context.rowIndex < getSelectedRow()) {
+                gap = gaps.getGap(selectedCarId, carId);
+            } else if (context.rowIndex > getSelectedRow()) {
+                gap = -gaps.getGap(carId, selectedCarId);
             }
-            text = TimeUtils.asGap(gap);
-        } else if (context.rowIndex > getSelectedRow()) {
-            int gap = 0;
-            for (int i = getSelectedRow() + 1; i <= context.rowIndex; i++) {
-                gap += getEntry(i).get(GAP_TO_CAR_AHEAD);
+            if (!Float.isNaN(gap)) {
+                text = TimeUtils.asGap((int) gap);
             }
-            text = TimeUtils.asGap(-gap);
         }
 
         applet.fill(COLOR_WHITE);
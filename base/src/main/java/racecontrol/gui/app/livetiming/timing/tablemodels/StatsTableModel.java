@@ -5,7 +5,6 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels;
 
-import static java.util.stream.Collectors.toList;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static processing.core.PConstants.LEFT;
@@ -87,16 +86,14 @@ public class StatsTableModel
 
     @Override
     public void sort() {
-        entries = entries.stream()
-                .sorted((c1, c2)
-                        -> c1.get(REALTIME_POSITION).compareTo(c2.get(REALTIME_POSITION))
-                )
-                .collect(toList());
+        entries.sort((c1, c2)
+                -> c1.get(REALTIME_POSITION).compareTo(c2.get(REALTIME_POSITION))
+        );
     }
 
     private void placesLostGainedRenderer(PApplet applet, RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int placesGained = stats.get(PLACES_GAINED);
+        int placesGained = stats.getInt(PLACES_GAINED);
         int size = 10 * (int) Math.signum(placesGained);
         float x = context.width / 2f - 15;
         float y = context.height / 2f + size / 2f;
@@ -119,7 +116,7 @@ public class StatsTableModel
         applet.noStroke();
 
         String text = String.valueOf(Math.abs(placesGained))
-                + (stats.get(RACE_START_POSITION_ACCURATE) ? "" : "*");
+                + (stats.getBoolean(RACE_START_POSITION_ACCURATE) ? "" : "*");
         if (placesGained == 0) {
             text = "--";
         }
@@ -130,9 +127,9 @@ public class StatsTableModel
 
     private void startingPositionRenderer(PApplet applet, RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int startPos = stats.get(RACE_START_POSITION);
+        int startPos = stats.getInt(RACE_START_POSITION);
         String text = String.valueOf(startPos)
-                + (stats.get(RACE_START_POSITION_ACCURATE) ? "" : "*");
+                + (stats.getBoolean(RACE_START_POSITION_ACCURATE) ? "" : "*");
         if (startPos == 0) {
             text = "--";
         }
@@ -144,8 +141,8 @@ public class StatsTableModel
 
     private void pitCountRenderer(PApplet applet, RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        String text = String.valueOf(stats.get(PITLANE_COUNT))
-                + (stats.get(PITLANE_COUNT_ACCURATE) ? "" : "*");
+        String text = String.valueOf(stats.getInt(PITLANE_COUNT))
+                + (stats.getBoolean(PITLANE_COUNT_ACCURATE) ? "" : "*");
         applet.fill(COLOR_WHITE);
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -154,8 +151,8 @@ public class StatsTableModel
 
     private void pitTimeRenderer(PApplet applet, RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        if (stats.get(PITLANE_TIME) > 0) {
-            String text = TimeUtils.asDurationShort(stats.get(PITLANE_TIME));
+        if (stats.getInt(PITLANE_TIME) > 0) {
+            String text = TimeUtils.asDurationShort(stats.getInt(PITLANE_TIME));
             applet.fill(COLOR_WHITE);
             applet.textAlign(CENTER, CENTER);
             applet.textFont(LookAndFeel.fontRegular());
@@ -165,8 +162,8 @@ public class StatsTableModel
 
     private void pitTimeStationaryRenderer(PApplet applet, RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        if (stats.get(PITLANE_TIME) > 0) {
-            String text = TimeUtils.asDurationShort(stats.get(PITLANE_TIME_STATIONARY));
+        if (stats.getInt(PITLANE_TIME) > 0) {
+            String text = TimeUtils.asDurationShort(stats.getInt(PITLANE_TIME_STATIONARY));
             applet.fill(COLOR_WHITE);
             applet.textAlign(CENTER, CENTER);
             applet.textFont(LookAndFeel.fontRegular());
@@ -178,10 +175,10 @@ public class StatsTableModel
         CarStatistics stats = (CarStatistics) context.object;
 
         String text = "--";
-        if (stats.get(SPEED_TRAP_SPEED) > 0) {
-            text = String.format("%d kmh", stats.get(SPEED_TRAP_SPEED));
+        if (stats.getInt(SPEED_TRAP_SPEED) > 0) {
+            text = String.format("%d kmh", stats.getInt(SPEED_TRAP_SPEED));
         }
-        if (stats.get(SPEED_TRAP_SPEED).equals(stats.get(MAX_SPEED_TRAP_SPEED))) {
+        if (stats.get(SPEED_TRAP_SPEED).equals(stats.getInt(MAX_SPEED_TRAP_SPEED))) {
             applet.fill(COLOR_PURPLE);
         } else {
             applet.fill(COLOR_WHITE);
@@ -193,8 +190,8 @@ public class StatsTableModel
 
     private void stintTimeRenderer(PApplet applet, RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        String text = TimeUtils.asDurationShort(stats.get(DRIVER_STINT_TIME));
-        text = text + (stats.get(DRIVER_STINT_TIME_ACCURATE) ? "" : "*");
+        String text = TimeUtils.asDurationShort(stats.getInt(DRIVER_STINT_TIME));
+        text = text + (stats.getBoolean(DRIVER_STINT_TIME_ACCURATE) ? "" : "*");
         applet.fill(COLOR_WHITE);
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
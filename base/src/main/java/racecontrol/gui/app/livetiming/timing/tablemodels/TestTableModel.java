@@ -5,7 +5,6 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels;
 
-import static java.util.stream.Collectors.toList;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static racecontrol.client.extension.statistics.CarProperties.CURRENT_SECTOR_THREE_CALC;
@@ -71,17 +70,15 @@ public class TestTableModel
 
     @Override
     public void sort() {
-        entries = entries.stream()
-                .sorted((c1, c2)
-                        -> c1.get(REALTIME_POSITION).compareTo(c2.get(REALTIME_POSITION))
-                )
-                .collect(toList());
+        entries.sort((c1, c2)
+                -> c1.get(REALTIME_POSITION).compareTo(c2.get(REALTIME_POSITION))
+        );
     }
 
     private void r1(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
 
-        String text = String.format("%.5f", stats.get(SPLINE_POS));
+        String text = String.format("%.5f", stats.getFloat(SPLINE_POS));
         applet.fill(COLOR_WHITE);
         applet.textAlign(CENTER, CENTER);
         applet.text(text, context.width / 2f, context.height / 2f);
@@ -90,7 +87,7 @@ public class TestTableModel
     private void r2(PApplet applet, LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
 
-        String text = String.format("%.5f", stats.get(RACE_DISTANCE_COMPLEX));
+        String text = String.format("%.5f", stats.getFloat(RACE_DISTANCE_COMPLEX));
         applet.fill(COLOR_WHITE);
         applet.textAlign(CENTER, CENTER);
         applet.text(text, context.width / 2f, context.height / 2f);
@@ -35,8 +35,8 @@ public class BestLaptime
     public static void bestLapRenderer(PApplet applet,
             LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int bestLapTime = stats.get(BEST_LAP_TIME);
-        int sessionbestLapTime = stats.get(SESSION_BEST_LAP_TIME);
+        int bestLapTime = stats.getInt(BEST_LAP_TIME);
+        int sessionbestLapTime = stats.getInt(SESSION_BEST_LAP_TIME);
         if (bestLapTime == sessionbestLapTime) {
             applet.fill(COLOR_PURPLE);
         } else {
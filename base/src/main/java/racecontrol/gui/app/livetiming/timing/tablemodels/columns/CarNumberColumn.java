@@ -108,7 +108,7 @@ public class CarNumberColumn
         applet.fill(frontColor);
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontMedium());
-        applet.text(String.valueOf(stats.get(CAR_NUMBER)),
+        applet.text(String.valueOf(stats.getInt(CAR_NUMBER)),
                 context.width / 2f, context.height / 2f);
     }
 
@@ -44,10 +44,10 @@ public class CurrentLaptime
         applet.fill(COLOR_WHITE);
         if (stats.get(CAR_LOCATION) == TRACK) {
             applet.fill(LookAndFeel.COLOR_WHITE);
-            if (stats.get(CURRENT_LAP_INVALID)) {
+            if (stats.getBoolean(CURRENT_LAP_INVALID)) {
                 applet.fill(LookAndFeel.COLOR_RED);
             }
-            text = TimeUtils.asLapTime(stats.get(CURRENT_LAP_TIME));
+            text = TimeUtils.asLapTime(stats.getInt(CURRENT_LAP_TIME));
         }
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -39,11 +39,11 @@ public class LastLaptime
     public static void lastLapRenderer(PApplet applet,
             LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int lastLapTime = stats.get(LAST_LAP_TIME);
-        int bestLapTime = stats.get(BEST_LAP_TIME);
-        int sessionbestLapTime = stats.get(SESSION_BEST_LAP_TIME);
+        int lastLapTime = stats.getInt(LAST_LAP_TIME);
+        int bestLapTime = stats.getInt(BEST_LAP_TIME);
+        int sessionbestLapTime = stats.getInt(SESSION_BEST_LAP_TIME);
 
-        if (stats.get(LAST_LAP_INVALID)) {
+        if (stats.getBoolean(LAST_LAP_INVALID)) {
             applet.fill(COLOR_RED);
         } else if (lastLapTime == sessionbestLapTime) {
             applet.fill(COLOR_PURPLE);
@@ -30,7 +30,7 @@ public class OvertakeIndicator
     public static void overtakeRenderer(PApplet applet,
             LPTable.RenderContext context) {
         CarStatistics stats = (CarStatistics) context.object;
-        int overtake = stats.get(OVERTAKE_INDICATOR);
+        int overtake = stats.getInt(OVERTAKE_INDICATOR);
         if (overtake != 0) {
             int size = 10 * (int) Math.signum(overtake);
             float x = context.width / 2f;
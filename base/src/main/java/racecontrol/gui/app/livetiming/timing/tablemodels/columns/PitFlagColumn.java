@@ -41,7 +41,7 @@ public class PitFlagColumn
             return;
         }
         CarStatistics stats = (CarStatistics) context.object;
-        if (stats.get(SESSION_FINISHED)) {
+        if (stats.getBoolean(SESSION_FINISHED)) {
             applet.fill(COLOR_WHITE);
             applet.rect(1, 1, context.width - 2, context.height - 2);
             float w = (context.width - 2) / 2;
@@ -50,7 +50,7 @@ public class PitFlagColumn
             for (int i = 0; i < 6; i++) {
                 applet.rect(1 + w * (i % 2), 1 + h * i, w, h);
             }
-        } else if (stats.get(IS_IN_PITS)) {
+        } else if (stats.getBoolean(IS_IN_PITS)) {
             applet.noStroke();
             applet.fill(COLOR_WHITE);
             applet.rect(1, 1, context.width - 2, context.height - 2);
@@ -60,7 +60,7 @@ public class PitFlagColumn
             applet.text("P", context.width / 2f, context.height / 2f);
             applet.textFont(LookAndFeel.fontMedium());
             applet.textSize(LookAndFeel.TEXT_SIZE);
-        } else if (stats.get(IS_YELLOW_FLAG)) {
+        } else if (stats.getBoolean(IS_YELLOW_FLAG)) {
             applet.fill(COLOR_YELLOW);
             applet.rect(1, 1, context.width - 2, context.height - 2);
         }
@@ -10,6 +10,7 @@ import static processing.core.PConstants.CENTER;
 import static racecontrol.client.extension.statistics.CarProperties.IS_FOCUSED_ON;
 import static racecontrol.client.extension.statistics.CarProperties.IS_SESSION_BEST;
 import static racecontrol.client.extension.statistics.CarProperties.REALTIME_POSITION;
+import static racecontrol.client.extension.statistics.CarProperties.REALTIME_UPDATE_AGE;
 import racecontrol.client.extension.statistics.CarStatistics;
 import racecontrol.gui.LookAndFeel;
 import static racecontrol.gui.LookAndFeel.LINE_HEIGHT;
@@ -23,6 +24,11 @@ import racecontrol.gui.lpui.table.LPTableColumn;
 public class PositionColumn
         extends LPTableColumn {
 
+    /**
+     * Amount of missed realtime updates after which a car is shown as stale.
+     */
+    private static final int STALE_UPDATE_AGE = 2;
+
     public PositionColumn() {
         super("Pos");
         setMinWidth((int) (LINE_HEIGHT * 1.2f));
@@ -40,10 +46,13 @@ public class PositionColumn
         applet.noStroke();
         int bgColor = LookAndFeel.COLOR_RED;
         int fgColor = LookAndFeel.COLOR_WHITE;
-        if (stats.get(IS_SESSION_BEST)) {
+        if (stats.getInt(REALTIME_UPDATE_AGE) >= STALE_UPDATE_AGE) {
+            bgColor = LookAndFeel.COLOR_GRAY;
+            fgColor = LookAndFeel.COLOR_LIGHT_GRAY;
+        } else if (stats.getBoolean(IS_SESSION_BEST)) {
             bgColor = LookAndFeel.COLOR_PURPLE;
             fgColor = LookAndFeel.COLOR_WHITE;
-        } else if (stats.get(IS_FOCUSED_ON)) {
+        } else if (stats.getBoolean(IS_FOCUSED_ON)) {
             bgColor = LookAndFeel.COLOR_WHITE;
             fgColor = LookAndFeel.COLOR_BLACK;
         }
@@ -52,7 +61,7 @@ public class PositionColumn
         applet.fill(fgColor);
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontMedium());
-        applet.text(String.valueOf(stats.get(REALTIME_POSITION)),
+        applet.text(String.valueOf(stats.getInt(REALTIME_POSITION)),
                 context.width / 2f, context.height / 2f);
     }
 
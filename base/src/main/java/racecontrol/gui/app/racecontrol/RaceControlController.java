@@ -85,7 +85,9 @@ public class RaceControlController
     }
 
     private void initialise() {
-        EventBus.register(this);
+        EventBus.register(this, ReplayStartRequiresSearchEvent.class, ReplayStartKnownEvent.class,
+                SessionChangedEvent.class, ContactEvent.class, VSCStartEvent.class,
+                VSCEndEvent.class, VSCViolationEvent.class);
         client = AccBroadcastingClient.getClient();
         panel = new RaceControlPanel();
         tableModel = new RaceEventTableModel();
@@ -49,7 +49,7 @@ public class ConfigurationController
     private PanelWindowApplet googleSignInWindow = null;
 
     public ConfigurationController() {
-        EventBus.register(this);
+        EventBus.register(this, GoogleSheetsConnectedEvent.class, GoogleSheetsDisconnetedEvent.class);
         panel = new ConfigurationPanel();
         panel.connectButton.setAction(this::connectButton);
         sheetsAPI = GoogleSheetsAPIExtension.getInstance();
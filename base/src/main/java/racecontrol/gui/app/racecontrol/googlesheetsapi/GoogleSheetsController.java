@@ -36,7 +36,7 @@ public class GoogleSheetsController
     private final ControlController controlController;
 
     public GoogleSheetsController() {
-        EventBus.register(this);
+        EventBus.register(this, GoogleSheetsConnectedEvent.class, GoogleSheetsDisconnetedEvent.class);
         appController = AppController.getInstance();
         configController = new ConfigurationController();
         controlController = new ControlController();
@@ -39,7 +39,7 @@ public class SignInWithGooglePanel
     private boolean connected = false;
 
     public SignInWithGooglePanel() {
-        EventBus.register(this);
+        EventBus.register(this, GoogleSheetsConnectedEvent.class, GoogleSheetsDisconnetedEvent.class);
 
         logo = ((CustomPApplet) getApplet()).loadResourceAsPImage("/images/ACC-RaceControl-Logo_dark.png");
 
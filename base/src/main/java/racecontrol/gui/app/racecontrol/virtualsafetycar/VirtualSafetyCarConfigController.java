@@ -13,6 +13,7 @@ import racecontrol.client.events.AfterPacketReceivedEvent;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
 import racecontrol.gui.RaceControlApplet;
 import racecontrol.gui.app.statuspanel.StatusPanelManager;
 
@@ -45,7 +46,8 @@ public class VirtualSafetyCarConfigController
     private final VSCStatusPanel statusPanel;
 
     public VirtualSafetyCarConfigController() {
-        EventBus.register(this);
+        EventBus.registerAsync(this, OverflowPolicy.COALESCE, 64,
+                VSCStartEvent.class, VSCEndEvent.class, AfterPacketReceivedEvent.class);
         statusPanelManager = StatusPanelManager.getInstance();
         appController = AppController.getInstance();
         vscController = VirtualSafetyCarExtension.getInstance();
@@ -11,7 +11,6 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.InetAddress;
-import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.Map;
 import java.util.logging.Level;
@@ -54,7 +53,7 @@ public class ConnectionController
     private final AccBroadcastingClient client;
 
     public ConnectionController() {
-        EventBus.register(this);
+        EventBus.register(this, ConnectionOpenedEvent.class, ConnectionClosedEvent.class);
         client = AccBroadcastingClient.getClient();
 
         panel.connectButton.setAction(this::connectButtonPressed);
@@ -105,7 +104,7 @@ public class ConnectionController
                     InetAddress.getByName("127.0.0.1"),
                     connectionData.port);
 
-        } catch (SocketException | UnknownHostException e) {
+        } catch (IOException e) {
             LOG.log(Level.SEVERE, "Error starting the connection to the game.", e);
         }
         // set ui elements to reflect values that were used
@@ -143,7 +142,7 @@ public class ConnectionController
                     hostAddress,
                     hostPort);
 
-        } catch (SocketException e) {
+        } catch (IOException e) {
             LOG.log(Level.SEVERE, "Error starting the connection to the game.", e);
         }
         client.sendRegisterRequest();
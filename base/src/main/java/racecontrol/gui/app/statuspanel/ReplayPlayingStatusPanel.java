@@ -13,6 +13,7 @@ import racecontrol.client.events.AfterPacketReceivedEvent;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
 import racecontrol.gui.LookAndFeel;
 import static racecontrol.gui.LookAndFeel.COLOR_BLUE;
 import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
@@ -31,7 +32,7 @@ public class ReplayPlayingStatusPanel
     private final AccBroadcastingClient client;
 
     public ReplayPlayingStatusPanel() {
-        EventBus.register(this);
+        EventBus.registerAsync(this, OverflowPolicy.COALESCE, 16, AfterPacketReceivedEvent.class);
         client = AccBroadcastingClient.getClient();
     }
 
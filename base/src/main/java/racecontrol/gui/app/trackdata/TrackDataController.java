@@ -13,13 +13,14 @@ import processing.core.PVector;
 import racecontrol.client.data.RealtimeInfo;
 import static racecontrol.client.data.enums.CarLocation.TRACK;
 import static racecontrol.client.data.enums.LapType.REGULAR;
-import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeTickEvent;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
 import racecontrol.client.extension.trackdata.TrackDataExtension;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.eventbus.OverflowPolicy;
 import racecontrol.gui.RaceControlApplet;
 import static racecontrol.gui.RaceControlApplet.getApplet;
 import racecontrol.gui.app.Menu;
@@ -58,7 +59,8 @@ public class TrackDataController
     private final Menu.MenuItem menuItem;
 
     public TrackDataController() {
-        EventBus.register(this);
+        EventBus.registerAsync(this, OverflowPolicy.DROP_OLDEST, 64,
+                TrackDataEvent.class, RealtimeTickEvent.class);
         menuItem = new Menu.MenuItem("Track data",
                 getApplet().loadResourceAsPImage("/images/RC_Menu_Debugging.png"));
 
@@ -101,11 +103,14 @@ public class TrackDataController
                 mapPanel.trackData = ((TrackDataEvent) e).getTrackData();
                 dataPanel.speedTrapLine = ((TrackDataEvent) e).getTrackData().getSpeedTrapLine();
             });
-        } else if (e instanceof RealtimeCarUpdateEvent) {
+        } else if (e instanceof RealtimeTickEvent) {
+            RealtimeTickEvent tick = (RealtimeTickEvent) e;
             RaceControlApplet.runLater(() -> {
-                updateVMap(((RealtimeCarUpdateEvent) e).getInfo());
-                updateDirMap(((RealtimeCarUpdateEvent) e).getInfo());
-                dataPanel.drawCarState(((RealtimeCarUpdateEvent) e).getInfo());
+                for (int i = 0; i < tick.getCarCount(); i++) {
+                    updateVMap(tick.getCar(i));
+                    updateDirMap(tick.getCar(i));
+                    dataPanel.drawCarState(tick.getCar(i));
+                }
                 dataPanel.invalidate();
                 //mapPanel.invalidate();
             });
@@ -26,10 +26,24 @@ public interface PersistantConfigKeys {
     public Key<String> CONNECTION_PASSWORD = new Key<>(String.class, "asd", "connectionPassword");
     public Key<String> CONNECTION_COMMAND_PW = new Key<>(String.class, "", "commandPassword");
     public Key<Boolean> USE_AUTO_CONNECT_SETTINGS = new Key<>(Boolean.class, true, "useAutoConnectionSettings");
+    public Key<Integer> CONNECTION_RECEIVE_BUFFER_SIZE = new Key<>(Integer.class, 1024 * 1024, "connectionReceiveBufferSize");
+    public Key<Boolean> RECORD_PACKETS = new Key<>(Boolean.class, false, "recordPackets");
+    public Key<Integer> EVENT_LOG_MEMORY_CAP = new Key<>(Integer.class, 0, "eventLogMemoryCap");
 
     public Key<Boolean> BROADCASTING_CONTROLS_COLLAPSED = new Key<>(Boolean.class, false, "broadcastingControlsCollapsed");
     public Key<Boolean> MENU_COLLAPSED = new Key<>(Boolean.class, false, "menuCollapsed");
 
+    /**
+     * Event bus debugging.
+     */
+    public Key<Boolean> EVENTBUS_INSTRUMENTATION_ENABLED = new Key<>(Boolean.class, false, "eventBusInstrumentationEnabled");
+    public Key<Integer> EVENTBUS_LISTENER_BUDGET_MICROS = new Key<>(Integer.class, 2000, "eventBusListenerBudgetMicros");
+
+    /**
+     * Car history.
+     */
+    public Key<Integer> CAR_HISTORY_DURATION = new Key<>(Integer.class, 10000, "carHistoryDuration");
+
     /**
      * Contact config panel
      */
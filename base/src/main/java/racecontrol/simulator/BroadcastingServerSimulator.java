@@ -0,0 +1,504 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.AccBroadcastingProtocol.OutboundMessageTypes;
+import racecontrol.client.data.enums.BroadcastingEventType;
+
+/**
+ * Simulates the server side of the ACC broadcasting interface on a local
+ * UDP port. Answers registration, entry list and track data requests and
+ * streams realtime updates for a field of synthetic cars.
+ *
+ * @author Leonard
+ */
+public class BroadcastingServerSimulator {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(BroadcastingServerSimulator.class.getName());
+    /**
+     * Connection id handed out to clients.
+     */
+    private static final int CONNECTION_ID = 1;
+    /**
+     * Amount of ticks the send times are remembered for.
+     */
+    private static final int TICK_HISTORY = 8192;
+    /**
+     * Amount of latency samples that are kept.
+     */
+    private static final int LATENCY_SAMPLES = 1 << 16;
+    /**
+     * Maximum amount of sessions that can be tracked for latency.
+     */
+    private static final int MAX_SESSIONS = 1024;
+    /**
+     * Port to listen on.
+     */
+    private final int port;
+    /**
+     * Update interval in ms. 0 to use the interval the client requests.
+     */
+    private final int forcedInterval;
+    /**
+     * The track.
+     */
+    private final SimulatedTrack track;
+    /**
+     * The simulated cars.
+     */
+    private final List<SimulatedCar> cars = new ArrayList<>();
+    /**
+     * Cars sorted by race distance.
+     */
+    private final SimulatedCar[] standings;
+    /**
+     * Session state.
+     */
+    private final SimulatedSession session = new SimulatedSession();
+    /**
+     * Commands to run on the simulation thread before the next tick.
+     */
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    /**
+     * Buffer for outgoing messages.
+     */
+    private final ByteBuffer out = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Buffer for incoming requests.
+     */
+    private final ByteBuffer in = ByteBuffer.allocate(2048).order(ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Camera sets sent with the track data.
+     */
+    private final Map<String, List<String>> cameraSets = new LinkedHashMap<>();
+    /**
+     * Hud pages sent with the track data.
+     */
+    private final List<String> hudPages = Arrays.asList("Blank", "Basic HUD",
+            "Help", "TimeTable", "Broadcasting", "TrackMap");
+    /**
+     * Send time of each tick in ns, indexed by tick.
+     */
+    private final AtomicLongArray tickSendTimes = new AtomicLongArray(TICK_HISTORY);
+    /**
+     * First tick of each session, indexed by session index.
+     */
+    private final long[] sessionStartTicks = new long[MAX_SESSIONS];
+    /**
+     * Measured latencies in ns.
+     */
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_SAMPLES);
+    /**
+     * Amount of latency samples measured.
+     */
+    private final AtomicLong latencyCount = new AtomicLong();
+    /**
+     * Amount of datagrams sent.
+     */
+    private final AtomicLong packetsSent = new AtomicLong();
+    /**
+     * Amount of datagrams the OS refused to send.
+     */
+    private final AtomicLong sendFailures = new AtomicLong();
+    /**
+     * Channel the simulator listens on.
+     */
+    private DatagramChannel channel;
+    /**
+     * Address of the registered client. Null if no client is registered.
+     */
+    private SocketAddress client;
+    /**
+     * Update interval in ms.
+     */
+    private volatile int interval;
+    /**
+     * Amount of ticks simulated.
+     */
+    private long tick = 0;
+    /**
+     * Thread running the simulation.
+     */
+    private Thread thread;
+    /**
+     * Flag to indicate that the simulator should be running.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * Creates a new simulator.
+     *
+     * @param port The port to listen on.
+     * @param carCount Amount of cars to simulate.
+     * @param forcedInterval Update interval in ms. 0 to use the interval the
+     * client requests.
+     * @param trackName The track to drive on.
+     */
+    public BroadcastingServerSimulator(int port, int carCount, int forcedInterval, String trackName) {
+        this.port = port;
+        this.forcedInterval = forcedInterval;
+        this.track = new SimulatedTrack(trackName);
+        Random random = new Random(carCount);
+        for (int i = 0; i < carCount; i++) {
+            cars.add(new SimulatedCar(i, 0.99f * (1f - (float) i / carCount),
+                    0.97f + random.nextFloat() * 0.03f));
+        }
+        standings = cars.toArray(new SimulatedCar[0]);
+        cameraSets.put("set1", Arrays.asList("CameraTV1", "CameraTV2"));
+        cameraSets.put("set2", Arrays.asList("CameraTV3", "CameraTV4"));
+        cameraSets.put("Drivable", Arrays.asList("Chase", "FarChase", "Cockpit", "Bonnet"));
+        cameraSets.put("Helicam", Arrays.asList("Helicam"));
+        cameraSets.put("pitlane", Arrays.asList("Pitlane"));
+    }
+
+    /**
+     * Starts listening and simulating.
+     *
+     * @throws IOException if the port cannot be bound.
+     */
+    public void start() throws IOException {
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        channel.configureBlocking(false);
+        running = true;
+        thread = new Thread(this::run, "ACC simulator thread");
+        thread.start();
+        LOG.info("Simulating " + cars.size() + " cars at " + track.getTrackName()
+                + " on port " + port);
+    }
+
+    /**
+     * Stops the simulation.
+     */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                LOG.log(Level.WARNING, "Interrupted while stopping the simulator.", e);
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error closing the simulator channel.", e);
+        }
+    }
+
+    /**
+     * Lets a car crash and stand still for a while.
+     *
+     * @param carId the car.
+     */
+    public void injectAccident(int carId) {
+        commands.add(() -> {
+            SimulatedCar car = getCar(carId);
+            if (car != null) {
+                car.crash();
+                send(() -> SimulatorProtocol.writeBroadcastingEvent(out,
+                        BroadcastingEventType.ACCIDENT, "Accident",
+                        (int) session.sessionTime, carId));
+            }
+        });
+    }
+
+    /**
+     * Sends a car into the pits for a pitstop.
+     *
+     * @param carId the car.
+     */
+    public void injectPitStop(int carId) {
+        commands.add(() -> {
+            SimulatedCar car = getCar(carId);
+            if (car != null) {
+                car.pit();
+            }
+        });
+    }
+
+    /**
+     * Stops sending updates for a car as if it had left the server.
+     *
+     * @param carId the car.
+     */
+    public void injectDisconnect(int carId) {
+        commands.add(() -> {
+            SimulatedCar car = getCar(carId);
+            if (car != null) {
+                car.connected = false;
+            }
+        });
+    }
+
+    /**
+     * Lets a disconnected car join the server again.
+     *
+     * @param carId the car.
+     */
+    public void injectReconnect(int carId) {
+        commands.add(() -> {
+            SimulatedCar car = getCar(carId);
+            if (car != null && !car.connected) {
+                car.connected = true;
+                try {
+                    sendEntryList();
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Error sending the entry list.", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves on to the next session.
+     */
+    public void injectSessionChange() {
+        commands.add(() -> {
+            session.next();
+            if (session.sessionIndex < MAX_SESSIONS) {
+                sessionStartTicks[session.sessionIndex] = tick;
+            }
+            for (int i = 0; i < cars.size(); i++) {
+                SimulatedCar car = cars.get(i);
+                car.laps = 0;
+                car.splinePosition = 0.99f * (1f - (float) i / cars.size());
+                car.currentLapTime = 0;
+                car.lastLapTime = Integer.MAX_VALUE;
+                car.bestLapTime = Integer.MAX_VALUE;
+            }
+        });
+    }
+
+    /**
+     * Records that the client has processed the realtime update of a tick.
+     * Has to be called with the session index and time of the received
+     * update.
+     *
+     * @param sessionIndex The session index of the update.
+     * @param sessionTime The session time of the update.
+     * @param receiveNanos The time the update was processed in ns.
+     */
+    public void onTickReceived(int sessionIndex, int sessionTime, long receiveNanos) {
+        int currentInterval = interval;
+        if (currentInterval <= 0 || sessionIndex < 0 || sessionIndex >= MAX_SESSIONS) {
+            return;
+        }
+        long receivedTick = sessionStartTicks[sessionIndex] + sessionTime / currentInterval;
+        if (receivedTick <= 0 || tick - receivedTick >= TICK_HISTORY) {
+            return;
+        }
+        long sendTime = tickSendTimes.get((int) (receivedTick % TICK_HISTORY));
+        if (sendTime == 0) {
+            return;
+        }
+        long index = latencyCount.getAndIncrement();
+        latencies.set((int) (index % LATENCY_SAMPLES), receiveNanos - sendTime);
+    }
+
+    /**
+     * Returns a latency percentile of the last measured ticks.
+     *
+     * @param percentile the percentile between 0 and 1.
+     * @return the latency in ns.
+     */
+    public long getLatencyPercentile(double percentile) {
+        int count = (int) Math.min(latencyCount.get(), LATENCY_SAMPLES);
+        if (count == 0) {
+            return 0;
+        }
+        long[] samples = new long[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = latencies.get(i);
+        }
+        Arrays.sort(samples);
+        return samples[(int) Math.min(count - 1, Math.floor(percentile * count))];
+    }
+
+    public long getPacketsSent() {
+        return packetsSent.get();
+    }
+
+    public long getSendFailures() {
+        return sendFailures.get();
+    }
+
+    public long getLatencySampleCount() {
+        return latencyCount.get();
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            try {
+                receiveRequests();
+                int currentInterval = interval;
+                if (client != null && currentInterval > 0) {
+                    long now = System.nanoTime();
+                    if (now >= nextTick) {
+                        tick(currentInterval);
+                        nextTick += TimeUnit.MILLISECONDS.toNanos(currentInterval);
+                        if (nextTick < now) {
+                            //the simulation cannot keep up, dont try to catch up.
+                            nextTick = now;
+                        }
+                    }
+                    LockSupport.parkNanos(Math.min(nextTick - System.nanoTime(),
+                            TimeUnit.MILLISECONDS.toNanos(1)));
+                } else {
+                    nextTick = System.nanoTime();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "Error in the simulator.", e);
+            }
+        }
+    }
+
+    private void receiveRequests() throws IOException {
+        while (true) {
+            in.clear();
+            SocketAddress sender = channel.receive(in);
+            if (sender == null) {
+                return;
+            }
+            in.flip();
+            byte type = in.get();
+            if (type == OutboundMessageTypes.REGISTER_COMMAND_APPLICATION) {
+                in.get();  // protocol version
+                String name = readString(in);
+                readString(in);  // connection password
+                int requestedInterval = in.getInt();
+                client = sender;
+                interval = forcedInterval > 0 ? forcedInterval : requestedInterval;
+                LOG.info("Registered " + name + " from " + sender + " with interval " + interval + "ms");
+                send(() -> SimulatorProtocol.writeRegistrationResult(out, CONNECTION_ID, true, false, ""));
+            } else if (type == OutboundMessageTypes.UNREGISTER_COMMAND_APPLICATION) {
+                LOG.info("Unregistered " + sender);
+                client = null;
+            } else if (type == OutboundMessageTypes.REQUEST_ENTRY_LIST) {
+                sendEntryList();
+            } else if (type == OutboundMessageTypes.REQUEST_TRACK_DATA) {
+                send(() -> SimulatorProtocol.writeTrackData(out, CONNECTION_ID,
+                        track.getTrackName(), track.getTrackMeters(), cameraSets, hudPages));
+            } else if (type == OutboundMessageTypes.CHANGE_FOCUS) {
+                in.getInt();  // connection id
+                if (in.get() != 0) {
+                    session.focusedCarId = in.getShort();
+                }
+                if (in.get() != 0) {
+                    session.activeCameraSet = readString(in);
+                    session.activeCamera = readString(in);
+                }
+            } else if (type == OutboundMessageTypes.CHANGE_HUD_PAGE) {
+                in.getInt();  // connection id
+                session.hudPage = readString(in);
+            }
+        }
+    }
+
+    private void tick(int dt) throws IOException {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+        }
+
+        tick++;
+        session.sessionTime += dt;
+        for (SimulatedCar car : cars) {
+            if (car.update(dt, track) && car.lastLapTime < session.bestLapTime) {
+                session.bestLapTime = car.lastLapTime;
+                session.bestLapCarId = car.carId;
+            }
+        }
+        Arrays.sort(standings, Comparator.comparingDouble(SimulatedCar::getRaceDistance).reversed());
+        for (int i = 0; i < standings.length; i++) {
+            standings[i].position = i + 1;
+        }
+
+        tickSendTimes.set((int) (tick % TICK_HISTORY), System.nanoTime());
+        SimulatorProtocol.writeRealtimeUpdate(out, session);
+        send();
+        for (SimulatedCar car : cars) {
+            if (car.connected) {
+                SimulatorProtocol.writeRealtimeCarUpdate(out, car);
+                send();
+            }
+        }
+    }
+
+    private void sendEntryList() throws IOException {
+        SimulatorProtocol.writeEntryList(out, CONNECTION_ID, cars);
+        send();
+        for (SimulatedCar car : cars) {
+            if (car.connected) {
+                SimulatorProtocol.writeEntryListCar(out, car);
+                send();
+            }
+        }
+    }
+
+    private void send(Runnable writer) {
+        writer.run();
+        try {
+            send();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error sending a message.", e);
+        }
+    }
+
+    private void send() throws IOException {
+        if (client == null) {
+            return;
+        }
+        if (channel.send(out, client) == 0) {
+            sendFailures.incrementAndGet();
+        } else {
+            packetsSent.incrementAndGet();
+        }
+    }
+
+    private SimulatedCar getCar(int carId) {
+        if (carId < 0 || carId >= cars.size()) {
+            LOG.warning("No car with id " + carId);
+            return null;
+        }
+        return cars.get(carId);
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import racecontrol.client.data.enums.CarLocation;
+import racecontrol.client.data.enums.CarModel;
+import racecontrol.client.data.enums.DriverCategory;
+
+/**
+ * A synthetic car that drives around the track following the velocity map.
+ *
+ * @author Leonard
+ */
+public class SimulatedCar {
+
+    /**
+     * Speed in the pitlane in km/h.
+     */
+    private static final int PITLANE_SPEED = 60;
+    /**
+     * Time a car stands still after an accident in ms.
+     */
+    private static final int ACCIDENT_DURATION = 10000;
+    /**
+     * Time a car stands in its box during a pitstop in ms.
+     */
+    private static final int PITSTOP_DURATION = 25000;
+    /**
+     * Speed used when the track has no velocity map in km/h.
+     */
+    private static final float DEFAULT_SPEED = 160;
+
+    final int carId;
+    final int raceNumber;
+    final CarModel model;
+    final String teamName;
+    final String firstName;
+    final String lastName;
+    final String shortName;
+    final DriverCategory category;
+    /**
+     * Factor applied to the velocity map to spread out the field.
+     */
+    final float pace;
+
+    boolean connected = true;
+    float splinePosition;
+    int laps = 0;
+    int kmh = 0;
+    float yaw = 0;
+    int position;
+    CarLocation location = CarLocation.TRACK;
+    int currentLapTime = 0;
+    int lastLapTime = Integer.MAX_VALUE;
+    int bestLapTime = Integer.MAX_VALUE;
+    /**
+     * Remaining time the car is stopped in ms.
+     */
+    private int stoppedTime = 0;
+    /**
+     * Remaining time in the pit box in ms. Negative if no pitstop is planned.
+     */
+    private int pitstopTime = -1;
+
+    public SimulatedCar(int carId, float splinePosition, float pace) {
+        this.carId = carId;
+        this.raceNumber = carId + 1;
+        CarModel[] models = CarModel.values();
+        this.model = models[carId % models.length];
+        this.teamName = "Simulated Team " + raceNumber;
+        this.firstName = "Driver";
+        this.lastName = "Number" + raceNumber;
+        this.shortName = String.format("D%02d", raceNumber % 100);
+        this.category = DriverCategory.values()[carId % 4];
+        this.splinePosition = splinePosition;
+        this.pace = pace;
+    }
+
+    /**
+     * Advances the car.
+     *
+     * @param dt elapsed time in ms.
+     * @param track The track to drive on.
+     * @return true if the car completed a lap.
+     */
+    public boolean update(int dt, SimulatedTrack track) {
+        currentLapTime += dt;
+        yaw = track.getDirection(splinePosition);
+
+        if (stoppedTime > 0) {
+            stoppedTime -= dt;
+            kmh = 0;
+            return false;
+        }
+        if (location == CarLocation.PITLANE && pitstopTime > 0
+                && splinePosition >= track.getPitBoxPosition()
+                && splinePosition < 0.5f) {
+            pitstopTime -= dt;
+            kmh = 0;
+            if (pitstopTime <= 0) {
+                pitstopTime = -1;
+                location = CarLocation.PITEXIT;
+            }
+            return false;
+        }
+
+        float velocity;
+        if (location == CarLocation.TRACK
+                || (location == CarLocation.PITENTRY && splinePosition < 0.95f)) {
+            velocity = track.getVelocity(splinePosition, DEFAULT_SPEED) * pace;
+        } else {
+            velocity = PITLANE_SPEED;
+        }
+        kmh = (int) velocity;
+        splinePosition += velocity / 3.6f * dt / 1000f / track.getTrackMeters();
+
+        if (location == CarLocation.PITENTRY && splinePosition > 0.97f) {
+            location = CarLocation.PITLANE;
+        }
+        if (location == CarLocation.PITEXIT && splinePosition > track.getPitBoxPosition() + 0.03f) {
+            location = CarLocation.TRACK;
+        }
+
+        if (splinePosition >= 1) {
+            splinePosition -= 1;
+            laps++;
+            lastLapTime = currentLapTime;
+            if (lastLapTime < bestLapTime) {
+                bestLapTime = lastLapTime;
+            }
+            currentLapTime = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops the car on track as if it had an accident.
+     */
+    public void crash() {
+        stoppedTime = ACCIDENT_DURATION;
+    }
+
+    /**
+     * Lets the car enter the pitlane and do a pitstop.
+     */
+    public void pit() {
+        location = CarLocation.PITENTRY;
+        pitstopTime = PITSTOP_DURATION;
+    }
+
+    /**
+     * Returns the distance driven in the session in laps.
+     *
+     * @return race distance.
+     */
+    public float getRaceDistance() {
+        return laps + splinePosition;
+    }
+
+    public int getCarId() {
+        return carId;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import racecontrol.client.data.enums.SessionPhase;
+import racecontrol.client.data.enums.SessionType;
+
+/**
+ * State of the simulated session.
+ *
+ * @author Leonard
+ */
+public class SimulatedSession {
+
+    int eventIndex = 0;
+    int sessionIndex = 0;
+    SessionType type = SessionType.PRACTICE;
+    SessionPhase phase = SessionPhase.SESSION;
+    float sessionTime = 0;
+    float sessionEndTime = 60 * 60 * 1000;
+    int focusedCarId = 0;
+    String activeCameraSet = "set1";
+    String activeCamera = "CameraTV1";
+    String hudPage = "Basic HUD";
+    float timeOfDay = 12 * 60 * 60;
+    int bestLapTime = Integer.MAX_VALUE;
+    int bestLapCarId = 0;
+
+    /**
+     * Moves on to the next session of the weekend.
+     */
+    public void next() {
+        sessionIndex++;
+        switch (type) {
+            case PRACTICE:
+                type = SessionType.QUALIFYING;
+                break;
+            case QUALIFYING:
+                type = SessionType.RACE;
+                break;
+            default:
+                type = SessionType.PRACTICE;
+                break;
+        }
+        sessionTime = 0;
+        bestLapTime = Integer.MAX_VALUE;
+        bestLapCarId = 0;
+    }
+
+    public int getSessionIndex() {
+        return sessionIndex;
+    }
+
+    public SessionType getType() {
+        return type;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.extension.trackdata.TrackData;
+
+/**
+ * Track the simulated cars drive on. Based on the bundled track data.
+ *
+ * @author Leonard
+ */
+public class SimulatedTrack {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(SimulatedTrack.class.getName());
+    /**
+     * Track length used when no track data is available.
+     */
+    private static final int DEFAULT_TRACK_METERS = 4000;
+    /**
+     * The track data.
+     */
+    private final TrackData trackData;
+
+    public SimulatedTrack(String trackName) {
+        trackData = loadTrackData(trackName);
+    }
+
+    public String getTrackName() {
+        return trackData.getTrackname();
+    }
+
+    public int getTrackMeters() {
+        return trackData.getTrackMeters();
+    }
+
+    /**
+     * Returns the spline position of the pit boxes.
+     *
+     * @return the spline position.
+     */
+    public float getPitBoxPosition() {
+        return 0.02f;
+    }
+
+    /**
+     * Returns the velocity map speed for a spline position.
+     *
+     * @param s the spline position.
+     * @param defaultSpeed speed to use if the track has no velocity map.
+     * @return velocity in km/h.
+     */
+    public float getVelocity(float s, float defaultSpeed) {
+        return interpolate(trackData.getGt3VelocityMap(), s, defaultSpeed);
+    }
+
+    /**
+     * Returns the driving direction for a spline position.
+     *
+     * @param s the spline position.
+     * @return the direction in radians.
+     */
+    public float getDirection(float s) {
+        List<Float> map = trackData.getDirectionMap();
+        if (map.isEmpty()) {
+            return 0;
+        }
+        int index = (int) (s * map.size()) % map.size();
+        return map.get(index);
+    }
+
+    private float interpolate(List<Float> map, float s, float defaultValue) {
+        if (map.isEmpty()) {
+            return defaultValue;
+        }
+        int lowerIndex = (int) Math.floor(s * map.size()) % map.size();
+        int upperIndex = (lowerIndex + 1) % map.size();
+        float t = s * map.size() % 1;
+        return map.get(lowerIndex) * (1 - t) + map.get(upperIndex) * t;
+    }
+
+    private TrackData loadTrackData(String trackName) {
+        try (InputStream in = getClass().getResourceAsStream("/trackdata/" + trackName + ".trackData")) {
+            if (in != null) {
+                ObjectInputStream objIn = new ObjectInputStream(in);
+                return (TrackData) objIn.readObject();
+            }
+            LOG.warning(trackName + " track data not found, using a constant speed.");
+        } catch (IOException | ClassNotFoundException ex) {
+            LOG.log(Level.WARNING, trackName + " track data could not be read.", ex);
+        }
+        return new TrackData(trackName, DEFAULT_TRACK_METERS);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import racecontrol.client.AccBroadcastingProtocol.InboundMessageTypes;
+import racecontrol.client.data.enums.BroadcastingEventType;
+import racecontrol.client.data.enums.CarLocation;
+import racecontrol.client.data.enums.LapType;
+
+/**
+ * Writes the server side messages of the broadcasting protocol. All methods
+ * write into a little endian buffer supplied by the caller and leave it
+ * ready to be sent.
+ *
+ * @author Leonard
+ */
+public class SimulatorProtocol {
+
+    /**
+     * non instantiable.
+     */
+    private SimulatorProtocol() {
+    }
+
+    public static void writeRegistrationResult(ByteBuffer out,
+            int connectionId,
+            boolean success,
+            boolean readOnly,
+            String errorMessage) {
+        out.clear();
+        out.put(InboundMessageTypes.REGISTRATION_RESULT);
+        out.putInt(connectionId);
+        out.put((byte) (success ? 1 : 0));
+        out.put((byte) (readOnly ? 0 : 1));
+        writeString(out, errorMessage);
+        out.flip();
+    }
+
+    public static void writeRealtimeUpdate(ByteBuffer out, SimulatedSession session) {
+        out.clear();
+        out.put(InboundMessageTypes.REALTIME_UPDATE);
+        out.putShort((short) session.eventIndex);
+        out.putShort((short) session.sessionIndex);
+        out.put((byte) session.type.getId());
+        out.put((byte) session.phase.getId());
+        out.putFloat(session.sessionTime);
+        out.putFloat(session.sessionEndTime);
+        out.putInt(session.focusedCarId);
+        writeString(out, session.activeCameraSet);
+        writeString(out, session.activeCamera);
+        writeString(out, session.hudPage);
+        out.put((byte) 0);  // no replay playing
+        out.putFloat(session.timeOfDay);
+        out.put((byte) 22); // ambient temp
+        out.put((byte) 30); // track temp
+        out.put((byte) 0);  // clouds
+        out.put((byte) 0);  // rain
+        out.put((byte) 0);  // wetness
+        writeLap(out, session.bestLapTime, session.bestLapCarId, 0, LapType.REGULAR);
+        out.flip();
+    }
+
+    public static void writeRealtimeCarUpdate(ByteBuffer out, SimulatedCar car) {
+        out.clear();
+        out.put(InboundMessageTypes.REALTIME_CAR_UPDATE);
+        out.putShort((short) car.carId);
+        out.putShort((short) 0);    // driver index
+        out.put((byte) 1);          // driver count
+        out.put((byte) (car.kmh > 0 ? 4 : 1));
+        out.putFloat(car.yaw);
+        out.putFloat(0);            // pitch
+        out.putFloat(0);            // roll
+        out.put((byte) car.location.getId());
+        out.putShort((short) car.kmh);
+        out.putShort((short) car.position);
+        out.putShort((short) car.position);
+        out.putShort((short) car.position);
+        out.putFloat(car.splinePosition);
+        out.putShort((short) car.laps);
+        out.putInt(car.currentLapTime - car.bestLapTime);
+        writeLap(out, car.bestLapTime, car.carId, 0, LapType.REGULAR);
+        writeLap(out, car.lastLapTime, car.carId, 0, LapType.REGULAR);
+        writeLap(out, car.currentLapTime, car.carId, 0,
+                car.location == CarLocation.TRACK
+                ? LapType.REGULAR : LapType.INLAP);
+        out.flip();
+    }
+
+    public static void writeEntryList(ByteBuffer out, int connectionId, List<SimulatedCar> cars) {
+        out.clear();
+        out.put(InboundMessageTypes.ENTRY_LIST);
+        out.putInt(connectionId);
+        int count = 0;
+        for (SimulatedCar car : cars) {
+            if (car.connected) {
+                count++;
+            }
+        }
+        out.putShort((short) count);
+        for (SimulatedCar car : cars) {
+            if (car.connected) {
+                out.putShort((short) car.carId);
+            }
+        }
+        out.flip();
+    }
+
+    public static void writeEntryListCar(ByteBuffer out, SimulatedCar car) {
+        out.clear();
+        out.put(InboundMessageTypes.ENTRY_LIST_CAR);
+        out.putShort((short) car.carId);
+        out.put((byte) car.model.getType());
+        writeString(out, car.teamName);
+        out.putInt(car.raceNumber);
+        out.put((byte) 0);          // cup category
+        out.put((byte) 0);          // current driver index
+        out.putShort((short) 0);    // nationality
+        out.put((byte) 1);          // driver count
+        writeString(out, car.firstName);
+        writeString(out, car.lastName);
+        writeString(out, car.shortName);
+        out.put((byte) car.category.getId());
+        out.putShort((short) 0);    // driver nationality
+        out.flip();
+    }
+
+    public static void writeTrackData(ByteBuffer out,
+            int connectionId,
+            String trackName,
+            int trackMeters,
+            Map<String, List<String>> cameraSets,
+            List<String> hudPages) {
+        out.clear();
+        out.put(InboundMessageTypes.TRACK_DATA);
+        out.putInt(connectionId);
+        writeString(out, trackName);
+        out.putInt(0);  // track id
+        out.putInt(trackMeters);
+        out.put((byte) cameraSets.size());
+        for (Map.Entry<String, List<String>> set : cameraSets.entrySet()) {
+            writeString(out, set.getKey());
+            out.put((byte) set.getValue().size());
+            for (String camera : set.getValue()) {
+                writeString(out, camera);
+            }
+        }
+        out.put((byte) hudPages.size());
+        for (String page : hudPages) {
+            writeString(out, page);
+        }
+        out.flip();
+    }
+
+    public static void writeBroadcastingEvent(ByteBuffer out,
+            BroadcastingEventType type,
+            String message,
+            int timeMs,
+            int carId) {
+        out.clear();
+        out.put(InboundMessageTypes.BROADCASTING_EVENT);
+        out.put((byte) type.getId());
+        writeString(out, message);
+        out.putInt(timeMs);
+        out.putInt(carId);
+        out.flip();
+    }
+
+    private static void writeLap(ByteBuffer out, int lapTime, int carId, int driverIndex, LapType type) {
+        out.putInt(lapTime);
+        out.putShort((short) carId);
+        out.putShort((short) driverIndex);
+        out.put((byte) 0);  // split count
+        out.put((byte) 0);  // is invalid
+        out.put((byte) 1);  // is valid for best
+        out.put((byte) (type == LapType.OUTLAP ? 1 : 0));
+        out.put((byte) (type == LapType.INLAP ? 1 : 0));
+    }
+
+    private static void writeString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+}
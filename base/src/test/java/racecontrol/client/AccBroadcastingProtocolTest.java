@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import racecontrol.client.AccBroadcastingProtocol.InboundMessageTypes;
+import racecontrol.client.data.BroadcastingEvent;
+import racecontrol.client.data.CarInfo;
+import racecontrol.client.data.DriverInfo;
+import racecontrol.client.data.LapInfo;
+import racecontrol.client.data.RealtimeInfo;
+import racecontrol.client.data.SessionInfo;
+import racecontrol.client.data.TrackInfo;
+import racecontrol.client.data.enums.BroadcastingEventType;
+import racecontrol.client.data.enums.CarLocation;
+import racecontrol.client.data.enums.CarModel;
+import racecontrol.client.data.enums.DriverCategory;
+import racecontrol.client.data.enums.Nationality;
+import racecontrol.client.data.enums.SessionPhase;
+import racecontrol.client.data.enums.SessionType;
+
+/**
+ * Checks that decoding a message from a buffer gives the same result as
+ * decoding it from a stream.
+ *
+ * @author Leonard
+ */
+public class AccBroadcastingProtocolTest {
+
+    /**
+     * Amount of generated messages per message type.
+     */
+    private static final int MESSAGES_PER_TYPE = 50;
+
+    @Test
+    public void bufferDecoderMatchesStreamDecoder() {
+        List<byte[]> messages = generateMessages(new Random(1));
+
+        Recorder stream = new Recorder();
+        Recorder heap = new Recorder();
+        Recorder direct = new Recorder();
+        Recorder offset = new Recorder();
+        AccBroadcastingProtocol streamProtocol = new AccBroadcastingProtocol(stream);
+        AccBroadcastingProtocol heapProtocol = new AccBroadcastingProtocol(heap);
+        AccBroadcastingProtocol directProtocol = new AccBroadcastingProtocol(direct);
+        AccBroadcastingProtocol offsetProtocol = new AccBroadcastingProtocol(offset);
+
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(2048);
+        ByteBuffer offsetBuffer = ByteBuffer.allocate(2048);
+        for (byte[] message : messages) {
+            streamProtocol.processMessage(new ByteArrayInputStream(message));
+            heapProtocol.processMessage(ByteBuffer.wrap(message));
+
+            directBuffer.clear();
+            directBuffer.put(message).flip();
+            directProtocol.processMessage(directBuffer);
+
+            //message in the middle of a larger buffer.
+            offsetBuffer.clear();
+            offsetBuffer.put(new byte[17]).put(message).put(new byte[5]);
+            offsetBuffer.position(17).limit(17 + message.length);
+            offsetProtocol.processMessage(offsetBuffer);
+        }
+
+        assertEquals(messages.size(), stream.decoded.size());
+        assertEquals(stream.decoded, heap.decoded);
+        assertEquals(stream.decoded, direct.decoded);
+        assertEquals(stream.decoded, offset.decoded);
+    }
+
+    @Test
+    public void realtimeUpdateIsDecoded() {
+        Recorder recorder = new Recorder();
+        new AccBroadcastingProtocol(recorder).processMessage(
+                ByteBuffer.wrap(realtimeUpdate(new Random(2))));
+
+        SessionInfo info = recorder.sessionInfo;
+        assertEquals(SessionType.RACE, info.getSessionType());
+        assertEquals(SessionPhase.SESSION, info.getPhase());
+        assertEquals(5, info.getFocusedCarIndex());
+        assertEquals("set", info.getActiveCameraSet());
+        assertEquals("H\u00fcd", info.getCurrentHudPage());
+        assertEquals(5000, info.getTimeOfDay());
+        assertEquals(20, info.getAmbientTemp());
+        assertEquals(3, info.getWetness());
+    }
+
+    @Test
+    public void realtimeCarUpdateIsDecoded() {
+        Recorder recorder = new Recorder();
+        new AccBroadcastingProtocol(recorder).processMessage(
+                ByteBuffer.wrap(realtimeCarUpdate(new Random(3), 12)));
+
+        RealtimeInfo info = recorder.realtimeInfo;
+        assertEquals(12, info.getCarId());
+        assertEquals(4, info.getGear());
+        assertEquals(CarLocation.PITLANE, info.getLocation());
+        assertEquals(3, info.getCupPosition());
+        assertEquals(12, info.getLaps());
+        assertEquals(-300, info.getDelta());
+        assertEquals(12, info.getLastLap().getCarId());
+        assertEquals(3, info.getLastLap().getSplits().size());
+    }
+
+    @Test
+    public void entryListCarIsDecoded() {
+        Recorder recorder = new Recorder();
+        new AccBroadcastingProtocol(recorder).processMessage(
+                ByteBuffer.wrap(entryListCar(7)));
+
+        CarInfo info = recorder.carInfo;
+        assertEquals(7, info.getCarId());
+        assertEquals(CarModel.AUDI_R8_LMS, info.getCarModel());
+        assertEquals("Team \u00d6", info.getTeamName());
+        assertEquals(77, info.getCarNumber());
+        assertEquals(2, info.getDrivers().size());
+        assertEquals("L1", info.getDrivers().get(1).getLastName());
+        assertEquals(DriverCategory.SILVER, info.getDrivers().get(1).getCategory());
+        assertEquals(Nationality.fromId(3), info.getDrivers().get(1).getDriverNationality());
+    }
+
+    @Test
+    public void truncatedMessagesAreSkipped() {
+        List<byte[]> messages = generateMessages(new Random(4));
+        Recorder recorder = new Recorder();
+        AccBroadcastingProtocol protocol = new AccBroadcastingProtocol(recorder);
+        for (byte[] message : messages.subList(0, 7)) {
+            for (int length = 0; length < message.length; length++) {
+                protocol.processMessage(ByteBuffer.wrap(message, 0, length));
+            }
+        }
+        assertTrue(recorder.decoded.isEmpty());
+
+        //the protocol keeps working afterwards.
+        protocol.processMessage(ByteBuffer.wrap(messages.get(0)));
+        assertEquals(1, recorder.decoded.size());
+    }
+
+    /**
+     * Generates messages of every inbound message type.
+     */
+    private static List<byte[]> generateMessages(Random random) {
+        List<byte[]> messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGES_PER_TYPE; i++) {
+            messages.add(realtimeUpdate(random));
+            messages.add(realtimeCarUpdate(random, random.nextInt(40)));
+            messages.add(entryList(random));
+            messages.add(trackData(i));
+            messages.add(entryListCar(random.nextInt(40)));
+            messages.add(broadcastingEvent(random, i));
+            messages.add(registrationResult(i));
+        }
+        return messages;
+    }
+
+    private static byte[] registrationResult(int connectionId) {
+        MessageWriter out = new MessageWriter(InboundMessageTypes.REGISTRATION_RESULT);
+        out.int32(connectionId);
+        out.int8(1);
+        out.int8(connectionId % 2);
+        out.string("ok " + connectionId);
+        return out.toArray();
+    }
+
+    private static byte[] realtimeUpdate(Random random) {
+        MessageWriter out = new MessageWriter(InboundMessageTypes.REALTIME_UPDATE);
+        out.uint16(1);
+        out.uint16(3);
+        out.int8(SessionType.RACE.getId());
+        out.int8(SessionPhase.SESSION.getId());
+        out.float32(random.nextFloat() * 1e6f);
+        out.float32(1e6f);
+        out.int32(5);
+        out.string("set");
+        out.string("cam" + random.nextInt(10));
+        out.string("H\u00fcd");
+        boolean isReplayPlaying = random.nextBoolean();
+        out.int8(isReplayPlaying ? 1 : 0);
+        if (isReplayPlaying) {
+            out.float32(3000);
+            out.float32(4000);
+        }
+        out.float32(5000);
+        out.int8(20);
+        out.int8(30);
+        out.int8(1);
+        out.int8(2);
+        out.int8(3);
+        lap(out, random, random.nextInt(40));
+        return out.toArray();
+    }
+
+    private static byte[] realtimeCarUpdate(Random random, int carId) {
+        MessageWriter out = new MessageWriter(InboundMessageTypes.REALTIME_CAR_UPDATE);
+        out.uint16(carId);
+        out.uint16(0);
+        out.int8(2);
+        out.int8(4);
+        out.float32(random.nextFloat());
+        out.float32(random.nextFloat());
+        out.float32(random.nextFloat());
+        out.int8(CarLocation.PITLANE.getId());
+        out.uint16(random.nextInt(300));
+        out.uint16(1 + random.nextInt(40));
+        out.uint16(3);
+        out.uint16(2);
+        out.float32(random.nextFloat());
+        out.uint16(12);
+        out.int32(-300);
+        lap(out, random, carId);
+        lap(out, random, carId);
+        lap(out, random, carId);
+        return out.toArray();
+    }
+
+    private static void lap(MessageWriter out, Random random, int carId) {
+        out.int32(random.nextInt(200000));
+        out.uint16(carId);
+        out.uint16(1);
+        //more than three splits are skipped by the decoder.
+        int splitCount = 3 + random.nextInt(2);
+        out.int8(splitCount);
+        for (int i = 0; i < splitCount; i++) {
+            out.int32(random.nextInt(90000));
+        }
+        out.int8(random.nextInt(2));
+        out.int8(random.nextInt(2));
+        out.int8(random.nextInt(2));
+        out.int8(random.nextInt(2));
+    }
+
+    private static byte[] entryList(Random random) {
+        MessageWriter out = new MessageWriter(InboundMessageTypes.ENTRY_LIST);
+        out.int32(1);
+        int count = random.nextInt(30);
+        out.uint16(count);
+        for (int i = 0; i < count; i++) {
+            out.uint16(random.nextInt(100));
+        }
+        return out.toArray();
+    }
+
+    private static byte[] trackData(int index) {
+        MessageWriter out = new MessageWriter(InboundMessageTypes.TRACK_DATA);
+        out.int32(1);
+        out.string("spa");
+        out.int32(index);
+        out.int32(7004);
+        out.int8(2);
+        out.string("set1");
+        out.int8(2);
+        out.string("cam1");
+        out.string("cam2");
+        out.string("set2");
+        out.int8(0);
+        out.int8(2);
+        out.string("page1");
+        out.string("page2");
+        return out.toArray();
+    }
+
+    private static byte[] entryListCar(int carId) {
+        MessageWriter out = new MessageWriter(InboundMessageTypes.ENTRY_LIST_CAR);
+        out.uint16(carId);
+        out.int8(CarModel.AUDI_R8_LMS.getType());
+        out.string("Team \u00d6");
+        out.int32(77);
+        out.int8(1);
+        out.int8(0);
+        out.uint16(2);
+        out.int8(2);
+        for (int i = 0; i < 2; i++) {
+            out.string("F" + i);
+            out.string("L" + i);
+            out.string("S" + i);
+            out.int8(DriverCategory.SILVER.getId());
+            out.uint16(3);
+        }
+        return out.toArray();
+    }
+
+    private static byte[] broadcastingEvent(Random random, int index) {
+        MessageWriter out = new MessageWriter(InboundMessageTypes.BROADCASTING_EVENT);
+        out.int8(BroadcastingEventType.ACCIDENT.getId());
+        out.string("message " + index);
+        out.int32(random.nextInt(1000000));
+        out.int32(random.nextInt(40));
+        return out.toArray();
+    }
+
+    /**
+     * Writes a message in the format of the broadcasting protocol.
+     */
+    private static class MessageWriter {
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(2048)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        MessageWriter(byte messageType) {
+            buffer.put(messageType);
+        }
+
+        void int8(int value) {
+            buffer.put((byte) value);
+        }
+
+        void uint16(int value) {
+            buffer.putShort((short) value);
+        }
+
+        void int32(int value) {
+            buffer.putInt(value);
+        }
+
+        void float32(float value) {
+            buffer.putFloat(value);
+        }
+
+        void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            uint16(bytes.length);
+            buffer.put(bytes);
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+
+    /**
+     * Records every decoded message as text, so that the output of two
+     * decoders can be compared.
+     */
+    private static class Recorder
+            implements AccBroadcastingProtocolCallback {
+
+        private final List<String> decoded = new ArrayList<>();
+        private SessionInfo sessionInfo;
+        private RealtimeInfo realtimeInfo;
+        private CarInfo carInfo;
+
+        @Override
+        public void onRegistrationResult(int connectionID, boolean success, boolean readOnly, String message) {
+            decoded.add("registration " + connectionID + " " + success
+                    + " " + readOnly + " " + message);
+        }
+
+        @Override
+        public void onRealtimeUpdate(SessionInfo info) {
+            sessionInfo = info;
+            decoded.add("realtime " + info.getEventIndex()
+                    + " " + info.getSessionIndex()
+                    + " " + info.getSessionType()
+                    + " " + info.getPhase()
+                    + " " + info.getSessionTime()
+                    + " " + info.getSessionEndTime()
+                    + " " + info.getFocusedCarIndex()
+                    + " " + info.getActiveCameraSet()
+                    + " " + info.getActiveCamera()
+                    + " " + info.getCurrentHudPage()
+                    + " " + info.isReplayPlaying()
+                    + " " + info.getReplaySessionTime()
+                    + " " + info.getReplayRemainingTime()
+                    + " " + info.getTimeOfDay()
+                    + " " + info.getAmbientTemp()
+                    + " " + info.getTrackTemp()
+                    + " " + info.getCloudLevel()
+                    + " " + info.getRainLevel()
+                    + " " + info.getWetness()
+                    + " " + lap(info.getBestSessionLap()));
+        }
+
+        @Override
+        public void onRealtimeCarUpdate(RealtimeInfo info) {
+            realtimeInfo = info;
+            decoded.add("car " + info.getCarId()
+                    + " " + info.getDriverIndex()
+                    + " " + info.getDriverCount()
+                    + " " + info.getGear()
+                    + " " + info.getYaw()
+                    + " " + info.getPitch()
+                    + " " + info.getRoll()
+                    + " " + info.getLocation()
+                    + " " + info.getKMH()
+                    + " " + info.getPosition()
+                    + " " + info.getCupPosition()
+                    + " " + info.getTrackPosition()
+                    + " " + info.getSplinePosition()
+                    + " " + info.getLaps()
+                    + " " + info.getDelta()
+                    + " " + lap(info.getBestSessionLap())
+                    + " " + lap(info.getLastLap())
+                    + " " + lap(info.getCurrentLap()));
+        }
+
+        @Override
+        public void onEntryListUpdate(List<Integer> carIds) {
+            decoded.add("entrylist " + carIds);
+        }
+
+        @Override
+        public void onTrackData(TrackInfo info) {
+            decoded.add("track " + info.getTrackName()
+                    + " " + info.getTrackId()
+                    + " " + info.getTrackMeters()
+                    + " " + info.getCameraSets()
+                    + " " + info.getHudPages());
+        }
+
+        @Override
+        public void onEntryListCarUpdate(CarInfo info) {
+            carInfo = info;
+            StringBuilder text = new StringBuilder("entrylistcar " + info.getCarId()
+                    + " " + info.getCarModel()
+                    + " " + info.getTeamName()
+                    + " " + info.getCarNumber()
+                    + " " + info.getCupCatergory()
+                    + " " + info.getCurrentDriverIndex()
+                    + " " + info.getCarNationality());
+            for (DriverInfo driver : info.getDrivers()) {
+                text.append(" ").append(driver.getFirstName())
+                        .append(" ").append(driver.getLastName())
+                        .append(" ").append(driver.getShortName())
+                        .append(" ").append(driver.getCategory())
+                        .append(" ").append(driver.getDriverNationality());
+            }
+            decoded.add(text.toString());
+        }
+
+        @Override
+        public void onBroadcastingEvent(BroadcastingEvent event) {
+            decoded.add("event " + event.getType()
+                    + " " + event.getMessage()
+                    + " " + event.getTimeMs()
+                    + " " + event.getCarId());
+        }
+
+        @Override
+        public void afterPacketReceived(byte type) {
+        }
+
+        private static String lap(LapInfo lap) {
+            return lap.getLapTimeMS()
+                    + " " + lap.getCarId()
+                    + " " + lap.getDriverIndex()
+                    + " " + lap.getSplits()
+                    + " " + lap.isInvalid()
+                    + " " + lap.getIsValidForBest()
+                    + " " + lap.getType();
+        }
+    }
+}
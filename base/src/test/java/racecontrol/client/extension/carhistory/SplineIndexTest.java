@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.carhistory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the queries of the spline index, especially around the start line
+ * where the spline position wraps from 1 to 0.
+ *
+ * @author Leonard
+ */
+public class SplineIndexTest {
+
+    private final SplineIndex index = new SplineIndex();
+
+    @Before
+    public void setUp() {
+        index.setTrackMeters(5000);
+        index.put(1, 0.01f);
+        index.put(2, 0.25f);
+        index.put(3, 0.5f);
+        index.put(4, 0.98f);
+        index.put(5, 0.995f);
+        index.sort();
+    }
+
+    @Test
+    public void findWithinWrapsAfterTheLine() {
+        assertArrayEquals(new int[]{4, 5, 1}, index.findWithin(0.995f, 0.02f));
+    }
+
+    @Test
+    public void findWithinWrapsBeforeTheLine() {
+        assertArrayEquals(new int[]{5, 1}, index.findWithin(0.005f, 0.01f));
+    }
+
+    @Test
+    public void findWithinWithoutWrap() {
+        assertArrayEquals(new int[]{2, 3}, index.findWithin(0.4f, 0.15f));
+        assertArrayEquals(new int[0], index.findWithin(0.75f, 0.1f));
+    }
+
+    @Test
+    public void findWithinMetersAcrossTheLine() {
+        //25m before and 50m after the line.
+        assertArrayEquals(new int[]{5, 1}, index.findWithinMeters(0f, 60f));
+        assertArrayEquals(new int[]{1}, index.findWithinMeters(0.02f, 60f));
+    }
+
+    @Test
+    public void findWithinMetersWithoutTrackLength() {
+        index.setTrackMeters(0);
+        assertArrayEquals(new int[0], index.findWithinMeters(0f, 60f));
+    }
+
+    @Test
+    public void findNearestAcrossTheLine() {
+        assertEquals(1, index.findNearest(0.999f, carId -> carId != 5));
+        assertEquals(5, index.findNearest(0.001f, carId -> carId != 1));
+    }
+
+    @Test
+    public void distanceAcrossTheLine() {
+        assertEquals(0.015f, SplineIndex.getDistance(0.995f, 0.01f), 0.0001f);
+        assertEquals(-0.015f, SplineIndex.getDistance(0.01f, 0.995f), 0.0001f);
+        assertEquals(75f, index.getDistanceMeters(0.995f, 0.01f), 0.5f);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.dangerdetection;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import racecontrol.client.data.AccBroadcastingData;
+import racecontrol.client.data.LapInfo;
+import racecontrol.client.data.RealtimeInfo;
+import racecontrol.client.data.SessionInfo;
+import racecontrol.client.data.TrackInfo;
+import racecontrol.client.data.enums.CarLocation;
+import racecontrol.client.data.enums.SessionPhase;
+import racecontrol.client.data.enums.SessionType;
+import racecontrol.client.events.RealtimeTickEvent;
+import racecontrol.client.extension.trackdata.TrackData;
+import racecontrol.client.extension.trackdata.TrackDataEvent;
+
+/**
+ * Checks that testing the cars against the tolerances of a synthetic track
+ * does not allocate.
+ *
+ * @author Leonard
+ */
+public class DangerDetectionExtensionTest {
+
+    /**
+     * Amount of points of the synthetic track.
+     */
+    private static final int TRACK_POINTS = 1000;
+    /**
+     * Amount of cars per tick.
+     */
+    private static final int CAR_COUNT = 40;
+    /**
+     * Amount of cars at the start of the grid that are too slow.
+     */
+    private static final int SLOW_CARS = 2;
+    /**
+     * Amount of different ticks that are replayed.
+     */
+    private static final int TICK_COUNT = 64;
+    /**
+     * Bytes the measured ticks may allocate in total. Leaves room for the
+     * measurement itself, one allocation per tick would exceed it.
+     */
+    private static final long ALLOCATION_LIMIT = 1024;
+
+    private static final List<Float> velocities = new ArrayList<>();
+    private static final List<Float> directions = new ArrayList<>();
+    private static SessionInfo sessionInfo;
+    private static DangerDetectionExtension extension;
+
+    @BeforeClass
+    public static void setUp() {
+        for (int i = 0; i < TRACK_POINTS; i++) {
+            float wave = (float) Math.sin(i / 50.0);
+            velocities.add(100f + 150f * wave * wave);
+            directions.add((float) (i * 2 * Math.PI / TRACK_POINTS - Math.PI));
+        }
+        sessionInfo = new SessionInfo(0, 0, SessionType.RACE, SessionPhase.SESSION,
+                60000, 0, 0, "", "", "", false, 0, 0, 0,
+                (byte) 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0, new LapInfo());
+
+        AccBroadcastingData model = new AccBroadcastingData(0, false,
+                new HashMap<>(), sessionInfo, new TrackInfo(), new ArrayList<>());
+        extension = new DangerDetectionExtension(() -> model, () -> 60000);
+        extension.onEvent(new TrackDataEvent(new TrackData("Synthetic", 5000,
+                velocities, 0.3f, 0.6f, 1f, 0f, directions)));
+    }
+
+    @Test
+    public void slowCarsAreFlagged() {
+        extension.onEvent(createTicks(new Random(1))[0]);
+
+        for (int carId = 0; carId < SLOW_CARS; carId++) {
+            assertTrue(extension.isCarYellowFlag(carId));
+        }
+        for (int carId = SLOW_CARS; carId < CAR_COUNT; carId++) {
+            assertFalse(extension.isCarWhiteFlag(carId));
+            assertFalse(extension.isCarYellowFlag(carId));
+        }
+    }
+
+    @Test
+    public void carUpdatesDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads
+                = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        long threadId = Thread.currentThread().getId();
+
+        RealtimeTickEvent[] ticks = createTicks(new Random(2));
+        //warm up so that the measured ticks run compiled code.
+        for (int i = 0; i < 100000; i++) {
+            extension.onEvent(ticks[i % TICK_COUNT]);
+        }
+
+        int tickCount = 100000;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < tickCount; i++) {
+            extension.onEvent(ticks[i % TICK_COUNT]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Allocated " + allocated + " bytes for "
+                + (tickCount * CAR_COUNT) + " car updates",
+                allocated < ALLOCATION_LIMIT);
+    }
+
+    /**
+     * Creates ticks with the cars spread randomly over the track. The cars
+     * drive the reference speed and direction, except for the first cars
+     * which are too slow.
+     */
+    private static RealtimeTickEvent[] createTicks(Random random) {
+        RealtimeTickEvent[] ticks = new RealtimeTickEvent[TICK_COUNT];
+        for (int t = 0; t < ticks.length; t++) {
+            RealtimeInfo[] cars = new RealtimeInfo[CAR_COUNT];
+            for (int carId = 0; carId < CAR_COUNT; carId++) {
+                float splinePosition = random.nextFloat();
+                int point = (int) (splinePosition * TRACK_POINTS) % TRACK_POINTS;
+                int kmh = carId < SLOW_CARS ? 20 : (int) (float) velocities.get(point);
+                cars[carId] = new RealtimeInfo(carId, 0, (byte) 1, (byte) 3,
+                        directions.get(point), 0, 0, CarLocation.TRACK, kmh,
+                        carId + 1, carId + 1, carId + 1, splinePosition, 3, 0,
+                        new LapInfo(), new LapInfo(), new LapInfo());
+            }
+            ticks[t] = new RealtimeTickEvent(sessionInfo, cars, true);
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.statistics.processors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+import racecontrol.client.data.CarInfo;
+import racecontrol.client.data.LapInfo;
+import racecontrol.client.data.LiveCarState;
+import racecontrol.client.data.RealtimeInfo;
+import racecontrol.client.data.SessionInfo;
+import racecontrol.client.data.enums.CarLocation;
+import racecontrol.client.data.enums.CarModel;
+import racecontrol.client.data.enums.SessionPhase;
+import racecontrol.client.data.enums.SessionType;
+import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeUpdateEvent;
+import static racecontrol.client.extension.statistics.CarProperties.LAPS_BEHIND_LEADER;
+import static racecontrol.client.extension.statistics.CarProperties.RACE_DISTANCE_BEHIND_LEADER;
+import static racecontrol.client.extension.statistics.CarProperties.REALTIME_POSITION;
+import racecontrol.client.extension.statistics.WritableCarStatistics;
+import racecontrol.client.extension.trackdata.TrackData;
+import racecontrol.client.extension.trackdata.TrackDataEvent;
+
+/**
+ * Checks the positions and gaps of the cars after a connection is replaced
+ * by one with a different set of cars.
+ *
+ * @author Leonard
+ */
+public class GapProcessorTest {
+
+    private final Map<Integer, WritableCarStatistics> stats = new HashMap<>();
+    private final SessionInfo sessionInfo = new SessionInfo(0, 0, SessionType.RACE,
+            SessionPhase.SESSION, 60000, 0, 0, "", "", "", false, 0, 0, 0,
+            (byte) 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0, new LapInfo());
+    private LiveCarState carState;
+    private RealtimePositionProcessor positionProcessor;
+    private GapProcessor gapProcessor;
+
+    @Before
+    public void setUp() {
+        positionProcessor = new RealtimePositionProcessor(stats, () -> carState);
+        gapProcessor = new GapProcessor(stats, () -> carState);
+
+        List<Float> velocities = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            velocities.add(150f);
+        }
+        gapProcessor.onEvent(new TrackDataEvent(new TrackData("Synthetic", 5000,
+                velocities, 0.3f, 0.6f, 1f, 0f, new ArrayList<>())));
+    }
+
+    @Test
+    public void carsOfThePreviousConnectionAreDropped() {
+        connect(realtime(1, 5, 0.9f), realtime(2, 5, 0.8f), realtime(3, 5, 0.7f));
+        assertEquals(1, (int) stats.get(1).get(REALTIME_POSITION));
+        assertEquals(3, (int) stats.get(3).get(REALTIME_POSITION));
+
+        //a new connection without disconnecting the old cars.
+        connect(realtime(7, 2, 0.5f), realtime(8, 2, 0.4f));
+
+        assertEquals(1, (int) stats.get(7).get(REALTIME_POSITION));
+        assertEquals(2, (int) stats.get(8).get(REALTIME_POSITION));
+        assertEquals(0, (int) stats.get(8).get(LAPS_BEHIND_LEADER));
+        assertEquals(0.1f, stats.get(8).get(RACE_DISTANCE_BEHIND_LEADER), 0.001f);
+        int[] carIds = gapProcessor.getGapMatrix().getCarIds();
+        Arrays.sort(carIds);
+        assertArrayEquals(new int[]{7, 8}, carIds);
+    }
+
+    /**
+     * Replaces the cars of the connection and sends one realtime update for
+     * each of them.
+     */
+    private void connect(RealtimeInfo... cars) {
+        carState = new LiveCarState();
+        for (RealtimeInfo info : cars) {
+            carState.put(info.getCarId(), new CarInfo(info.getCarId(), CarModel.ERROR,
+                    "", info.getCarId(), (byte) 0, (byte) 0, 0, new ArrayList<>(), info));
+            stats.putIfAbsent(info.getCarId(), new WritableCarStatistics());
+        }
+        for (RealtimeInfo info : cars) {
+            carState.update(info);
+            positionProcessor.onEvent(new RealtimeCarUpdateEvent(info));
+        }
+        RealtimeUpdateEvent update = new RealtimeUpdateEvent(sessionInfo);
+        positionProcessor.onEvent(update);
+        gapProcessor.onEvent(update);
+    }
+
+    private RealtimeInfo realtime(int carId, int laps, float splinePosition) {
+        return new RealtimeInfo(carId, 0, (byte) 1, (byte) 3, 0, 0, 0,
+                CarLocation.TRACK, 150, carId, carId, carId, splinePosition, laps, 0,
+                new LapInfo(), new LapInfo(), new LapInfo());
+    }
+}